@@ -0,0 +1,476 @@
+package components;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import utils.ForecastValidator;
+import utils.Methods;
+import utils.XmlDateUpdater;
+
+/**
+ * Uploads forecast XML to the Supplier Portal's DocumentSubmission form over plain HTTP (no browser).
+ * - Discovers the form the way the browser sees it: GET /nav?cmd=DocumentSubmission, follow the
+ *   mainFrame src if needed, then read uploadForm's action, hidden inputs and file input name.
+ * - Authenticates with the browser session's cookies (fromDriver) and keeps cookies set by the portal;
+ *   cookies keep their domain and path and are only sent to matching URLs.
+ * - An upload is not idempotent: it is re-sent only when the portal refused the form token (403/419 or
+ *   a page saying the token/CSRF value is invalid, expired or used), never after 5xx or error pages.
+ * - Loaded forms are reused across uploads and threads. A form returned in an upload response replaces
+ *   the used one; once a used token is refused, tokens are treated as single-use and every upload takes
+ *   a fresh form instead of failing once and re-sending.
+ * - HttpURLConnection keeps connections alive as long as every response is fully read and closed,
+ *   so back-to-back uploads reuse one socket.
+ * - Every accepted document is registered with IntegrationLogVerifier.run() for the end-of-run log check.
+ * - One client per portal session; instances are thread-safe.
+ */
+public class DocumentUploadClient {
+
+    static final String NAVIGATE_XML = "/nav?cmd=DocumentSubmission";
+    private static final String FORM_ID = "uploadForm";
+    private static final String LOGIN_FIELD = "username_id";
+    private static final int TIMEOUT_MILLIS = 60_000;
+
+    private static final Pattern FORM = Pattern.compile(
+            "<form\\b([^>]*\\bid\\s*=\\s*[\"']" + FORM_ID + "[\"'][^>]*)>(.*?)</form>",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern MAIN_FRAME = Pattern.compile(
+            "<i?frame\\b[^>]*\\bname\\s*=\\s*[\"']mainFrame[\"'][^>]*>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern INPUT = Pattern.compile("<input\\b([^>]*)>", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ATTRIBUTE = Pattern.compile(
+            "([\\w-]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s>]+))");
+    private static final Pattern TOKEN_REJECTED = Pattern.compile(
+            "\\b(invalid|expired|bad|stale|used|missing)\\b[^<]{0,40}\\b(token|csrf)\\b"
+                    + "|\\b(token|csrf)\\b[^<]{0,40}\\b(invalid|expired|already used|mismatch|missing)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final String baseUrl;
+    private final Map<String, StoredCookie> cookies = new LinkedHashMap<>(); // by name;domain;path
+    private final Queue<UploadForm> idleForms = new ConcurrentLinkedQueue<>();
+    private volatile boolean singleUseTokens;
+    IntegrationLogVerifier uploads = IntegrationLogVerifier.run(); // accepted documents are registered here
+
+    /**
+     * Typed outcome of one upload.
+     */
+    public static class Result {
+        public String fileName;
+        public int statusCode;
+        public boolean success;         // 2xx and the portal did not bounce us to the login page
+        public boolean sessionExpired;  // response was the login page
+        public boolean tokenRejected;   // the form token was refused, so the document was not taken
+        public int attempts;            // POSTs sent: 2 only after a refused token
+        public long bytesSent;
+        public long elapsedMillis;
+        public String responseBody;
+
+        @Override
+        public String toString() {
+            return "Upload[" + fileName + ": HTTP " + statusCode
+                    + (success ? " ok" : sessionExpired ? " session expired" : tokenRejected ? " token rejected" : " failed")
+                    + ", " + bytesSent + " bytes, " + attempts + " attempt(s), " + elapsedMillis + "ms]";
+        }
+    }
+
+    /** Parsed upload form. */
+    static final class UploadForm {
+        String action;
+        String fileField;
+        final Map<String, String> hiddenFields = new LinkedHashMap<>();
+        int uses;           // uploads already sent with this form's token
+    }
+
+    /** Cookie with the scope it was set for (RFC 6265 domain and path matching). */
+    static final class StoredCookie {
+        final String name;
+        final String value;
+        final String domain;    // lower case, no leading dot
+        final boolean hostOnly; // no Domain attribute: only the exact host
+        final String path;
+        final boolean secure;
+
+        StoredCookie(String name, String value, String domain, boolean hostOnly, String path, boolean secure) {
+            this.name = name;
+            this.value = value;
+            this.domain = domain.toLowerCase(Locale.ROOT);
+            this.hostOnly = hostOnly;
+            this.path = path == null || !path.startsWith("/") ? "/" : path;
+            this.secure = secure;
+        }
+
+        String key() {
+            return name + ";" + domain + ";" + path;
+        }
+
+        boolean matches(URI uri) {
+            String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+            boolean domainMatch = hostOnly ? host.equals(domain) : host.equals(domain) || host.endsWith("." + domain);
+            String requestPath = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            boolean pathMatch = requestPath.equals(path) || requestPath.startsWith(path.endsWith("/") ? path : path + "/");
+            return domainMatch && pathMatch && (!secure || "https".equalsIgnoreCase(uri.getScheme()));
+        }
+    }
+
+    /**
+     * @param baseUrl portal root, e.g. the supplier_portal config value
+     */
+    public DocumentUploadClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    /**
+     * Client authenticated with the cookies of a logged-in browser session.
+     */
+    public static DocumentUploadClient fromDriver(WebDriver driver, String baseUrl) {
+        DocumentUploadClient client = new DocumentUploadClient(baseUrl);
+        for (Cookie c : driver.manage().getCookies()) {
+            String domain = c.getDomain();
+            if (domain == null || domain.isEmpty()) {
+                client.setCookie(c.getName(), c.getValue());
+            } else { // browsers report domain cookies with a leading dot, host-only ones without
+                client.storeCookie(new StoredCookie(c.getName(), c.getValue(), domain.replaceFirst("^\\.", ""),
+                        !domain.startsWith("."), c.getPath(), c.isSecure()));
+            }
+        }
+        return client;
+    }
+
+    /** Cookie for the portal host (host-only, path "/"). */
+    public void setCookie(String name, String value) {
+        storeCookie(new StoredCookie(name, value, URI.create(baseUrl).getHost(), true, "/", false));
+    }
+
+    /** Cookie for a domain and its subdomains, sent to URLs under path. */
+    public void setCookie(String name, String value, String domain, String path) {
+        storeCookie(new StoredCookie(name, value, domain.replaceFirst("^\\.", ""), false, path, false));
+    }
+
+    private synchronized void storeCookie(StoredCookie c) {
+        cookies.put(c.key(), c);
+    }
+
+    /**
+     * Rewrites the dates of resources/xml/{fileName} in memory, validates and uploads it.
+     */
+    public Result uploadForecast(String fileName) {
+        byte[] content = XmlDateUpdater.updateForecastDatesToBytes(fileName);
+        ForecastValidator.requireValid(fileName, content);
+        return upload(fileName, content);
+    }
+
+    /**
+     * Uploads content as the form's file field. It is re-sent once, with a freshly loaded form, only
+     * when the portal refused the form token; any other failure is returned as is, since the portal
+     * may already have stored the document.
+     */
+    public Result upload(String fileName, byte[] content) {
+        UploadForm f = takeForm();
+        Result result = post(fileName, content, f);
+        if (result.tokenRejected) {
+            if (f.uses > 0) {
+                singleUseTokens = true; // a used token was refused: never send one twice again
+            }
+            int attempts = result.attempts;
+            result = post(fileName, content, loadForm());
+            result.attempts += attempts;
+        }
+        if (result.success) {
+            uploads.expectUpload(fileName, content);
+        }
+        Methods.sline(result.toString());
+        return result;
+    }
+
+    // ---------------- HTTP ----------------
+
+    private Result post(String fileName, byte[] content, UploadForm f) {
+        long start = System.nanoTime();
+        String boundary = "----fc" + UUID.randomUUID().toString().replace("-", "");
+        byte[] body = multipart(boundary, f, fileName, content);
+        Result result = new Result();
+        result.fileName = fileName;
+        result.bytesSent = body.length;
+        try {
+            HttpURLConnection conn = open(f.action, "POST");
+            conn.setDoOutput(true);
+            conn.setFixedLengthStreamingMode(body.length);
+            conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(body);
+            }
+            result.statusCode = conn.getResponseCode();
+            result.responseBody = readBody(conn);
+            storeCookies(conn);
+            result.attempts = 1;
+            result.sessionExpired = result.responseBody.contains(LOGIN_FIELD);
+            result.tokenRejected = !result.sessionExpired && isTokenRejection(result.statusCode, result.responseBody);
+            result.success = result.statusCode / 100 == 2 && !result.sessionExpired && !result.tokenRejected;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload " + fileName + " to " + f.action, e);
+        }
+        UploadForm next = parseForm(f.action, result.responseBody);
+        if (next != null) {
+            idleForms.offer(next); // the portal handed out the next form with the response
+        } else if (result.success && !singleUseTokens) {
+            f.uses++;
+            idleForms.offer(f);
+        }
+        result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return result;
+    }
+
+    /** Refused token: 403/419 or a 2xx/403/419 page saying the token is invalid, expired or used. */
+    static boolean isTokenRejection(int statusCode, String body) {
+        boolean tokenText = TOKEN_REJECTED.matcher(body).find();
+        return statusCode == 419 || (statusCode == 403 || statusCode / 100 == 2) && tokenText;
+    }
+
+    /** An idle form, or a newly loaded one when none is idle (each form is used by one upload at a time). */
+    private UploadForm takeForm() {
+        UploadForm f = idleForms.poll();
+        return f != null ? f : loadForm();
+    }
+
+    UploadForm loadForm() {
+        String pageUrl = baseUrl + NAVIGATE_XML;
+        String html = get(pageUrl);
+        if (!FORM.matcher(html).find()) {
+            Matcher frame = MAIN_FRAME.matcher(html);
+            if (frame.find()) {
+                String src = attributes(frame.group(0)).get("src");
+                if (src != null) {
+                    pageUrl = resolve(pageUrl, src);
+                    html = get(pageUrl);
+                }
+            }
+        }
+        UploadForm f = parseForm(pageUrl, html);
+        if (f == null) {
+            throw new IllegalStateException(html.contains(LOGIN_FIELD)
+                    ? "Not logged in: DocumentSubmission returned the login page"
+                    : FORM.matcher(html).find()
+                    ? "No file input in " + FORM_ID + " at " + pageUrl
+                    : "No " + FORM_ID + " form found at " + pageUrl);
+        }
+        return f;
+    }
+
+    /** The upload form in html (relative URLs resolved against pageUrl), or null if it has none with a file input. */
+    static UploadForm parseForm(String pageUrl, String html) {
+        Matcher m = FORM.matcher(html);
+        if (!m.find()) {
+            return null;
+        }
+        UploadForm f = new UploadForm();
+        String action = attributes(m.group(1)).get("action");
+        f.action = resolve(pageUrl, action == null || action.isEmpty() ? pageUrl : action);
+        Matcher input = INPUT.matcher(m.group(2));
+        while (input.find()) {
+            Map<String, String> attrs = attributes(input.group(1));
+            String type = attrs.getOrDefault("type", "text").toLowerCase();
+            String name = attrs.get("name");
+            if (name == null) {
+                continue;
+            }
+            if ("file".equals(type)) {
+                f.fileField = name;
+            } else if ("hidden".equals(type)) {
+                f.hiddenFields.put(name, decodeEntities(attrs.getOrDefault("value", "")));
+            }
+        }
+        return f.fileField == null ? null : f;
+    }
+
+    private String get(String url) {
+        try {
+            HttpURLConnection conn = open(url, "GET");
+            int status = conn.getResponseCode();
+            String body = readBody(conn);
+            storeCookies(conn);
+            if (status / 100 != 2) {
+                throw new IllegalStateException("GET " + url + " returned HTTP " + status);
+            }
+            return body;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to GET " + url, e);
+        }
+    }
+
+    private HttpURLConnection open(String url, String method) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setRequestMethod(method);
+        conn.setConnectTimeout(TIMEOUT_MILLIS);
+        conn.setReadTimeout(TIMEOUT_MILLIS);
+        conn.setInstanceFollowRedirects(true);
+        String cookieHeader = cookieHeader(url);
+        if (!cookieHeader.isEmpty()) {
+            conn.setRequestProperty("Cookie", cookieHeader);
+        }
+        return conn;
+    }
+
+    /** Reads the whole response (error or not) and closes it, which returns the socket to the keep-alive cache. */
+    private static String readBody(HttpURLConnection conn) throws IOException {
+        InputStream in = conn.getResponseCode() >= 400 ? conn.getErrorStream() : conn.getInputStream();
+        if (in == null) {
+            return "";
+        }
+        try (InputStream body = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = body.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Cookies whose domain, path and secure flag match url. */
+    private synchronized String cookieHeader(String url) {
+        URI uri = URI.create(url);
+        StringBuilder sb = new StringBuilder();
+        for (StoredCookie c : cookies.values()) {
+            if (c.matches(uri)) {
+                if (sb.length() > 0) sb.append("; ");
+                sb.append(c.name).append('=').append(c.value);
+            }
+        }
+        return sb.toString();
+    }
+
+    private synchronized void storeCookies(HttpURLConnection conn) {
+        URI uri;
+        try {
+            uri = conn.getURL().toURI(); // after redirects
+        } catch (URISyntaxException e) {
+            return;
+        }
+        for (Map.Entry<String, List<String>> header : conn.getHeaderFields().entrySet()) {
+            if (!"Set-Cookie".equalsIgnoreCase(header.getKey())) { // header names are not case-normalized
+                continue;
+            }
+            for (String value : header.getValue()) {
+                StoredCookie c = parseSetCookie(uri, value);
+                if (c == null) {
+                    continue;
+                }
+                cookies.remove(c.key());
+                if (c.value != null) {
+                    cookies.put(c.key(), c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Set-Cookie header scoped as a browser would: Domain (else host-only), Path (else the request's
+     * directory), Secure. A Max-Age of 0 or less yields a cookie with a null value (deleted).
+     */
+    static StoredCookie parseSetCookie(URI request, String header) {
+        String[] parts = header.split(";");
+        int eq = parts[0].indexOf('=');
+        if (eq <= 0) {
+            return null;
+        }
+        String name = parts[0].substring(0, eq).trim();
+        String value = parts[0].substring(eq + 1).trim();
+        String host = request.getHost() == null ? "" : request.getHost();
+        String domain = null;
+        String path = null;
+        boolean secure = false;
+        for (int i = 1; i < parts.length; i++) {
+            String attr = parts[i].trim();
+            int a = attr.indexOf('=');
+            String key = (a < 0 ? attr : attr.substring(0, a)).trim().toLowerCase(Locale.ROOT);
+            String val = a < 0 ? "" : attr.substring(a + 1).trim();
+            switch (key) {
+                case "domain":
+                    domain = val.replaceFirst("^\\.", "");
+                    break;
+                case "path":
+                    path = val;
+                    break;
+                case "secure":
+                    secure = true;
+                    break;
+                case "max-age":
+                    if (val.matches("-?\\d+") && Long.parseLong(val) <= 0) {
+                        value = null;
+                    }
+                    break;
+                default:
+            }
+        }
+        if (domain != null && !domain.isEmpty()) {
+            String h = host.toLowerCase(Locale.ROOT);
+            String d = domain.toLowerCase(Locale.ROOT);
+            if (!h.equals(d) && !h.endsWith("." + d)) {
+                return null; // a server may not set cookies for another domain
+            }
+        }
+        if (path == null || !path.startsWith("/")) {
+            String requestPath = request.getRawPath() == null ? "" : request.getRawPath();
+            int slash = requestPath.lastIndexOf('/');
+            path = slash <= 0 ? "/" : requestPath.substring(0, slash);
+        }
+        boolean hostOnly = domain == null || domain.isEmpty();
+        return new StoredCookie(name, value, hostOnly ? host : domain, hostOnly, path, secure);
+    }
+
+    static byte[] multipart(String boundary, UploadForm f, String fileName, byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length + 1024);
+        StringBuilder head = new StringBuilder();
+        for (Map.Entry<String, String> field : f.hiddenFields.entrySet()) {
+            head.append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"").append(field.getKey()).append("\"\r\n\r\n")
+                .append(field.getValue()).append("\r\n");
+        }
+        head.append("--").append(boundary).append("\r\n")
+            .append("Content-Disposition: form-data; name=\"").append(f.fileField)
+            .append("\"; filename=\"").append(fileName.replace("\"", "")).append("\"\r\n")
+            .append("Content-Type: text/xml\r\n\r\n");
+        byte[] headBytes = head.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(headBytes, 0, headBytes.length);
+        out.write(content, 0, content.length);
+        byte[] tail = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        out.write(tail, 0, tail.length);
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> attributes(String tagBody) {
+        Map<String, String> attrs = new LinkedHashMap<>();
+        Matcher m = ATTRIBUTE.matcher(tagBody);
+        while (m.find()) {
+            String value = m.group(2) != null ? m.group(2) : m.group(3) != null ? m.group(3) : m.group(4);
+            attrs.put(m.group(1).toLowerCase(), value);
+        }
+        return attrs;
+    }
+
+    private static String resolve(String base, String relative) {
+        return URI.create(base).resolve(decodeEntities(relative).trim()).toString();
+    }
+
+    private static String decodeEntities(String s) {
+        return s.replace("&quot;", "\"").replace("&#39;", "'").replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,272 @@
+package components;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import model.IntegrationLogRow;
+import utils.AdaptiveWait;
+import utils.Methods;
+
+/**
+ * Lazy, page-by-page iteration over Integration Log rows.
+ * - A page is fetched only when the previous one is used up, and only the current page is held,
+ *   so a lookup that matches on page 2 never touches page 3.
+ * - stream() / find() stop fetching as soon as a row matches.
+ * - Pages come from a PageSource: the browser (current table + "next" link) or plain HTML pages
+ *   fetched by URL (local fixtures, or the portal with the session's cookies).
+ */
+public class IntegrationLogReader implements Iterator<IntegrationLogRow> {
+
+    static final String TABLE_ID = "logTableRow";
+    /** Next-page link: rel="next" or the text "Next". */
+    public static final By NEXT_PAGE = By.xpath("//a[@rel='next' or normalize-space()='Next']");
+
+    /**
+     * Cursor over result pages.
+     */
+    public interface PageSource {
+        /** Rows of the current page (header -> cell text). */
+        List<Map<String, String>> rows();
+
+        /** Moves to the next page; false when the current page is the last one. */
+        boolean nextPage();
+    }
+
+    private final PageSource source;
+    private Iterator<Map<String, String>> page;
+    private boolean started;
+    private boolean exhausted;
+    private int pagesFetched;
+
+    public IntegrationLogReader(PageSource source) {
+        this.source = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (page == null || !page.hasNext()) {
+            if (exhausted) {
+                return false;
+            }
+            if (started && !source.nextPage()) {
+                exhausted = true;
+                page = null;
+                return false;
+            }
+            started = true;
+            page = source.rows().iterator(); // replaces (and releases) the previous page
+            pagesFetched++;
+        }
+        return true;
+    }
+
+    @Override
+    public IntegrationLogRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return IntegrationLogRow.from(page.next());
+    }
+
+    /** Remaining rows as a sequential stream; short-circuiting operations stop page fetches. */
+    public Stream<IntegrationLogRow> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** First remaining row matching predicate, fetching no further than the page it is on. */
+    public Optional<IntegrationLogRow> find(Predicate<IntegrationLogRow> predicate) {
+        return stream().filter(predicate).findFirst();
+    }
+
+    public Optional<IntegrationLogRow> findDocument(String documentIdentifier) {
+        return find(r -> documentIdentifier.equals(r.documentIdentifier));
+    }
+
+    public int pagesFetched() {
+        return pagesFetched;
+    }
+
+    // ---------------- Page sources ----------------
+
+    /**
+     * Pages of the table shown in the browser: rows via Methods.parseTableRows (one script per page),
+     * next page by clicking nextLink and waiting for the old table to be replaced.
+     */
+    public static PageSource browser(WebDriver driver, By table, By nextLink) {
+        return new PageSource() {
+            public List<Map<String, String>> rows() {
+                List<Map<String, String>> rows = new ArrayList<>();
+                Methods.withDriver(driver, () -> rows.addAll(Methods.parseTableRows(table)));
+                return rows;
+            }
+
+            public boolean nextPage() {
+                List<WebElement> links = driver.findElements(nextLink);
+                if (links.isEmpty() || !links.get(0).isDisplayed()) {
+                    return false;
+                }
+                WebElement current = driver.findElement(table);
+                links.get(0).click();
+                AdaptiveWait.shared().until(driver, "integration log next page", Duration.ofSeconds(30),
+                        ExpectedConditions.stalenessOf(current));
+                return true;
+            }
+        };
+    }
+
+    /** Browser pages of the Integration Log table (#logTableRow). */
+    public static PageSource browser(WebDriver driver) {
+        return browser(driver, By.id(TABLE_ID), NEXT_PAGE);
+    }
+
+    /**
+     * Server-rendered pages fetched by URL, starting at firstPageUrl and following the next-page link
+     * (an anchor with rel="next" or the text "Next"). Cookies (e.g. the browser session's) are sent with
+     * every request; may be empty for local files.
+     */
+    public static PageSource html(String firstPageUrl, String tableId, Map<String, String> cookies) {
+        return new PageSource() {
+            private String url = firstPageUrl;
+            private String nextUrl;
+
+            public List<Map<String, String>> rows() {
+                String page = fetch(url, cookies);
+                nextUrl = nextLink(url, page);
+                return parseTable(page, tableId);
+            }
+
+            public boolean nextPage() {
+                if (nextUrl == null) {
+                    return false;
+                }
+                url = nextUrl;
+                nextUrl = null;
+                return true;
+            }
+        };
+    }
+
+    // ---------------- HTML parsing (server-rendered pages) ----------------
+
+    private static final Pattern ROW = Pattern.compile("<tr\\b[^>]*>(.*?)</tr>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern HEADER_CELL = Pattern.compile("<th\\b[^>]*>(.*?)</th>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern CELL = Pattern.compile("<td\\b[^>]*>(.*?)</td>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern ANCHOR = Pattern.compile("<a\\b([^>]*)>(.*?)</a>", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern ATTRIBUTE = Pattern.compile(
+            "([\\w-]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s>]+))");
+
+    /** Same shape as Methods.parseTableRows: thead th texts as keys, "Column" + i past the last header. */
+    static List<Map<String, String>> parseTable(String html, String tableId) {
+        Matcher t = Pattern.compile("<table\\b[^>]*\\bid\\s*=\\s*[\"']" + Pattern.quote(tableId) + "[\"'][^>]*>(.*?)</table>",
+                Pattern.CASE_INSENSITIVE | Pattern.DOTALL).matcher(html);
+        List<Map<String, String>> rows = new ArrayList<>();
+        if (!t.find()) {
+            return rows;
+        }
+        String table = t.group(1);
+        int bodyStart = indexOfIgnoreCase(table, "<tbody");
+        String head = bodyStart >= 0 ? table.substring(0, bodyStart) : table;
+        String body = bodyStart >= 0 ? table.substring(bodyStart) : table;
+
+        List<String> columnNames = new ArrayList<>();
+        Matcher th = HEADER_CELL.matcher(head);
+        while (th.find()) {
+            columnNames.add(text(th.group(1)));
+        }
+        Matcher tr = ROW.matcher(body);
+        while (tr.find()) {
+            Matcher td = CELL.matcher(tr.group(1));
+            Map<String, String> rowMap = new HashMap<>();
+            for (int i = 0; td.find(); i++) {
+                rowMap.put(i < columnNames.size() ? columnNames.get(i) : "Column" + i, text(td.group(1)));
+            }
+            if (!rowMap.isEmpty()) {
+                rows.add(rowMap);
+            }
+        }
+        return rows;
+    }
+
+    /** Absolute URL of the page's next-page link, or null on the last page. */
+    static String nextLink(String pageUrl, String html) {
+        Matcher a = ANCHOR.matcher(html);
+        while (a.find()) {
+            Map<String, String> attrs = attributes(a.group(1));
+            if ("next".equalsIgnoreCase(attrs.get("rel")) || "Next".equals(text(a.group(2)))) {
+                String href = attrs.get("href");
+                return href == null || href.isEmpty() ? null : URI.create(pageUrl).resolve(decodeEntities(href)).toString();
+            }
+        }
+        return null;
+    }
+
+    private static String fetch(String url, Map<String, String> cookies) {
+        try {
+            URLConnection conn = new URL(url).openConnection();
+            if (!cookies.isEmpty()) {
+                StringBuilder header = new StringBuilder();
+                cookies.forEach((k, v) -> header.append(header.length() > 0 ? "; " : "").append(k).append('=').append(v));
+                conn.setRequestProperty("Cookie", header.toString());
+            }
+            try (InputStream in = conn.getInputStream()) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load Integration Log page " + url, e);
+        }
+    }
+
+    private static String text(String cellHtml) {
+        return decodeEntities(cellHtml.replaceAll("<[^>]*>", " ")).replace('\u00A0', ' ').replaceAll("\\s+", " ").trim();
+    }
+
+    private static Map<String, String> attributes(String tagBody) {
+        Map<String, String> attrs = new HashMap<>();
+        Matcher m = ATTRIBUTE.matcher(tagBody);
+        while (m.find()) {
+            String value = m.group(2) != null ? m.group(2) : m.group(3) != null ? m.group(3) : m.group(4);
+            attrs.put(m.group(1).toLowerCase(), value);
+        }
+        return attrs;
+    }
+
+    private static int indexOfIgnoreCase(String s, String part) {
+        return s.toLowerCase().indexOf(part);
+    }
+
+    private static String decodeEntities(String s) {
+        return s.replace("&nbsp;", "\u00A0").replace("&quot;", "\"").replace("&#39;", "'")
+                .replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+}
@@ -0,0 +1,387 @@
+package components;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openqa.selenium.TimeoutException;
+
+import model.IntegrationLogRow;
+import utils.AdaptiveWait;
+import utils.ConfigReader;
+import utils.Methods;
+import utils.XmlFieldExtractor;
+import utils.XmlFieldExtractor.Field;
+
+/**
+ * Verifies every document uploaded in a run against the Integration Log with as few log queries as possible.
+ * - Uploads are registered with expect(). The upload paths (SupplierPortal.uploadXML, DocumentUploadClient
+ *   and so uploadXMLDirect / bulkUploadDirect) register every accepted document with run(), the
+ *   verifier of the current run.
+ * - verify() plans the fewest narrow queries: partner pair + message type when those are known; one
+ *   Document Identifier search per document while at most maxQueriesPerRound are pending; else
+ *   partner pair + message type, partner pair, and finally a single unfiltered query.
+ * - Each query's rows are read lazily and stop being read as soon as every document of that filter has
+ *   been seen; only rows of wanted documents are kept (document id -> newest row).
+ * - Templates reuse their DocumentIdentifiers across runs, so a row only counts when its Process Date
+ *   is not older than the document's registration (minus clockSkewMillis). Process dates are read in
+ *   integration_log_time_zone (default: this machine's zone); rows with an unreadable date never count.
+ * - Only rows with a success status count as verified. Failed rows are reported in Result.failed right
+ *   away; rows still in another state (e.g. processing) are re-queried like missing documents and end up
+ *   in failed if they have not succeeded by the deadline.
+ * - Documents not yet in the log are re-queried (only their filters) through AdaptiveWait ("integration
+ *   log pending documents") until the deadline. Documents with a verdict are removed from the verifier,
+ *   so a later verify() of run() only checks newer uploads.
+ */
+public class IntegrationLogVerifier {
+
+    /** Runs one filtered Integration Log query; rows are read lazily (e.g. SupplierPortal::queryIntegrationLog). */
+    public interface LogQuery {
+        Iterator<IntegrationLogRow> rows(Filter filter);
+    }
+
+    private static final Pattern SUCCESS = Pattern.compile("(?i)\\s*success(ful)?\\s*");
+    private static final Pattern FAILURE = Pattern.compile("(?i).*\\b(fail\\w*|error\\w*|reject\\w*)\\b.*");
+
+    private static final XmlFieldExtractor DOCUMENT_ID = XmlFieldExtractor.compile(
+            Field.scalar("documentIdentifier", "/RNetDemandForecast/RNetHeader/ThisDocumentIdentifier/DocumentIdentifier"));
+
+    private static final Pattern PROCESS_DATE = Pattern.compile(
+            "^\\s*(\\d{1,2}/\\d{1,2}/\\d{2,4}\\s+\\d{1,2}:\\d{2}(?::\\d{2})?\\s*[AaPp][Mm])"); // zone text is ambiguous (IST), ignored
+    private static final DateTimeFormatter PROCESS_DATE_FORMAT = new DateTimeFormatterBuilder()
+            .parseCaseInsensitive().appendPattern("M/d/[yyyy][yy] h:mm[:ss] a").toFormatter(Locale.US);
+    private static final String WAIT_NAME = "integration log pending documents";
+
+    private static final IntegrationLogVerifier RUN = configured();
+
+    /**
+     * Integration Log filter; null fields match any value. documentIdentifier is the form's search text.
+     */
+    public static final class Filter {
+        public final String shipToCompany;
+        public final String shipFromCompany;
+        public final String messageType;
+        public final String documentIdentifier;
+
+        public Filter(String shipToCompany, String shipFromCompany, String messageType) {
+            this(shipToCompany, shipFromCompany, messageType, null);
+        }
+
+        public Filter(String shipToCompany, String shipFromCompany, String messageType, String documentIdentifier) {
+            this.shipToCompany = shipToCompany;
+            this.shipFromCompany = shipFromCompany;
+            this.messageType = messageType;
+            this.documentIdentifier = documentIdentifier;
+        }
+
+        boolean covers(Expected e) {
+            return (shipToCompany == null || shipToCompany.equals(e.shipToCompany))
+                    && (shipFromCompany == null || shipFromCompany.equals(e.shipFromCompany))
+                    && (messageType == null || messageType.equals(e.messageType))
+                    && (documentIdentifier == null || documentIdentifier.equals(e.documentIdentifier));
+        }
+
+        boolean isUnfiltered() {
+            return shipToCompany == null && shipFromCompany == null && messageType == null && documentIdentifier == null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Filter)) {
+                return false;
+            }
+            Filter f = (Filter) o;
+            return Objects.equals(shipToCompany, f.shipToCompany) && Objects.equals(shipFromCompany, f.shipFromCompany)
+                    && Objects.equals(messageType, f.messageType) && Objects.equals(documentIdentifier, f.documentIdentifier);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shipToCompany, shipFromCompany, messageType, documentIdentifier);
+        }
+
+        @Override
+        public String toString() {
+            return "Filter[shipTo=" + shipToCompany + ", shipFrom=" + shipFromCompany + ", messageType=" + messageType
+                    + (documentIdentifier == null ? "" : ", search=" + documentIdentifier) + "]";
+        }
+    }
+
+    /**
+     * One uploaded document; partner and message type fields are optional and only used to narrow the query.
+     */
+    public static class Expected {
+        public String documentIdentifier;
+        public String shipToCompany;
+        public String shipFromCompany;
+        public String messageType;
+        public long registeredAt; // epoch millis; older log rows belong to earlier uploads of the same id
+    }
+
+    /**
+     * Outcome of verify().
+     */
+    public static class Result {
+        public final Map<String, IntegrationLogRow> found = new LinkedHashMap<>();  // success status
+        public final Map<String, IntegrationLogRow> failed = new LinkedHashMap<>(); // in the log, not successful
+        public final Set<String> missing = new TreeSet<>();
+        public int queries;
+        public int rounds;
+        public int rowsRead;
+        public int staleRows;     // rows of wanted documents older than their registration
+        public long elapsedMillis;
+
+        /** Every expected document is in the log with a success status. */
+        public boolean allSucceeded() {
+            return missing.isEmpty() && failed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Integration Log: %d succeeded, %d not successful, %d missing after %d queries in %d rounds (%d rows read, %d stale, %dms)%s%s",
+                    found.size(), failed.size(), missing.size(), queries, rounds, rowsRead, staleRows, elapsedMillis,
+                    failed.isEmpty() ? "" : " notSuccessful=" + failed.values(), missing.isEmpty() ? "" : " missing=" + missing);
+        }
+    }
+
+    int maxQueriesPerRound = 4;
+    long clockSkewMillis = 120_000; // portal vs. test machine clock, and Process Dates shown to the minute
+    ZoneId logZone = ZoneId.systemDefault();
+    AdaptiveWait waits;             // null: AdaptiveWait.shared()
+
+    private final Map<String, Expected> expected = new LinkedHashMap<>();
+
+    private static IntegrationLogVerifier configured() {
+        IntegrationLogVerifier v = new IntegrationLogVerifier();
+        String zone = ConfigReader.get("integration_log_time_zone");
+        if (zone != null && !zone.trim().isEmpty()) {
+            v.logZone = ZoneId.of(zone.trim());
+        }
+        return v;
+    }
+
+    /**
+     * Verifier of the current run; the upload paths register accepted documents here.
+     */
+    public static IntegrationLogVerifier run() {
+        return RUN;
+    }
+
+    /**
+     * Registers an uploaded forecast by the DocumentIdentifier in its header. Partner and message type are
+     * left open: the log's dropdown labels are not derivable from the document, so these documents are
+     * found by Document Identifier search, or by unfiltered queries while many are pending.
+     * @return the document identifier, or null when content has none (nothing is registered)
+     */
+    public String expectUpload(String fileName, byte[] content) {
+        String id;
+        try {
+            id = DOCUMENT_ID.extract(content).get("documentIdentifier");
+        } catch (Exception e) {
+            id = null;
+        }
+        if (id == null || id.trim().isEmpty()) {
+            Methods.sline("No DocumentIdentifier in " + fileName + ", not registered for Integration Log verification");
+            return null;
+        }
+        expect(id.trim(), null, null, null);
+        return id.trim();
+    }
+
+    /** Registers an uploaded document (thread-safe, e.g. from bulk upload workers). */
+    public synchronized void expect(String documentIdentifier, String shipToCompany, String shipFromCompany, String messageType) {
+        Expected e = new Expected();
+        e.documentIdentifier = documentIdentifier;
+        e.shipToCompany = shipToCompany;
+        e.shipFromCompany = shipFromCompany;
+        e.messageType = messageType;
+        e.registeredAt = System.currentTimeMillis();
+        expected.put(documentIdentifier, e);
+    }
+
+    public synchronized int size() {
+        return expected.size();
+    }
+
+    /** Forgets every registered document, e.g. after verifying them. */
+    public synchronized void clear() {
+        expected.clear();
+    }
+
+    /**
+     * Queries the log until every expected document has a success or failure row, or timeout passes.
+     * Documents that got a verdict (found or failed) are removed from this verifier.
+     */
+    public Result verify(LogQuery query, Duration timeout) {
+        long start = System.nanoTime();
+        Result result = new Result();
+        Map<String, Expected> registered;
+        synchronized (this) {
+            registered = new LinkedHashMap<>(expected);
+        }
+        Map<String, Expected> pending = new LinkedHashMap<>(registered);
+        Map<String, IntegrationLogRow> inProgress = new LinkedHashMap<>();
+
+        if (!pending.isEmpty()) {
+            try {
+                (waits != null ? waits : AdaptiveWait.shared()).until(null, WAIT_NAME, timeout, d -> {
+                    round(query, pending, inProgress, result);
+                    if (pending.isEmpty()) {
+                        return Boolean.TRUE;
+                    }
+                    Methods.sline(pending.size() + " document(s) not in the Integration Log or not done yet, polling again");
+                    return null;
+                });
+            } catch (TimeoutException e) {
+                // deadline passed: what is still pending is reported below
+            }
+        }
+        for (String id : pending.keySet()) {
+            IntegrationLogRow row = inProgress.get(id);
+            if (row != null) {
+                result.failed.put(id, row);
+            } else {
+                result.missing.add(id);
+            }
+        }
+        synchronized (this) {
+            for (String id : registered.keySet()) {
+                if (!result.missing.contains(id)) {
+                    expected.remove(id, registered.get(id)); // keeps a re-registration made meanwhile
+                }
+            }
+        }
+        result.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Methods.sline(result.toString());
+        return result;
+    }
+
+    /** One pass over the planned queries; moves documents with a verdict out of pending. */
+    private void round(LogQuery query, Map<String, Expected> pending, Map<String, IntegrationLogRow> inProgress, Result result) {
+        result.rounds++;
+        for (Filter filter : plan(pending.values())) {
+            Map<String, Long> wanted = new HashMap<>(); // id -> oldest acceptable process date
+            for (Expected e : pending.values()) {
+                if (filter.covers(e)) {
+                    wanted.put(e.documentIdentifier, e.registeredAt - clockSkewMillis);
+                }
+            }
+            if (wanted.isEmpty()) {
+                continue;
+            }
+            result.queries++;
+            Map<String, IntegrationLogRow> index = index(query.rows(filter), wanted, result);
+            for (Map.Entry<String, IntegrationLogRow> hit : index.entrySet()) {
+                String id = hit.getKey();
+                IntegrationLogRow row = hit.getValue();
+                if (isSuccess(row.status)) {
+                    result.found.put(id, row);
+                } else if (isFailure(row.status)) {
+                    result.failed.put(id, row);
+                } else {
+                    inProgress.put(id, row); // logged, not done yet: poll again
+                    continue;
+                }
+                inProgress.remove(id);
+                pending.remove(id);
+            }
+        }
+    }
+
+    static boolean isSuccess(String status) {
+        return status != null && SUCCESS.matcher(status).matches();
+    }
+
+    static boolean isFailure(String status) {
+        return status == null || status.trim().isEmpty() || FAILURE.matcher(status).matches();
+    }
+
+    /**
+     * Fewest narrow filters covering the documents: partner pair + message type when all are known, else one
+     * Document Identifier search per document when few are pending, else partner pair + message type,
+     * partner pair, and finally one unfiltered query.
+     */
+    List<Filter> plan(Collection<Expected> documents) {
+        Set<Filter> exact = new LinkedHashSet<>();
+        Set<Filter> pairs = new LinkedHashSet<>();
+        List<Filter> searches = new ArrayList<>();
+        boolean unknownPartners = false;
+        for (Expected e : documents) {
+            Filter f = new Filter(e.shipToCompany, e.shipFromCompany, e.messageType);
+            unknownPartners |= f.isUnfiltered();
+            exact.add(f);
+            pairs.add(new Filter(e.shipToCompany, e.shipFromCompany, null));
+            searches.add(new Filter(e.shipToCompany, e.shipFromCompany, e.messageType, e.documentIdentifier));
+        }
+        if (exact.size() <= maxQueriesPerRound && !unknownPartners) {
+            return new ArrayList<>(exact);
+        }
+        if (searches.size() <= maxQueriesPerRound) {
+            return searches;
+        }
+        if (exact.size() <= maxQueriesPerRound) {
+            return new ArrayList<>(exact);
+        }
+        if (pairs.size() <= maxQueriesPerRound) {
+            return new ArrayList<>(pairs);
+        }
+        List<Filter> all = new ArrayList<>();
+        all.add(new Filter(null, null, null));
+        return all;
+    }
+
+    /**
+     * Wanted document id -> most recent row not older than its registration (the log lists newest first),
+     * read until every wanted id has been seen. Other documents' rows are not kept.
+     */
+    private Map<String, IntegrationLogRow> index(Iterator<IntegrationLogRow> rows, Map<String, Long> wanted, Result result) {
+        Map<String, IntegrationLogRow> index = new HashMap<>();
+        while (index.size() < wanted.size() && rows.hasNext()) {
+            IntegrationLogRow row = rows.next();
+            result.rowsRead++;
+            Long notBefore = row.documentIdentifier == null ? null : wanted.get(row.documentIdentifier);
+            if (notBefore == null || index.containsKey(row.documentIdentifier)) {
+                continue;
+            }
+            long processed = processDateMillis(row.processDate);
+            if (processed < notBefore) {
+                result.staleRows++; // an earlier upload of the same identifier
+                continue;
+            }
+            index.put(row.documentIdentifier, row);
+        }
+        return index;
+    }
+
+    /** Process Date ("8/21/25 4:50 AM", "8/21/25 4:50:02 AM IST") in logZone as epoch millis, or -1. */
+    long processDateMillis(String processDate) {
+        Matcher m = processDate == null ? null : PROCESS_DATE.matcher(processDate);
+        if (m == null || !m.find()) {
+            return -1;
+        }
+        try {
+            return LocalDateTime.parse(m.group(1).replaceAll("\\s+", " "), PROCESS_DATE_FORMAT)
+                    .atZone(logZone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
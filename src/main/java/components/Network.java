@@ -1,5 +1,7 @@
 package components;
 
+import java.nio.charset.StandardCharsets;
+
 import org.openqa.selenium.WebDriver;
 
 import static utils.Methods.*;
@@ -58,10 +60,9 @@ public class Network {
                 FileName = FileName.replace(".xml", "");
             }
 
-            XmlDateUpdater.updateForecastDates("resources/xml/" + FileName + ".xml");
-
-            String updatedXml = new String(java.nio.file.Files.readAllBytes(
-                    java.nio.file.Paths.get("resources/testdata/" + FileName + "_updated.xml")));
+            // Rewritten in memory; no resources/testdata round trip
+            String updatedXml = new String(XmlDateUpdater.updateForecastDatesToBytes(FileName + ".xml"),
+                    StandardCharsets.UTF_8);
 
             setValue("id", PASTEMESSAGE, updatedXml);
             System.out.println("Message Pasted Successfully !!");
@@ -80,4 +81,12 @@ public class Network {
         waitForPageLoad(TIMEOUT);
         return true;
     }
+
+    /**
+     * True when the email step of the login form is shown (not authenticated).
+     */
+    public boolean isOnLoginPage() {
+        waitForPageLoad(TIMEOUT);
+        return !driver.findElements(org.openqa.selenium.By.cssSelector(EMAIL_ID)).isEmpty();
+    }
 }
@@ -7,21 +7,30 @@ import java.util.Map;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import utils.AdaptiveWait;
+import utils.BulkUploadPipeline;
+import utils.ForecastValidator;
 import utils.XmlDateUpdater;
 import model.IntegrationDetails;
+import model.IntegrationLogRow;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import utils.Methods;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,6 +46,7 @@ public class SupplierPortal {
 	private static final String NAVIGATE_HOME = "/nav?cmd=Home";
 	private static final String NAVIGATE_INTEGRATIONLOG = "/nav?cmd=IntegrationLog";
 	private WebDriver driver;
+	private DocumentUploadClient uploadClient;
 
 	public SupplierPortal(WebDriver driver) {
 		this.driver = driver;
@@ -55,6 +65,14 @@ public class SupplierPortal {
 		return true;
 	}
 
+	/**
+	 * True when the login form is shown, i.e. the session is not (or no longer) authenticated.
+	 */
+	public boolean isOnLoginPage() {
+		waitForPageLoad(TIMEOUT);
+		return !driver.findElements(By.id(USERNAME_ID)).isEmpty();
+	}
+
 	public void navigateToLocalXML(String URL) {
 		sline("navigating to Local XML upload");
 		driver.get(URL + NAVIGATE_XML);
@@ -73,13 +91,54 @@ public class SupplierPortal {
 	public void uploadXML(String fileName) throws InterruptedException {
 	    sline("uploading XML using local xml upload");
 
-	    String updatedFilePath = XmlDateUpdater.updateForecastDates(fileName);
+	    // the file input needs a real path, so this one still lands in resources/testdata
+	    String updatedFilePath = XmlDateUpdater.updateForecastDatesStreaming(fileName);
+	    ForecastValidator.requireValid(new java.io.File(updatedFilePath));
 	    String absolutePath = getAbsolutePath(updatedFilePath); 
 
 	    getDriver().switchTo().frame("mainFrame");
 	    sendKeys("id", "fileData", absolutePath); 
 	    click("cssSelector", "form#uploadForm input[type='submit'][value='Upload File']");
 	    getDriver().switchTo().defaultContent();
+	    registerUpload(updatedFilePath);
+	}
+
+	/** Registers a submitted file for the end-of-run Integration Log check (IntegrationLogVerifier.run()). */
+	private static void registerUpload(String filePath) {
+	    try {
+	        IntegrationLogVerifier.run().expectUpload(filePath, Files.readAllBytes(Paths.get(filePath)));
+	    } catch (IOException e) {
+	        throw new RuntimeException("Failed to read uploaded file " + filePath, e);
+	    }
+	}
+
+	/**
+	 * Browserless variant of uploadXML for load runs: POSTs the upload form over HTTP with this
+	 * session's cookies. The client (and its keep-alive connection) is reused for later uploads.
+	 */
+	public DocumentUploadClient.Result uploadXMLDirect(String URL, String fileName) {
+		if (uploadClient == null) {
+			uploadClient = DocumentUploadClient.fromDriver(driver, URL);
+		}
+		DocumentUploadClient.Result result = uploadClient.uploadForecast(fileName);
+		if (!result.success) {
+			throw new RuntimeException("Direct upload failed: " + result);
+		}
+		return result;
+	}
+
+	/**
+	 * Uploads many documents over this session's HTTP client (see BulkUploadPipeline), e.g.
+	 * BulkUploadPipeline.fromDirectory(Paths.get("resources", "xml"), "*.xml"). A failed document is
+	 * counted as failed, never re-sent: DocumentUploadClient only re-posts after a refused form token.
+	 */
+	public BulkUploadPipeline.Report bulkUploadDirect(String URL, Iterator<BulkUploadPipeline.Document> source,
+			BulkUploadPipeline.Options options) {
+		if (uploadClient == null) {
+			uploadClient = DocumentUploadClient.fromDriver(driver, URL);
+		}
+		DocumentUploadClient client = uploadClient;
+		return new BulkUploadPipeline(options, (name, content) -> client.upload(name, content).success).run(source);
 	}
 
 	public void filterIntegrationLog(String shipToCompany, String shipFromCompany, String messageType, String status,
@@ -118,6 +177,45 @@ public class SupplierPortal {
 	    }
 	}
 	
+	/**
+	 * Integration Log rows of the current filter, read lazily page by page (see IntegrationLogReader).
+	 */
+	public IntegrationLogReader integrationLogRows() {
+		return new IntegrationLogReader(IntegrationLogReader.browser(driver));
+	}
+
+	/**
+	 * Pages through the Integration Log until documentId shows up; later pages are not loaded.
+	 */
+	public Optional<IntegrationLogRow> findIntegrationLogRow(String documentId) {
+		sline("Searching Integration Log for " + documentId);
+		return integrationLogRows().findDocument(documentId);
+	}
+
+	/**
+	 * Opens the Integration Log with filter applied (null fields are left at "any") and returns its rows lazily.
+	 */
+	public IntegrationLogReader queryIntegrationLog(String URL, IntegrationLogVerifier.Filter filter) {
+		getDriver().switchTo().defaultContent();
+		navigateToIntegrationLog(URL);
+		try {
+			filterIntegrationLog(filter.shipToCompany, filter.shipFromCompany, filter.messageType, null, null,
+					filter.documentIdentifier, null);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while filtering the Integration Log", e);
+		}
+		return integrationLogRows();
+	}
+
+	/**
+	 * Checks all documents registered with verifier using batched log queries (see IntegrationLogVerifier).
+	 */
+	public IntegrationLogVerifier.Result verifyIntegrationLog(String URL, IntegrationLogVerifier verifier, Duration timeout) {
+		sline("Verifying " + verifier.size() + " document(s) in the Integration Log");
+		return verifier.verify(filter -> queryIntegrationLog(URL, filter), timeout);
+	}
+
 	// ---------- Integration Log: navigate, click Details, read & parse ----------
 
 	/** Navigate directly to the Integration Log page. */
@@ -136,35 +234,45 @@ public class SupplierPortal {
 	    WebElement detailsImg = findDetailsIconInRow(row);
 
 	    try {
-	        new WebDriverWait(driver, Duration.ofSeconds(10))
-	                .until(ExpectedConditions.elementToBeClickable(detailsImg)).click();
+	        AdaptiveWait.shared().until(driver, "clickable integration log details icon", Duration.ofSeconds(10),
+	                ExpectedConditions.elementToBeClickable(detailsImg)).click();
 	    } catch (Exception e) {
 	        Methods.jsClick(driver, detailsImg);
 	    }
 
-	    new WebDriverWait(driver, Duration.ofSeconds(30))
-	            .until(ExpectedConditions.visibilityOfElementLocated(By.id("showIntegrationDetails")));
-	    Methods.sleep(500); // allow content to settle
+	    // popup is shown before its rows are filled in: wait for content instead of a fixed pause
+	    AdaptiveWait.shared().until(driver, "integration details popup rows", Duration.ofSeconds(30),
+	            d -> d.findElement(By.id("showIntegrationDetails")).isDisplayed()
+	                    && !d.findElements(By.cssSelector("#showIntegrationDetails tbody tr td")).isEmpty());
 	}
 
-	/** Read the Integration Details popup (#showIntegrationDetails) into a typed model. */
+	/**
+	 * Read the Integration Details popup (#showIntegrationDetails) into a typed model.
+	 * One executeScript returns every row; falls back to per-row reads if the script yields nothing usable.
+	 */
+	@SuppressWarnings("unchecked")
 	public IntegrationDetails readIntegrationLogDetails(String documentId) {
-	    List<WebElement> rows = getPopupRows("showIntegrationDetails");
-	    return parsePopupToModel(documentId, rows);
+	    WebElement popup = AdaptiveWait.shared().until(driver, "visible popup showIntegrationDetails", Duration.ofSeconds(30),
+	            ExpectedConditions.visibilityOfElementLocated(By.id("showIntegrationDetails")));
+	    Object rows = ((JavascriptExecutor) driver).executeScript(POPUP_ROWS_SCRIPT, popup);
+	    if (rows instanceof List && !((List<?>) rows).isEmpty()) {
+	        return popupRowsToModel(documentId, (List<Map<String, Object>>) rows);
+	    }
+	    return parsePopupToModel(documentId, getPopupRows("showIntegrationDetails"));
 	}
 
 	// ---------- Private helpers (Integration Log–specific) ----------
 
 	private WebElement findDocIdCellInTable(String tableId, String documentId) {
 	    By docCell = By.xpath("//table[@id='" + tableId + "']//td[contains(@class,'noBreaks') and normalize-space(text())='" + documentId + "']");
-	    return new WebDriverWait(driver, Duration.ofSeconds(30))
-	            .until(ExpectedConditions.visibilityOfElementLocated(docCell));
+	    return AdaptiveWait.shared().until(driver, "integration log document cell", Duration.ofSeconds(30),
+	            ExpectedConditions.visibilityOfElementLocated(docCell));
 	}
 
 	private WebElement findRowForDocId(String tableId, String documentId) {
 	    By row = By.xpath("//table[@id='" + tableId + "']//tr[td[contains(@class,'noBreaks') and normalize-space(text())='" + documentId + "']]");
-	    return new WebDriverWait(driver, Duration.ofSeconds(30))
-	            .until(ExpectedConditions.visibilityOfElementLocated(row));
+	    return AdaptiveWait.shared().until(driver, "integration log document row", Duration.ofSeconds(30),
+	            ExpectedConditions.visibilityOfElementLocated(row));
 	}
 
 	private WebElement findDetailsIconInRow(WebElement row) {
@@ -172,8 +280,8 @@ public class SupplierPortal {
 	}
 
 	private List<WebElement> getPopupRows(String popupId) {
-	    new WebDriverWait(driver, Duration.ofSeconds(30))
-	            .until(ExpectedConditions.visibilityOfElementLocated(By.id(popupId)));
+	    AdaptiveWait.shared().until(driver, "visible popup " + popupId, Duration.ofSeconds(30),
+	            ExpectedConditions.visibilityOfElementLocated(By.id(popupId)));
 	    return driver.findElements(By.cssSelector("#" + popupId + " tbody tr"));
 	}
 
@@ -182,6 +290,34 @@ public class SupplierPortal {
 	// Regex to parse "Key: Value;" pairs inside the "Details:" cell
 	private static final Pattern DETAILS_PAIR = Pattern.compile("([A-Za-z ]+):\\s*([^;]*);");
 
+	/**
+	 * Every popup row with a key and a value cell: key/value innerText, the first anchor's text in the
+	 * value cell (null if none) -- all in one round trip.
+	 */
+	static final String POPUP_ROWS_SCRIPT =
+	        "var trs = arguments[0].querySelectorAll('tbody tr'), out = [];"
+	        + "for (var i = 0; i < trs.length; i++) {"
+	        + "  var tds = trs[i].getElementsByTagName('td');"
+	        + "  if (tds.length < 2) continue;"
+	        + "  var a = tds[1].getElementsByTagName('a')[0];"
+	        + "  out.push({key: tds[0].innerText, value: tds[1].innerText, anchor: a ? a.innerText : null});"
+	        + "}"
+	        + "return out;";
+
+	/** Builds the model from POPUP_ROWS_SCRIPT output; same mapping as parsePopupToModel. */
+	static IntegrationDetails popupRowsToModel(String documentId, List<Map<String, Object>> rows) {
+	    IntegrationDetails d = new IntegrationDetails();
+	    d.documentIdentifier = documentId;
+	    for (Map<String, Object> row : rows) {
+	        String value = asText(row.get("value"));
+	        Object anchor = row.get("anchor");
+	        applyPopupRow(d, normalizeKey(asText(row.get("key"))), value,
+	                () -> anchor == null ? null : anchor.toString(), () -> value);
+	    }
+	    return d;
+	}
+
+	/** Per-row reads (findElements/getText per cell); used when the popup script returns nothing usable. */
 	private IntegrationDetails parsePopupToModel(String documentId, List<WebElement> popupRows) {
 	    IntegrationDetails d = new IntegrationDetails();
 	    d.documentIdentifier = documentId;
@@ -190,50 +326,54 @@ public class SupplierPortal {
 	        List<WebElement> tds = tr.findElements(By.tagName("td"));
 	        if (tds.size() < 2) continue;
 
-	        String key = normalizeKey(tds.get(0).getText());
-	        String val = normalizeCellText(tds.get(1).getText());
-
-	        switch (key) {
-	            case "Process Date":
-	                d.processDate = val;
-	                break;
-	            case "Direction":
-	                d.direction = val;
-	                break;
-	            case "Doc Type":
-	                d.docType = val;
-	                break;
-	            case "Status":
-	                d.status = val;
-	                break;
-	            case "Ship To Company":
-	                d.shipToCompany = val;
-	                break;
-	            case "Ship From Company":
-	                d.shipFromCompany = val;
-	                break;
-	            case "File":
-	                // Prefer anchor text if present
-	                try {
-	                    String a = tds.get(1).findElement(By.tagName("a")).getText();
-	                    d.fileName = normalizeCellText(a);
-	                } catch (NoSuchElementException ignored) {
-	                    d.fileName = val;
-	                }
-	                break;
-	            case "Details":
-	                // Use innerText to keep breaks
-	                String detailsText = getInnerText(tds.get(1));
-	                fillDetailsBlock(detailsText, d);
-	                break;
-	            default:
-	                // ignore System ID / Internal ID / Group ID, etc.
-	        }
+	        WebElement valueCell = tds.get(1);
+	        applyPopupRow(d, normalizeKey(tds.get(0).getText()), valueCell.getText(), () -> {
+	            try {
+	                return valueCell.findElement(By.tagName("a")).getText();
+	            } catch (NoSuchElementException ignored) {
+	                return null;
+	            }
+	        }, () -> getInnerText(valueCell)); // innerText keeps the breaks
 	    }
 	    return d;
 	}
 
-	private void fillDetailsBlock(String detailsText, IntegrationDetails d) {
+	private static void applyPopupRow(IntegrationDetails d, String key, String rawValue,
+	        Supplier<String> anchorText, Supplier<String> detailsText) {
+	    String val = normalizeCellText(rawValue);
+	    switch (key) {
+	        case "Process Date":
+	            d.processDate = val;
+	            break;
+	        case "Direction":
+	            d.direction = val;
+	            break;
+	        case "Doc Type":
+	            d.docType = val;
+	            break;
+	        case "Status":
+	            d.status = val;
+	            break;
+	        case "Ship To Company":
+	            d.shipToCompany = val;
+	            break;
+	        case "Ship From Company":
+	            d.shipFromCompany = val;
+	            break;
+	        case "File":
+	            // Prefer anchor text if present
+	            String a = anchorText.get();
+	            d.fileName = a == null ? val : normalizeCellText(a);
+	            break;
+	        case "Details":
+	            fillDetailsBlock(detailsText.get(), d);
+	            break;
+	        default:
+	            // ignore System ID / Internal ID / Group ID, etc.
+	    }
+	}
+
+	private static void fillDetailsBlock(String detailsText, IntegrationDetails d) {
 	    if (detailsText == null) return;
 	    String text = detailsText.replace("\r", " ").replace("\n", " ").trim();
 	    Matcher m = DETAILS_PAIR.matcher(text);
@@ -261,9 +401,11 @@ public class SupplierPortal {
 
 	// ---------- Micro-utils local to this page (delegating to Methods where generic) ----------
 
-	private String normalizeKey(String s) { return normalizeCellText(s).replace(":", ""); }
+	private static String normalizeKey(String s) { return normalizeCellText(s).replace(":", ""); }
+
+	private static String asText(Object o) { return o == null ? "" : o.toString(); }
 
-	private String normalizeCellText(String s) {
+	private static String normalizeCellText(String s) {
 	    if (s == null) return "";
 	    return s.replace('\u00A0', ' ').replaceAll("\\s+", " ").trim();
 	}
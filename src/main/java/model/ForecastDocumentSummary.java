@@ -0,0 +1,17 @@
+package model;
+
+public class ForecastDocumentSummary {
+  public String sourceFile;
+
+  // RNetHeader
+  public String documentIdentifier; // ThisDocumentIdentifier/DocumentIdentifier
+  public String buyerName;          // From
+  public String buyerIdentifier;
+  public String sellerName;         // To
+  public String sellerIdentifier;
+
+  // Body
+  public String purchaseOrderNumber; // first ReferenceInformation[@ReferenceType='PurchaseOrderNumber']
+  public int lineItemCount;          // RNetDemandForecastLineItem
+  public int forecastCount;          // Forecast entries across all line items
+}
@@ -0,0 +1,68 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public class IntegrationLogRow {
+  public String documentIdentifier;
+  public String processDate;
+  public String direction;
+  public String docType;
+  public String status;
+  public String shipToCompany;
+  public String shipFromCompany;
+  public String acked;
+
+  // Every cell of the row by column header, including the ones without a field above
+  public Map<String, String> columns = new LinkedHashMap<>();
+
+  /** Typed row from a header -> cell map (Methods.parseTableRows shape); headers match loosely ("Ship To" = "Ship To Company"). */
+  public static IntegrationLogRow from(Map<String, String> cells) {
+    IntegrationLogRow row = new IntegrationLogRow();
+    row.columns.putAll(cells);
+    for (Map.Entry<String, String> e : cells.entrySet()) {
+      String v = e.getValue();
+      switch (e.getKey().toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "")) {
+        case "documentidentifier":
+        case "documentid":
+        case "docid":
+          row.documentIdentifier = v;
+          break;
+        case "processdate":
+        case "date":
+          row.processDate = v;
+          break;
+        case "direction":
+          row.direction = v;
+          break;
+        case "doctype":
+        case "messagetype":
+          row.docType = v;
+          break;
+        case "status":
+          row.status = v;
+          break;
+        case "shiptocompany":
+        case "shipto":
+          row.shipToCompany = v;
+          break;
+        case "shipfromcompany":
+        case "shipfrom":
+          row.shipFromCompany = v;
+          break;
+        case "acked":
+          row.acked = v;
+          break;
+        default:
+          // only in columns
+      }
+    }
+    return row;
+  }
+
+  @Override
+  public String toString() {
+    return "IntegrationLogRow[" + documentIdentifier + ", " + status + ", " + processDate + "]";
+  }
+}
@@ -3,6 +3,7 @@ package pages.login;
 import org.openqa.selenium.WebDriver;
 
 import components.Network;
+import utils.SessionStateStore;
 
 import static utils.Methods.*;
 
@@ -10,14 +11,23 @@ public class NetworkLoginFlow {
 
     private Network network;
 
+    /**
+     * Logs in, reusing a saved session when session_snapshot_enabled=true and it is still accepted.
+     */
     public void loginFlow(WebDriver driver, String email, String password, String url) {
-        driver.get(url);
         this.network = new Network(driver);
+        SessionStateStore sessions = SessionStateStore.shared();
+        if (sessions != null && sessions.restore(driver, email, url, d -> !network.isOnLoginPage())) {
+            return;
+        }
+        driver.get(url);
         network.login(email, password);
         if (!network.isLoginSuccessful()) { 
             throw new RuntimeException("Login failed!");
         }
         System.out.println("Logged in successfully");
-        
+        if (sessions != null) {
+            sessions.capture(driver, email, url);
+        }
     }
 }
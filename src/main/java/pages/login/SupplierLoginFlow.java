@@ -2,21 +2,31 @@ package pages.login;
 
 import static utils.Methods.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 
+import components.IntegrationLogVerifier;
 import components.SupplierPortal;
+import utils.SessionStateStore;
 
 public class SupplierLoginFlow {
 
 	private SupplierPortal supplier;
 
+	/**
+	 * Logs in, reusing a saved session when session_snapshot_enabled=true and it is still accepted.
+	 */
 	public void loginFlow(WebDriver driver, String userName, String password, String url) {
-		driver.get(url);
 		this.supplier = new SupplierPortal(driver);
+		SessionStateStore sessions = SessionStateStore.shared();
+		if (sessions != null && sessions.restore(driver, userName, url, d -> !supplier.isOnLoginPage())) {
+			return;
+		}
+		driver.get(url);
 		supplier.login(userName, password);
 		waitForPageLoad();
 
@@ -24,6 +34,9 @@ public class SupplierLoginFlow {
 			throw new RuntimeException("login Failed !!");
 		}
 		sline("Logged in Successfully");
+		if (sessions != null) {
+			sessions.capture(driver, userName, url);
+		}
 	}
 
 	public void uploadFlow(String URL, String fileName) throws InterruptedException {
@@ -43,6 +56,26 @@ public class SupplierLoginFlow {
 		supplier.validateIntegrationLogTable();
 
 	}
+
+	/**
+	 * Verifies every document uploaded in this run (IntegrationLogVerifier.run()) in batched Integration Log queries.
+	 */
+	public IntegrationLogVerifier.Result validateIntegrationLog(String url, Duration timeout) {
+		return validateIntegrationLog(IntegrationLogVerifier.run(), url, timeout);
+	}
+
+	/**
+	 * Verifies every document registered with verifier in batched Integration Log queries; fails when a
+	 * document is missing or its row does not have a success status.
+	 */
+	public IntegrationLogVerifier.Result validateIntegrationLog(IntegrationLogVerifier verifier, String url, Duration timeout) {
+		IntegrationLogVerifier.Result result = supplier.verifyIntegrationLog(url, verifier, timeout);
+		if (!result.allSucceeded()) {
+			throw new RuntimeException("Integration Log check failed: not successful=" + result.failed.values()
+					+ ", missing=" + result.missing);
+		}
+		return result;
+	}
 	
 
 
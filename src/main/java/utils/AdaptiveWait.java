@@ -0,0 +1,394 @@
+package utils;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+/**
+ * Polling wait used by every Methods wait helper (and the page components).
+ * - Polls fast first (initialPollMillis), then backs off exponentially up to maxPollMillis, with
+ *   +/- jitter so parallel threads don't poll the grid in lockstep.
+ * - Records how long each named condition took (and how often it timed out); samples persist across
+ *   runs in wait_stats_file, so names must be stable across runs (e.g. "visible " + locator, never a
+ *   lambda's or element's toString). Unreadable lines in the file are logged and skipped.
+ * - With wait_autotune=true a condition's timeout is lowered to safetyFactor x its observed p99
+ *   (never below wait_min_timeout_ms, never above the caller's timeout) once it has enough samples.
+ * - Like WebDriverWait: NotFound/StaleElement are ignored while polling, a condition passes when it
+ *   returns non-null and not FALSE, and failure is an org.openqa.selenium.TimeoutException.
+ */
+public class AdaptiveWait {
+
+    /** Pause between polls; replaceable in tests. */
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    static final int MIN_SAMPLES_FOR_TUNING = 20;
+    private static final int SAMPLES_KEPT = 128;
+    private static volatile AdaptiveWait shared;
+
+    long initialPollMillis = 20;
+    long maxPollMillis = 500;
+    double backoffFactor = 1.6;
+    double jitter = 0.25;
+    boolean autoTune;
+    long minTimeoutMillis = 2_000;
+    double safetyFactor = 3.0;
+    Sleeper sleeper = Thread::sleep;
+
+    private final Path statsFile;
+    private final Map<String, ConditionStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Engine whose statistics are kept in memory only.
+     */
+    public AdaptiveWait() {
+        this(null);
+    }
+
+    AdaptiveWait(Path statsFile) {
+        this.statsFile = statsFile;
+        if (statsFile != null) {
+            load();
+        }
+    }
+
+    /**
+     * Engine configured from config.properties; its statistics are saved when the JVM exits.
+     */
+    public static AdaptiveWait shared() {
+        AdaptiveWait current = shared;
+        if (current == null) {
+            synchronized (AdaptiveWait.class) {
+                current = shared;
+                if (current == null) {
+                    String file = ConfigReader.get("wait_stats_file");
+                    current = new AdaptiveWait(file == null || file.trim().isEmpty() ? null : Paths.get(file.trim()));
+                    current.autoTune = Boolean.parseBoolean(ConfigReader.get("wait_autotune"));
+                    String min = ConfigReader.get("wait_min_timeout_ms");
+                    if (min != null && !min.trim().isEmpty()) {
+                        try {
+                            current.minTimeoutMillis = Long.parseLong(min.trim());
+                        } catch (NumberFormatException e) {
+                            ExceptionHandler.logOnly("wait_min_timeout_ms=" + min + " is not a number, using "
+                                    + current.minTimeoutMillis, e);
+                        }
+                    }
+                    AdaptiveWait created = current;
+                    Runtime.getRuntime().addShutdownHook(new Thread(created::save, "wait-stats-save"));
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Polls condition until it passes or the (possibly tuned) timeout expires.
+     * @param name    stable name of the condition, e.g. "clickable id=submitbutton"
+     * @param timeout caller's upper bound
+     * @return the condition's value
+     */
+    public <T> T until(WebDriver driver, String name, Duration timeout, Function<? super WebDriver, T> condition) {
+        return until(driver, name, timeout, 0, Collections.emptySet(), condition);
+    }
+
+    /**
+     * @param fixedPollMillis poll interval without backoff or jitter; 0 for adaptive polling
+     * @param ignored         exceptions ignored while polling, besides NotFound/StaleElement
+     */
+    <T> T until(WebDriver driver, String name, Duration timeout, long fixedPollMillis,
+            Collection<Class<? extends Throwable>> ignored, Function<? super WebDriver, T> condition) {
+        long start = System.nanoTime();
+        long limitMillis = effectiveTimeoutMillis(name, timeout.toMillis());
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(limitMillis);
+        long poll = initialPollMillis;
+        RuntimeException last = null;
+
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    record(name, System.nanoTime() - start, false);
+                    return value;
+                }
+            } catch (RuntimeException e) {
+                if (!isIgnored(e, ignored)) {
+                    throw e;
+                }
+                last = e;
+            }
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                record(name, System.nanoTime() - start, true);
+                throw new TimeoutException("Condition '" + name + "' not met within " + limitMillis + "ms"
+                        + (limitMillis < timeout.toMillis() ? " (tuned from " + timeout.toMillis() + "ms)" : ""), last);
+            }
+            long pause = Math.min(remainingMillis, fixedPollMillis > 0 ? fixedPollMillis : jittered(poll));
+            try {
+                sleeper.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while waiting for '" + name + "'", e);
+            }
+            poll = Math.min(maxPollMillis, (long) Math.ceil(poll * backoffFactor));
+        }
+    }
+
+    private static boolean isIgnored(RuntimeException e, Collection<Class<? extends Throwable>> ignored) {
+        if (e instanceof NotFoundException || e instanceof StaleElementReferenceException) {
+            return true;
+        }
+        for (Class<? extends Throwable> type : ignored) {
+            if (type.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Timeout actually applied to a condition: the caller's, or the tuned one when autotune is on
+     * and the condition has a stable history.
+     */
+    public long effectiveTimeoutMillis(String name, long requestedMillis) {
+        if (!autoTune) {
+            return requestedMillis;
+        }
+        long suggested = suggestedTimeoutMillis(name);
+        return suggested > 0 ? Math.min(requestedMillis, suggested) : requestedMillis;
+    }
+
+    /**
+     * safetyFactor x p99 of past successful waits (at least minTimeoutMillis), or -1 while the
+     * condition has fewer than MIN_SAMPLES_FOR_TUNING samples or timed out recently.
+     */
+    public long suggestedTimeoutMillis(String name) {
+        ConditionStats s = stats.get(name);
+        if (s == null) {
+            return -1;
+        }
+        synchronized (s) {
+            if (s.size < MIN_SAMPLES_FOR_TUNING || s.recentTimeout) {
+                return -1;
+            }
+            return Math.max(minTimeoutMillis, (long) Math.ceil(s.percentileMillis(99) * safetyFactor));
+        }
+    }
+
+    /**
+     * WebDriverWait whose until() runs on this engine, for code that still takes a WebDriverWait
+     * (Methods.getWait). Every condition waited on through it is recorded under name.
+     * withTimeout, pollingEvery (fixed interval instead of backoff) and ignoring are honoured.
+     */
+    public WebDriverWait asWebDriverWait(WebDriver driver, String name, Duration timeout) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("A stable condition name is required for the wait statistics");
+        }
+        return new EngineWait(this, driver, name, timeout);
+    }
+
+    /** WebDriverWait delegating until() to an engine. */
+    static final class EngineWait extends WebDriverWait {
+        private final AdaptiveWait engine;
+        private final WebDriver driver;
+        private final String name;
+        private final Set<Class<? extends Throwable>> ignored = new LinkedHashSet<>();
+        private boolean configurable; // false while WebDriverWait's constructor applies its defaults
+        private Duration timeout;
+        private long pollMillis;      // 0: adaptive polling
+
+        EngineWait(AdaptiveWait engine, WebDriver driver, String name, Duration timeout) {
+            super(driver, timeout);
+            this.engine = engine;
+            this.driver = driver;
+            this.name = name;
+            this.timeout = timeout;
+            this.configurable = true;
+        }
+
+        @Override
+        public FluentWait<WebDriver> withTimeout(Duration timeout) {
+            if (configurable) {
+                this.timeout = timeout;
+            }
+            return super.withTimeout(timeout);
+        }
+
+        @Override
+        public FluentWait<WebDriver> pollingEvery(Duration interval) {
+            if (configurable) {
+                pollMillis = Math.max(1, interval.toMillis());
+            }
+            return super.pollingEvery(interval);
+        }
+
+        @Override
+        public <K extends Throwable> FluentWait<WebDriver> ignoreAll(Collection<Class<? extends K>> types) {
+            if (configurable) {
+                ignored.addAll(types);
+            }
+            return super.ignoreAll(types);
+        }
+
+        @Override
+        public <V> V until(Function<? super WebDriver, V> isTrue) {
+            return engine.until(driver, name, timeout, pollMillis, ignored, isTrue);
+        }
+    }
+
+    long jittered(long poll) {
+        double factor = 1.0 + (ThreadLocalRandom.current().nextDouble() * 2 - 1) * jitter;
+        return Math.max(1, Math.round(poll * factor));
+    }
+
+    private void record(String name, long nanos, boolean timedOut) {
+        ConditionStats s = stats.computeIfAbsent(name, k -> new ConditionStats());
+        synchronized (s) {
+            s.count++;
+            if (timedOut) {
+                s.timeouts++;
+                s.recentTimeout = true; // a timeout means the history under-estimates; stop tuning this one
+            } else {
+                s.add(TimeUnit.NANOSECONDS.toMillis(nanos));
+            }
+        }
+    }
+
+    // ---------------- Stats ----------------
+
+    /** Per-condition counters and the last SAMPLES_KEPT successful durations (ms). */
+    static final class ConditionStats {
+        long count;
+        long timeouts;
+        boolean recentTimeout;
+        final long[] samples = new long[SAMPLES_KEPT];
+        int size;
+        int next;
+
+        void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % SAMPLES_KEPT;
+            size = Math.min(size + 1, SAMPLES_KEPT);
+        }
+
+        double percentileMillis(double p) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(size - 1, Math.max(0, Math.ceil(p / 100.0 * size) - 1));
+            return sorted[index];
+        }
+    }
+
+    /**
+     * One line per condition: count, timeouts, p50/p95/p99 and the suggested timeout.
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, ConditionStats> e : new TreeMap<>(stats).entrySet()) {
+            ConditionStats s = e.getValue();
+            synchronized (s) {
+                sb.append(String.format("%-60s n=%d timeouts=%d p50=%.0fms p95=%.0fms p99=%.0fms suggested=%s%n",
+                        e.getKey(), s.count, s.timeouts, s.percentileMillis(50), s.percentileMillis(95),
+                        s.percentileMillis(99), s.size < MIN_SAMPLES_FOR_TUNING || s.recentTimeout ? "-" : suggestedTimeoutMillis(e.getKey()) + "ms"));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes count|timeouts|samples per condition. Timeouts are not carried over, so a condition
+     * that timed out is re-tuned from fresh successful runs.
+     */
+    public void save() {
+        if (statsFile == null) {
+            return;
+        }
+        Properties p = new Properties();
+        for (Map.Entry<String, ConditionStats> e : stats.entrySet()) {
+            ConditionStats s = e.getValue();
+            synchronized (s) {
+                StringBuilder value = new StringBuilder().append(s.count).append('|').append(s.timeouts).append('|');
+                for (int i = 0; i < s.size; i++) {
+                    if (i > 0) value.append(',');
+                    value.append(s.samples[(s.next - s.size + i + SAMPLES_KEPT) % SAMPLES_KEPT]);
+                }
+                p.setProperty(e.getKey(), value.toString());
+            }
+        }
+        try {
+            if (statsFile.getParent() != null) {
+                Files.createDirectories(statsFile.getParent());
+            }
+            Path tmp = statsFile.resolveSibling(statsFile.getFileName() + ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                p.store(w, "AdaptiveWait: condition=count|timeouts|recent durations in ms");
+            }
+            Files.move(tmp, statsFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            ExceptionHandler.logOnly("AdaptiveWait.save(" + statsFile + ")", e);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(statsFile)) {
+            return;
+        }
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(statsFile, StandardCharsets.UTF_8)) {
+            p.load(r);
+        } catch (Exception e) {
+            ExceptionHandler.logOnly("AdaptiveWait.load(" + statsFile + ")", e);
+            return;
+        }
+        for (String name : p.stringPropertyNames()) {
+            String line = p.getProperty(name);
+            String[] parts = line.split("\\|", -1);
+            if (parts.length != 3) {
+                Methods.sline("AdaptiveWait: skipping malformed stats line " + name + "=" + line);
+                continue;
+            }
+            ConditionStats s = new ConditionStats();
+            try {
+                s.count = Long.parseLong(parts[0].trim());
+                s.timeouts = Long.parseLong(parts[1].trim());
+                if (!parts[2].isEmpty()) {
+                    for (String sample : parts[2].split(",")) {
+                        s.add(Long.parseLong(sample.trim()));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                Methods.sline("AdaptiveWait: skipping malformed stats line " + name + "=" + line);
+                continue;
+            }
+            stats.put(name, s);
+        }
+    }
+}
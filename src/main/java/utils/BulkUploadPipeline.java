@@ -0,0 +1,370 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Pushes many forecast documents through preprocess -> upload with bounded concurrency.
+ * - Preprocess workers pull from the source, rewrite dates in memory (StAX) and validate.
+ * - Prepared documents wait in a bounded queue; when uploads fall behind, preprocess workers block
+ *   on put() (backpressure), so memory stays at roughly queueCapacity documents.
+ * - Upload workers hand each document to an Uploader (e.g. DocumentUploadClient::upload).
+ * - run() returns a Report with docs/sec, queue depth and per-stage latency percentiles.
+ */
+public class BulkUploadPipeline {
+
+    /**
+     * Upload stage. Return false (or throw) for a rejected document. Must be thread-safe.
+     */
+    public interface Uploader {
+        boolean upload(String name, byte[] content) throws Exception;
+    }
+
+    /**
+     * One raw document; content is loaded by the preprocess stage, not by the source.
+     */
+    public interface Document {
+        String name();
+
+        InputStream open() throws Exception;
+    }
+
+    public static class Options {
+        public int preprocessThreads = Runtime.getRuntime().availableProcessors();
+        public int uploadThreads = 4;
+        public int queueCapacity = 16;         // prepared documents waiting for upload
+        public LocalDate baseDate = LocalDate.now();
+        public boolean validate = true;
+    }
+
+    private static final Prepared END = new Prepared(null, null, 0);
+
+    private final Options options;
+    private final Uploader uploader;
+
+    public BulkUploadPipeline(Options options, Uploader uploader) {
+        if (options.preprocessThreads <= 0 || options.uploadThreads <= 0 || options.queueCapacity <= 0) {
+            throw new IllegalArgumentException("Thread counts and queue capacity must be positive");
+        }
+        this.options = options;
+        this.uploader = uploader;
+    }
+
+    // ---------------- Sources ----------------
+
+    /**
+     * Every file matching glob in dir (e.g. resources/testdata, "*.xml"), in name order.
+     */
+    public static Iterator<Document> fromDirectory(Path dir, String glob) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path p : stream) {
+                files.add(p);
+            }
+        } catch (Exception e) {
+            ExceptionHandler.logAndThrow("list documents in " + dir, e);
+        }
+        files.sort(null);
+        Iterator<Path> it = files.iterator();
+        return new Iterator<Document>() {
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            public Document next() {
+                Path p = it.next();
+                return document(p.getFileName().toString(), () -> Files.newInputStream(p));
+            }
+        };
+    }
+
+    /**
+     * count synthetic documents from ForecastGenerator; optionsForIndex gives each one its own
+     * seed/identifier. Documents are generated lazily by the preprocess workers.
+     */
+    public static Iterator<Document> fromGenerator(File template, int count, IntFunction<ForecastGenerator.Options> optionsForIndex) {
+        return new Iterator<Document>() {
+            private int next;
+
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            public Document next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                int index = next++;
+                return document(String.format("generated_%05d.xml", index), () -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    ForecastGenerator.generate(template, out, optionsForIndex.apply(index));
+                    return new ByteArrayInputStream(out.toByteArray());
+                });
+            }
+        };
+    }
+
+    interface Opener {
+        InputStream open() throws Exception;
+    }
+
+    static Document document(String name, Opener opener) {
+        return new Document() {
+            public String name() {
+                return name;
+            }
+
+            public InputStream open() throws Exception {
+                return opener.open();
+            }
+        };
+    }
+
+    // ---------------- Run ----------------
+
+    /**
+     * Runs the pipeline to completion.
+     */
+    public Report run(Iterator<Document> source) {
+        Report report = new Report();
+        BlockingQueue<Prepared> queue = new ArrayBlockingQueue<>(options.queueCapacity);
+        CountDownLatch preprocessDone = new CountDownLatch(options.preprocessThreads);
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+
+        for (int i = 0; i < options.preprocessThreads; i++) {
+            threads.add(start("bulk-preprocess-" + i, () -> {
+                try {
+                    Document doc;
+                    while ((doc = nextDocument(source)) != null) {
+                        Prepared prepared = preprocess(doc, report);
+                        if (prepared != null) {
+                            if (!queue.offer(prepared)) { // uploads are behind: block until a slot frees up
+                                long waitStart = System.nanoTime();
+                                queue.put(prepared);
+                                report.backpressureNanos.addAndGet(System.nanoTime() - waitStart);
+                            }
+                            report.sampleQueueDepth(queue.size());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    preprocessDone.countDown();
+                }
+            }));
+        }
+
+        // closes the queue once every preprocess worker is done: one END per upload worker
+        threads.add(start("bulk-close", () -> {
+            try {
+                preprocessDone.await();
+                for (int i = 0; i < options.uploadThreads; i++) {
+                    queue.put(END);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        for (int i = 0; i < options.uploadThreads; i++) {
+            threads.add(start("bulk-upload-" + i, () -> {
+                try {
+                    Prepared p;
+                    while ((p = queue.take()) != END) {
+                        report.queueWait.record(System.nanoTime() - p.readyAt);
+                        upload(p, report);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                threads.forEach(Thread::interrupt);
+                break;
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        Methods.sline("Bulk upload finished: " + report);
+        return report;
+    }
+
+    private static Document nextDocument(Iterator<Document> source) {
+        synchronized (source) {
+            return source.hasNext() ? source.next() : null;
+        }
+    }
+
+    private Prepared preprocess(Document doc, Report report) {
+        long t = System.nanoTime();
+        try (InputStream in = doc.open()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+            XmlDateUpdater.rewriteStreaming(in, out, options.baseDate);
+            byte[] content = out.toByteArray();
+            if (options.validate) {
+                List<String> problems = ForecastValidator.validate(content);
+                if (!problems.isEmpty()) {
+                    throw new IllegalStateException(problems.toString());
+                }
+            }
+            report.preprocess.record(System.nanoTime() - t);
+            return new Prepared(doc.name(), content, System.nanoTime());
+        } catch (Exception e) {
+            report.preprocessFailed.incrementAndGet();
+            report.addFailure(doc.name() + ": preprocess: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void upload(Prepared p, Report report) {
+        long t = System.nanoTime();
+        try {
+            if (uploader.upload(p.name, p.content)) {
+                report.uploaded.incrementAndGet();
+                report.uploadedBytes.addAndGet(p.content.length);
+            } else {
+                report.uploadFailed.incrementAndGet();
+                report.addFailure(p.name + ": upload rejected");
+            }
+        } catch (Exception e) {
+            report.uploadFailed.incrementAndGet();
+            report.addFailure(p.name + ": upload: " + e.getMessage());
+        } finally {
+            report.upload.record(System.nanoTime() - t);
+        }
+    }
+
+    private static Thread start(String name, Runnable body) {
+        Thread t = new Thread(body, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static final class Prepared {
+        final String name;
+        final byte[] content;
+        final long readyAt;
+
+        Prepared(String name, byte[] content, long readyAt) {
+            this.name = name;
+            this.content = content;
+            this.readyAt = readyAt;
+        }
+    }
+
+    // ---------------- Report ----------------
+
+    /**
+     * Latency samples of one stage (nanoseconds), summarized as percentiles.
+     */
+    public static class StageLatency {
+        private long[] samples = new long[256];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        public synchronized int count() {
+            return size;
+        }
+
+        /** Percentile in milliseconds (p in 0..100); 0 when there are no samples. */
+        public synchronized double percentileMillis(double p) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(size - 1, Math.max(0, Math.ceil(p / 100.0 * size) - 1));
+            return sorted[index] / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms", count(),
+                    percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100));
+        }
+    }
+
+    /**
+     * Outcome and timings of one run.
+     */
+    public static class Report {
+        public final AtomicInteger uploaded = new AtomicInteger();
+        public final AtomicInteger preprocessFailed = new AtomicInteger();
+        public final AtomicInteger uploadFailed = new AtomicInteger();
+        public final AtomicLong uploadedBytes = new AtomicLong();
+        public final AtomicLong backpressureNanos = new AtomicLong();  // preprocess time spent blocked on a full queue
+        public final StageLatency preprocess = new StageLatency();
+        public final StageLatency queueWait = new StageLatency();
+        public final StageLatency upload = new StageLatency();
+        public final List<String> failures = new ArrayList<>();      // first 100 failure reasons
+        public long elapsedNanos;
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private final AtomicLong queueDepthSum = new AtomicLong();
+        private final AtomicInteger queueDepthSamples = new AtomicInteger();
+
+        void sampleQueueDepth(int depth) {
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+            queueDepthSum.addAndGet(depth);
+            queueDepthSamples.incrementAndGet();
+        }
+
+        synchronized void addFailure(String reason) {
+            if (failures.size() < 100) {
+                failures.add(reason);
+            }
+        }
+
+        public int maxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+
+        public double averageQueueDepth() {
+            int n = queueDepthSamples.get();
+            return n == 0 ? 0 : (double) queueDepthSum.get() / n;
+        }
+
+        public double docsPerSecond() {
+            return elapsedNanos == 0 ? 0 : uploaded.get() * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("uploaded=%d, preprocessFailed=%d, uploadFailed=%d in %.1fs (%.1f docs/s, %.1f MB)%n"
+                            + "  preprocess: %s%n  queue wait: %s%n  upload:     %s%n"
+                            + "  queue depth: max=%d avg=%.1f, backpressure=%dms",
+                    uploaded.get(), preprocessFailed.get(), uploadFailed.get(), elapsedNanos / 1e9, docsPerSecond(),
+                    uploadedBytes.get() / 1e6, preprocess, queueWait, upload,
+                    maxQueueDepth(), averageQueueDepth(), backpressureNanos.get() / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package utils;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import model.IntegrationDetails;
+
+/**
+ * Line-level diff of two RNetDemandForecast documents, used to predict what the portal will report
+ * (Total Lines / Orders Cancelled) without uploading.
+ * - A line is one Forecast, keyed by its line item's LineNumber, the line item's ProductIdentifiers
+ *   and the Forecast's own LineNumber.
+ * - Both documents are scanned once with StAX; the previous one is held as a hash map of keys to
+ *   quantity/type, the current one is streamed against it. Time and memory are linear in line count.
+ * - Quantities are compared numerically (1001 == 1001.000); dates are ignored because
+ *   XmlDateUpdater rewrites them on every run.
+ * - A key that occurs more than once in a document is reported in duplicatesBefore/duplicatesNow;
+ *   only its first occurrence takes part in the diff, so the prediction is unreliable for that key.
+ */
+public class ForecastDiff {
+
+    /**
+     * Diff outcome. Key lists are in document order (cancelled: previous document order).
+     */
+    public static class Result {
+        public String documentIdentifier;                     // current document's header identifier
+        public int previousLines;
+        public int currentLines;
+        public int unchanged;
+        public final List<String> created = new ArrayList<>();
+        public final List<String> changed = new ArrayList<>();
+        public final List<String> cancelled = new ArrayList<>();    // present before, removed now
+        public final List<String> zeroQuantity = new ArrayList<>(); // quantity now 0: set to zero, or created with 0
+        public final List<String> duplicatesBefore = new ArrayList<>(); // repeated keys in the previous document
+        public final List<String> duplicatesNow = new ArrayList<>();    // repeated keys in the current document
+
+        public boolean hasDuplicates() {
+            return !duplicatesBefore.isEmpty() || !duplicatesNow.isEmpty();
+        }
+
+        /** Cancellations as the portal counts them: removed lines plus lines set to zero. */
+        public int ordersCancelled() {
+            return cancelled.size() + zeroQuantity.size();
+        }
+
+        /**
+         * Expected Integration Log values for the current document. Only the fields that follow
+         * from the XML are filled (identifier, total lines, orders cancelled).
+         */
+        public IntegrationDetails toExpectedIntegrationDetails() {
+            IntegrationDetails d = new IntegrationDetails();
+            d.documentIdentifier = documentIdentifier;
+            d.totalLines = currentLines;
+            d.ordersCancelled = ordersCancelled();
+            return d;
+        }
+
+        @Override
+        public String toString() {
+            return "ForecastDiff[" + documentIdentifier + ": lines " + previousLines + " -> " + currentLines
+                    + ", created=" + created.size() + ", changed=" + changed.size()
+                    + ", cancelled=" + cancelled.size() + ", zeroQuantity=" + zeroQuantity.size()
+                    + ", unchanged=" + unchanged
+                    + (hasDuplicates() ? ", duplicates=" + duplicatesBefore.size() + "/" + duplicatesNow.size() : "") + "]";
+        }
+    }
+
+    /** One Forecast as seen by the scanner. */
+    static final class Line {
+        String key;
+        String forecastType;
+        BigDecimal quantity;
+        boolean seen; // matched by the current document
+
+        boolean isZero() {
+            return quantity != null && quantity.signum() == 0;
+        }
+
+        boolean sameAs(Line other) {
+            boolean sameQuantity = quantity == null ? other.quantity == null
+                    : other.quantity != null && quantity.compareTo(other.quantity) == 0;
+            return sameQuantity && (forecastType == null ? other.forecastType == null : forecastType.equals(other.forecastType));
+        }
+    }
+
+    interface LineConsumer {
+        void accept(Line line);
+    }
+
+    /**
+     * Diffs two files. previous may be null for a first upload (every line is created).
+     */
+    public static Result diff(File previous, File current) {
+        try (InputStream cur = new BufferedInputStream(new FileInputStream(current))) {
+            if (previous == null) {
+                return diff(null, cur);
+            }
+            try (InputStream prev = new BufferedInputStream(new FileInputStream(previous))) {
+                return diff(prev, cur);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to diff forecasts: " + previous + " -> " + current, e);
+        }
+    }
+
+    /**
+     * Diffs two streams (not closed). previous may be null.
+     */
+    public static Result diff(InputStream previous, InputStream current) throws Exception {
+        Result result = new Result();
+        Map<String, Line> before = new LinkedHashMap<>(); // keeps previous order for the cancelled list
+        if (previous != null) {
+            scan(previous, line -> {
+                result.previousLines++;
+                if (before.putIfAbsent(line.key, line) != null) {
+                    result.duplicatesBefore.add(line.key);
+                }
+            });
+        }
+
+        Set<String> now = new HashSet<>();
+        result.documentIdentifier = scan(current, line -> {
+            result.currentLines++;
+            if (!now.add(line.key)) {
+                result.duplicatesNow.add(line.key);
+                return;
+            }
+            Line old = before.get(line.key);
+            if (old == null) {
+                result.created.add(line.key);
+                if (line.isZero()) {
+                    result.zeroQuantity.add(line.key); // the portal counts a line created at 0 as cancelled too
+                }
+                return;
+            }
+            old.seen = true;
+            if (line.isZero() && !old.isZero()) {
+                result.zeroQuantity.add(line.key);
+            } else if (!line.sameAs(old)) {
+                result.changed.add(line.key);
+            } else {
+                result.unchanged++;
+            }
+        });
+
+        for (Line old : before.values()) {
+            if (!old.seen) {
+                result.cancelled.add(old.key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Streams every Forecast in the document to the consumer.
+     * @return the header DocumentIdentifier, or null
+     */
+    static String scan(InputStream in, LineConsumer consumer) throws Exception {
+        XMLStreamReader r = XmlEngine.createStreamReader(in);
+        try {
+            String documentIdentifier = null;
+            boolean inHeaderId = false;
+            boolean inLineItem = false;
+            boolean inForecast = false;
+            boolean inProduct = false;
+            String lineItemNumber = null;
+            StringBuilder products = new StringBuilder();
+            Line current = null;
+            StringBuilder text = new StringBuilder();
+
+            while (r.hasNext()) {
+                int event = r.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    text.setLength(0);
+                    switch (r.getLocalName()) {
+                        case "ThisDocumentIdentifier":
+                            inHeaderId = documentIdentifier == null;
+                            break;
+                        case "RNetDemandForecastLineItem":
+                            inLineItem = true;
+                            lineItemNumber = null;
+                            products.setLength(0);
+                            break;
+                        case "ForecastProduct":
+                            inProduct = inLineItem;
+                            break;
+                        case "Forecast":
+                            if (inLineItem) {
+                                inForecast = true;
+                                current = new Line();
+                                current.key = lineItemNumber + "|" + products + "|";
+                            }
+                            break;
+                        default:
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    text.append(r.getText());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String value = text.toString().trim();
+                    switch (r.getLocalName()) {
+                        case "DocumentIdentifier":
+                            if (inHeaderId) {
+                                documentIdentifier = value;
+                                inHeaderId = false;
+                            }
+                            break;
+                        case "ThisDocumentIdentifier":
+                            inHeaderId = false;
+                            break;
+                        case "ProductIdentifier":
+                            if (inProduct) {
+                                if (products.length() > 0) products.append(',');
+                                products.append(value);
+                            }
+                            break;
+                        case "ForecastProduct":
+                            inProduct = false;
+                            break;
+                        case "LineNumber":
+                            if (inForecast) {
+                                current.key += value;
+                            } else if (inLineItem) {
+                                lineItemNumber = value;
+                            }
+                            break;
+                        case "ForecastType":
+                            if (inForecast) current.forecastType = value;
+                            break;
+                        case "MeasurementValue":
+                            if (inForecast && current.quantity == null) current.quantity = parseQuantity(value);
+                            break;
+                        case "Forecast":
+                            if (inForecast) {
+                                consumer.accept(current);
+                                current = null;
+                                inForecast = false;
+                            }
+                            break;
+                        case "RNetDemandForecastLineItem":
+                            inLineItem = false;
+                            break;
+                        default:
+                    }
+                    text.setLength(0);
+                }
+            }
+            return documentIdentifier;
+        } finally {
+            r.close();
+        }
+    }
+
+    private static BigDecimal parseQuantity(String value) {
+        try {
+            return value.isEmpty() ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) {
+        String previous = args.length > 0 ? args[0] : "resources/xml/orderChange01.xml";
+        String current = args.length > 1 ? args[1] : "resources/xml/orderCancel01.xml";
+        Result result = diff(new File(previous), new File(current));
+        System.out.println(result);
+        System.out.println("cancelled=" + result.cancelled + ", zeroQuantity=" + result.zeroQuantity);
+    }
+}
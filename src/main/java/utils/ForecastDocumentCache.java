@@ -0,0 +1,234 @@
+package utils;
+
+import org.w3c.dom.Document;
+
+import model.ForecastDocumentSummary;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of parsed forecast documents and their summaries.
+ * - Keyed by canonical file path and confirmed by the SHA-256 of the content; a changed hash reparses,
+ *   a moved mtime with the same hash keeps the entry (no reparse).
+ * - Unchanged mtime and size skip reading the file, but only when the file was read at least
+ *   MTIME_GRANULARITY_MILLIS after its mtime. A file read within that window could be rewritten with
+ *   the same size and the same (coarse) mtime, so such "racy" entries are always confirmed by hash.
+ * - Bounded by entry count and by the total size of the cached source files. This is not the heap
+ *   taken by the DOMs, which is several times larger; size maxSourceBytes with that in mind.
+ * - Cached DOMs are never handed out: callers get a deep copy they can mutate freely,
+ *   and copies are taken under the master's monitor because Xerces DOMs are not safe for concurrent reads.
+ */
+public class ForecastDocumentCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+    private static final long DEFAULT_MAX_SOURCE_BYTES = 64L * 1024 * 1024;
+    static final long MTIME_GRANULARITY_MILLIS = 2_000; // coarsest common mtime resolution (FAT, some network shares)
+
+    private static final ForecastDocumentCache SHARED = new ForecastDocumentCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_SOURCE_BYTES);
+
+    private final int maxEntries;
+    private final long maxSourceBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sourceBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong contentChecks = new AtomicLong();
+
+    /**
+     * @param maxSourceBytes bound on the summed file sizes of the cached documents (not their DOM heap)
+     */
+    public ForecastDocumentCache(int maxEntries, long maxSourceBytes) {
+        if (maxEntries <= 0 || maxSourceBytes <= 0) {
+            throw new IllegalArgumentException("Cache bounds must be positive: entries=" + maxEntries + ", sourceBytes=" + maxSourceBytes);
+        }
+        this.maxEntries = maxEntries;
+        this.maxSourceBytes = maxSourceBytes;
+    }
+
+    /**
+     * Cache used by XMLDataExtraction and ForecastGenerator.
+     */
+    public static ForecastDocumentCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns a private, mutable copy of the parsed document.
+     */
+    public Document document(File file) throws Exception {
+        Document master = lookup(file).document;
+        synchronized (master) {
+            return (Document) master.cloneNode(true);
+        }
+    }
+
+    /**
+     * Returns a private copy of the document summary.
+     */
+    public ForecastDocumentSummary summary(File file) throws Exception {
+        return copy(lookup(file).summary);
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.get(), misses.get(), evictions.get(), invalidations.get(), contentChecks.get(),
+                    entries.size(), sourceBytes);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            sourceBytes = 0;
+        }
+    }
+
+    // ---------------- Internals ----------------
+
+    private Entry lookup(File file) throws Exception {
+        String key = file.getCanonicalPath();
+        long mtime = file.lastModified();
+        long size = file.length();
+
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null && cached.mtime == mtime && cached.size == size && !cached.isRacy()) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        // Miss, stale metadata or racy entry: read once, then decide by content hash.
+        long readAt = System.currentTimeMillis();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        byte[] hash = sha256(bytes);
+        if (cached != null) {
+            contentChecks.incrementAndGet();
+        }
+        if (cached != null && Arrays.equals(cached.hash, hash)) {
+            Entry touched = new Entry(cached, mtime, size, readAt);
+            put(key, touched);
+            hits.incrementAndGet();
+            return touched;
+        }
+        if (cached != null) {
+            invalidations.incrementAndGet();
+        }
+        misses.incrementAndGet();
+
+        Document doc = XmlEngine.parse(new ByteArrayInputStream(bytes));
+        ForecastDocumentSummary summary = XMLDataExtraction.summarize(doc);
+        summary.sourceFile = file.getPath();
+        Entry fresh = new Entry(doc, summary, mtime, size, hash, readAt);
+        put(key, fresh);
+        return fresh;
+    }
+
+    private void put(String key, Entry entry) {
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                sourceBytes -= previous.size;
+            }
+            sourceBytes += entry.size;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || sourceBytes > maxSourceBytes) && eldest.hasNext()) {
+                Map.Entry<String, Entry> e = eldest.next();
+                if (e.getValue() == entry) {
+                    continue; // never evict the entry being inserted
+                }
+                sourceBytes -= e.getValue().size;
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(bytes);
+    }
+
+    private static ForecastDocumentSummary copy(ForecastDocumentSummary s) {
+        ForecastDocumentSummary c = new ForecastDocumentSummary();
+        c.sourceFile = s.sourceFile;
+        c.documentIdentifier = s.documentIdentifier;
+        c.buyerName = s.buyerName;
+        c.buyerIdentifier = s.buyerIdentifier;
+        c.sellerName = s.sellerName;
+        c.sellerIdentifier = s.sellerIdentifier;
+        c.purchaseOrderNumber = s.purchaseOrderNumber;
+        c.lineItemCount = s.lineItemCount;
+        c.forecastCount = s.forecastCount;
+        return c;
+    }
+
+    private static final class Entry {
+        final Document document;   // master copy, only read while holding its own monitor
+        final ForecastDocumentSummary summary;
+        final long mtime;
+        final long size;
+        final byte[] hash;
+        final long readAt;         // wall clock when the content behind hash was read
+
+        Entry(Document document, ForecastDocumentSummary summary, long mtime, long size, byte[] hash, long readAt) {
+            this.document = document;
+            this.summary = summary;
+            this.mtime = mtime;
+            this.size = size;
+            this.hash = hash;
+            this.readAt = readAt;
+        }
+
+        Entry(Entry same, long mtime, long size, long readAt) {
+            this(same.document, same.summary, mtime, size, same.hash, readAt);
+        }
+
+        /** Read so soon after its mtime that a same-size rewrite may not have moved the mtime. */
+        boolean isRacy() {
+            return readAt - mtime < MTIME_GRANULARITY_MILLIS;
+        }
+    }
+
+    /**
+     * Point-in-time cache counters.
+     */
+    public static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long invalidations;
+        public final long contentChecks;  // lookups of a cached file that read and hashed it
+        public final int entries;
+        public final long sourceBytes;
+
+        Stats(long hits, long misses, long evictions, long invalidations, long contentChecks, int entries, long sourceBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.contentChecks = contentChecks;
+            this.entries = entries;
+            this.sourceBytes = sourceBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "ForecastDocumentCache[hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                    + ", invalidations=" + invalidations + ", contentChecks=" + contentChecks + ", entries=" + entries
+                    + ", sourceBytes=" + sourceBytes + "]";
+        }
+    }
+}
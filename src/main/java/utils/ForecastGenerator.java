@@ -0,0 +1,353 @@
+package utils;
+
+import org.w3c.dom.*;
+
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates large RNetDemandForecast documents for load and scale testing.
+ * - One of the hand-written templates in resources/xml is used as the skeleton:
+ *   header, properties and partners are copied, the first line item's ForecastProduct
+ *   and the first Forecast are repeated with new line numbers, dates and quantities.
+ * - Like the templates, each line item gets its own ReferenceItem and each forecast its own
+ *   ShipmentLineNumber, counted up from the template's values (00015, 0031, ...).
+ * - Output is written event by event through an XMLStreamWriter, so memory stays flat
+ *   whatever the number of line items.
+ * - Quantities are derived from (seed, line, forecast), so two runs with the same seed and
+ *   a different mix produce a baseline and a follow-up document that line up line for line.
+ */
+public class ForecastGenerator {
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    public enum Distribution { FIXED, UNIFORM, NORMAL }
+
+    /**
+     * Generation options. Defaults produce a small "create" document.
+     */
+    public static class Options {
+        public int lineItems = 10;             // RNetDemandForecastLineItem count (one product each)
+        public int forecastsPerLine = 10;      // Forecast entries per line item
+        public int horizonStepDays = 7;        // days between consecutive forecasts of a line
+        public LocalDate startDate = LocalDate.now();
+
+        public Distribution distribution = Distribution.UNIFORM;
+        public int minQuantity = 100;          // FIXED uses minQuantity
+        public int maxQuantity = 5000;
+        public double meanQuantity = 1000;     // NORMAL
+        public double stdDevQuantity = 250;
+
+        // Mix of forecast outcomes relative to the seed baseline; weights, need not sum to 1
+        public double createWeight = 1.0;      // baseline quantity
+        public double changeWeight = 0.0;      // baseline quantity scaled by 0.5..1.5
+        public double cancelWeight = 0.0;      // quantity 0, or dropped when dropCancelled
+        public boolean dropCancelled = false;
+
+        public long seed = 42L;
+        public String documentIdentifier;      // defaults to the template's identifier + "_GEN"
+        public boolean indent = true;
+    }
+
+    /**
+     * Generates a document from the template into the output file.
+     * @return the output file path
+     */
+    public static String generate(File template, File output, Options options) {
+        try {
+            if (output.getParentFile() != null) {
+                output.getParentFile().mkdirs();
+            }
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output), 1 << 16)) {
+                generate(template, out, options);
+            }
+            Methods.sline("Generated XML written to: " + output.getPath());
+            return output.getPath();
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to generate forecast from: " + template, e);
+        }
+    }
+
+    /**
+     * Streams a generated document into the output stream. The stream is not closed.
+     */
+    public static void generate(File template, OutputStream out, Options options) throws Exception {
+        validate(options);
+        Document skeleton = ForecastDocumentCache.shared().document(template);
+        Element root = skeleton.getDocumentElement();
+
+        Element header = firstChild(root, "RNetHeader");
+        Element body = firstChild(root, "RNetDemandForecastBody");
+        Element details = body == null ? null : firstChild(body, "RNetDemandForecastDetails");
+        Element lineItem = details == null ? null : firstChild(details, "RNetDemandForecastLineItem");
+        Element product = lineItem == null ? null : firstChild(lineItem, "ForecastProduct");
+        Element forecast = lineItem == null ? null : firstChild(lineItem, "Forecast");
+        if (header == null || product == null || forecast == null) {
+            throw new IllegalArgumentException("Template is not an RNetDemandForecast with line items: " + template);
+        }
+
+        String documentId = options.documentIdentifier != null
+                ? options.documentIdentifier
+                : textOf(header, "DocumentIdentifier") + "_GEN";
+
+        String referenceItem = textOf(forecast, "ReferenceItem");
+        String shipmentLineNumber = textOf(forecast, "ShipmentLineNumber");
+
+        XMLStreamWriter w = XmlEngine.createStreamWriter(out);
+        Emitter emitter = new Emitter(w, options.indent);
+        w.writeStartDocument("UTF-8", "1.0");
+
+        emitter.start(root);
+        emitter.copy(header, (tag, text) -> "DocumentIdentifier".equals(tag) ? documentId : text);
+        emitter.start(body);
+        for (Element section : childElements(body)) {
+            if (section != details) {
+                emitter.copy(section, null);
+            }
+        }
+
+        emitter.start(details);
+        double totalWeight = options.createWeight + options.changeWeight + options.cancelWeight;
+        for (int line = 1; line <= options.lineItems; line++) {
+            final String suffix = "_L" + line;
+            final String lineReference = offset(referenceItem, line - 1);
+            emitter.start(lineItem);
+            emitter.leaf("LineNumber", String.valueOf(line));
+            emitter.copy(product, (tag, text) ->
+                    "ProductIdentifier".equals(tag) || "ProductName".equals(tag) ? text + suffix : text);
+
+            for (int f = 1; f <= options.forecastsPerLine; f++) {
+                long key = mix(options.seed, line, f);
+                double roll = unit(mix(key, 1, 0)) * totalWeight;
+                int quantity = baseQuantity(options, key);
+                if (roll >= options.createWeight + options.changeWeight) {
+                    if (options.dropCancelled) {
+                        continue;
+                    }
+                    quantity = 0;
+                } else if (roll >= options.createWeight) {
+                    quantity = Math.max(1, (int) Math.round(quantity * (0.5 + unit(mix(key, 2, 0)))));
+                }
+
+                final String lineNumber = String.valueOf(f);
+                final String date = options.startDate.plusDays((long) (f - 1) * options.horizonStepDays).format(formatter);
+                final String value = String.valueOf(quantity);
+                final String shipmentLine = offset(shipmentLineNumber, f - 1);
+                emitter.copy(forecast, (tag, text) -> {
+                    switch (tag) {
+                        case "LineNumber":
+                            return lineNumber;
+                        case "ReferenceItem":
+                            return lineReference;
+                        case "ShipmentLineNumber":
+                            return shipmentLine;
+                        case "FromDateTime":
+                        case "ToDateTime":
+                            return date;
+                        case "MeasurementValue":
+                            return value;
+                        default:
+                            return text;
+                    }
+                });
+            }
+            emitter.end();
+        }
+        emitter.end(); // details
+        emitter.end(); // body
+        emitter.end(); // root
+
+        w.writeEndDocument();
+        w.flush();
+        w.close();
+    }
+
+    // ---------------- Quantities ----------------
+
+    private static int baseQuantity(Options o, long key) {
+        switch (o.distribution) {
+            case FIXED:
+                return o.minQuantity;
+            case NORMAL:
+                double g = gaussian(mix(key, 3, 0), mix(key, 4, 0));
+                return (int) Math.max(1, Math.round(o.meanQuantity + g * o.stdDevQuantity));
+            case UNIFORM:
+            default:
+                return o.minQuantity + (int) (unit(mix(key, 5, 0)) * (o.maxQuantity - o.minQuantity + 1));
+        }
+    }
+
+    /** SplitMix64-style hash so every (seed, line, forecast) gets a stable pseudo-random value. */
+    private static long mix(long seed, long a, long b) {
+        long z = seed + a * 0x9E3779B97F4A7C15L + b * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static double unit(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    private static double gaussian(long a, long b) {
+        double u1 = Math.max(unit(a), 1e-12);
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * unit(b));
+    }
+
+    private static void validate(Options o) {
+        if (o.lineItems < 0 || o.forecastsPerLine < 0 || o.horizonStepDays < 0) {
+            throw new IllegalArgumentException("Counts and horizon must not be negative");
+        }
+        if (o.maxQuantity < o.minQuantity) {
+            throw new IllegalArgumentException("maxQuantity < minQuantity");
+        }
+        if (o.createWeight < 0 || o.changeWeight < 0 || o.cancelWeight < 0
+                || o.createWeight + o.changeWeight + o.cancelWeight <= 0) {
+            throw new IllegalArgumentException("Mix weights must be non-negative with a positive sum");
+        }
+    }
+
+    // ---------------- Skeleton helpers ----------------
+
+    /** Numeric template value plus delta, zero-padded to the template's width ("0031" + 2 = "0033"). */
+    static String offset(String templateValue, int delta) {
+        if (templateValue.isEmpty() || !templateValue.chars().allMatch(Character::isDigit) || templateValue.length() > 18) {
+            return delta == 0 ? templateValue : templateValue + "_" + delta;
+        }
+        String next = String.valueOf(Long.parseLong(templateValue) + delta);
+        StringBuilder sb = new StringBuilder();
+        for (int i = next.length(); i < templateValue.length(); i++) {
+            sb.append('0');
+        }
+        return sb.append(next).toString();
+    }
+
+    private static Element firstChild(Element parent, String tagName) {
+        for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE && tagName.equals(n.getNodeName())) {
+                return (Element) n;
+            }
+        }
+        return null;
+    }
+
+    private static List<Element> childElements(Element parent) {
+        List<Element> out = new ArrayList<>();
+        for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if (n.getNodeType() == Node.ELEMENT_NODE) {
+                out.add((Element) n);
+            }
+        }
+        return out;
+    }
+
+    private static String textOf(Element parent, String tagName) {
+        Node n = parent.getElementsByTagName(tagName).item(0);
+        return n == null ? "" : n.getTextContent().trim();
+    }
+
+    /** Text substitution applied to leaf elements while copying a skeleton subtree. */
+    private interface TextRewrite {
+        String apply(String tagName, String originalText);
+    }
+
+    /**
+     * Writes skeleton elements through the stream writer, with optional indentation.
+     */
+    private static final class Emitter {
+        private final XMLStreamWriter w;
+        private final boolean indent;
+        private int depth;
+
+        Emitter(XMLStreamWriter w, boolean indent) {
+            this.w = w;
+            this.indent = indent;
+        }
+
+        void start(Element e) throws Exception {
+            newLine();
+            w.writeStartElement(e.getTagName());
+            writeAttributes(e);
+            depth++;
+        }
+
+        void end() throws Exception {
+            depth--;
+            newLine();
+            w.writeEndElement();
+        }
+
+        void leaf(String tagName, String text) throws Exception {
+            newLine();
+            w.writeStartElement(tagName);
+            w.writeCharacters(text);
+            w.writeEndElement();
+        }
+
+        void copy(Element e, TextRewrite rewrite) throws Exception {
+            boolean hasElementChildren = false;
+            for (Node n = e.getFirstChild(); n != null; n = n.getNextSibling()) {
+                if (n.getNodeType() == Node.ELEMENT_NODE) {
+                    hasElementChildren = true;
+                    break;
+                }
+            }
+            if (!hasElementChildren) {
+                String text = e.getTextContent().trim();
+                newLine();
+                w.writeStartElement(e.getTagName());
+                writeAttributes(e);
+                w.writeCharacters(rewrite == null ? text : rewrite.apply(e.getTagName(), text));
+                w.writeEndElement();
+                return;
+            }
+            start(e);
+            for (Node n = e.getFirstChild(); n != null; n = n.getNextSibling()) {
+                if (n.getNodeType() == Node.ELEMENT_NODE) {
+                    copy((Element) n, rewrite);
+                }
+            }
+            end();
+        }
+
+        private void writeAttributes(Element e) throws Exception {
+            NamedNodeMap attrs = e.getAttributes();
+            for (int i = 0; i < attrs.getLength(); i++) {
+                Node a = attrs.item(i);
+                w.writeAttribute(a.getNodeName(), a.getNodeValue());
+            }
+        }
+
+        private void newLine() throws Exception {
+            if (!indent) {
+                return;
+            }
+            StringBuilder sb = new StringBuilder(1 + depth);
+            sb.append('\n');
+            for (int i = 0; i < depth; i++) {
+                sb.append('\t');
+            }
+            w.writeCharacters(sb.toString());
+        }
+    }
+
+    /**
+     * Usage: ForecastGenerator <template.xml> <output.xml> [lineItems] [forecastsPerLine]
+     */
+    public static void main(String[] args) {
+        String template = args.length > 0 ? args[0] : "orderCreate01.xml";
+        String output = args.length > 1 ? args[1] : "resources/generated/orderCreate01_large.xml";
+        Options options = new Options();
+        if (args.length > 2) options.lineItems = Integer.parseInt(args[2]);
+        if (args.length > 3) options.forecastsPerLine = Integer.parseInt(args[3]);
+        generate(new File("resources/xml/" + template), new File(output), options);
+    }
+}
@@ -0,0 +1,203 @@
+package utils;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import utils.XmlFieldExtractor.Field;
+
+/**
+ * Structural checks run before any upload so malformed forecasts fail fast instead of
+ * after a full browser round trip.
+ * - Required RNetHeader fields, From/To partners, non-empty DateTimeRange dates, numeric quantities.
+ * - The rule set is compiled once (XmlFieldExtractor) and shared by every file and thread;
+ *   each file is checked in a single StAX pass.
+ */
+public class ForecastValidator {
+
+    private static final XmlFieldExtractor RULES = XmlFieldExtractor.compile(
+            Field.scalar("documentIdentifier", "/RNetDemandForecast/RNetHeader/ThisDocumentIdentifier/DocumentIdentifier"),
+            Field.scalar("documentDateTime", "/RNetDemandForecast/RNetHeader/ThisDocumentDateTime/DateTime"),
+            Field.scalar("fromName", "/RNetDemandForecast/RNetHeader/From/RNetPartnerInformation/RNetPartnerName"),
+            Field.scalar("fromIdentifier", "/RNetDemandForecast/RNetHeader/From/RNetPartnerInformation/RNetPartnerIdentifier"),
+            Field.scalar("toName", "/RNetDemandForecast/RNetHeader/To/RNetPartnerInformation/RNetPartnerName"),
+            Field.scalar("toIdentifier", "/RNetDemandForecast/RNetHeader/To/RNetPartnerInformation/RNetPartnerIdentifier"),
+            Field.count("dateTimeRanges", "//DateTimeRange"),
+            Field.repeated("fromDates", "//DateTimeRange/FromDateTime"),
+            Field.repeated("toDates", "//DateTimeRange/ToDateTime"),
+            Field.count("forecasts", "//RNetDemandForecastLineItem/Forecast"),
+            Field.repeated("quantities", "//RNetDemandForecastLineItem/Forecast//MeasurementValue"));
+
+    private static final String[][] REQUIRED = {
+            {"documentIdentifier", "RNetHeader/ThisDocumentIdentifier/DocumentIdentifier"},
+            {"documentDateTime", "RNetHeader/ThisDocumentDateTime/DateTime"},
+            {"fromName", "RNetHeader/From partner name"},
+            {"fromIdentifier", "RNetHeader/From partner identifier"},
+            {"toName", "RNetHeader/To partner name"},
+            {"toIdentifier", "RNetHeader/To partner identifier"},
+    };
+
+    /**
+     * Checks one file.
+     * @return problems found; empty when the file is valid
+     */
+    public static List<String> validate(File file) {
+        XmlFieldExtractor.Values v;
+        try {
+            v = RULES.extract(file);
+        } catch (Exception e) {
+            return notWellFormed(e);
+        }
+        return check(v);
+    }
+
+    /**
+     * Checks an in-memory document (e.g. the bytes about to be uploaded).
+     * @return problems found; empty when the document is valid
+     */
+    public static List<String> validate(byte[] content) {
+        XmlFieldExtractor.Values v;
+        try {
+            v = RULES.extract(content);
+        } catch (Exception e) {
+            return notWellFormed(e);
+        }
+        return check(v);
+    }
+
+    private static List<String> notWellFormed(Exception e) {
+        List<String> problems = new ArrayList<>();
+        problems.add("not well-formed XML: " + e.getMessage());
+        return problems;
+    }
+
+    private static List<String> check(XmlFieldExtractor.Values v) {
+        List<String> problems = new ArrayList<>();
+        for (String[] required : REQUIRED) {
+            String value = v.get(required[0]);
+            if (value == null || value.isEmpty()) {
+                problems.add("missing " + required[1]);
+            }
+        }
+
+        int ranges = v.count("dateTimeRanges");
+        if (ranges == 0) {
+            problems.add("no DateTimeRange found");
+        }
+        checkDates(v.getAll("fromDates"), ranges, "FromDateTime", problems);
+        checkDates(v.getAll("toDates"), ranges, "ToDateTime", problems);
+
+        List<String> quantities = v.getAll("quantities");
+        if (quantities.size() < v.count("forecasts")) {
+            problems.add((v.count("forecasts") - quantities.size()) + " Forecast(s) without a MeasurementValue");
+        }
+        for (int i = 0; i < quantities.size(); i++) {
+            if (!isNumeric(quantities.get(i))) {
+                problems.add("non-numeric quantity '" + quantities.get(i) + "' at MeasurementValue #" + (i + 1));
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Checks every *_updated.xml in resources/testdata using all cores.
+     * @return problems per file name, only for invalid files (sorted by name)
+     */
+    public static Map<String, List<String>> validateTestData() {
+        return validateAll(Paths.get("resources", "testdata"), "*_updated.xml", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Checks every file matching the glob in parallel.
+     * @return problems per file name, only for invalid files (sorted by name)
+     */
+    public static Map<String, List<String>> validateAll(Path dir, String glob, int parallelism) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, glob)) {
+            for (Path p : stream) {
+                files.add(p);
+            }
+        } catch (Exception e) {
+            ExceptionHandler.logAndThrow("list forecasts in " + dir, e);
+        }
+
+        Map<String, List<String>> invalid = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            pool.submit(() -> files.parallelStream().forEach(p -> {
+                List<String> problems = validate(p.toFile());
+                if (!problems.isEmpty()) {
+                    invalid.put(p.getFileName().toString(), problems);
+                }
+            })).get();
+        } catch (Exception e) {
+            ExceptionHandler.logAndThrow("validate forecasts in " + dir, e);
+        } finally {
+            pool.shutdown();
+        }
+        return Collections.unmodifiableMap(new TreeMap<>(invalid));
+    }
+
+    /**
+     * Throws IllegalStateException listing every problem if the file is invalid.
+     */
+    public static void requireValid(File file) {
+        List<String> problems = validate(file);
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid forecast " + file.getPath() + ": " + problems);
+        }
+    }
+
+    /**
+     * Throws IllegalStateException listing every problem if the in-memory document is invalid.
+     */
+    public static void requireValid(String name, byte[] content) {
+        List<String> problems = validate(content);
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid forecast " + name + ": " + problems);
+        }
+    }
+
+    /**
+     * Validates all of resources/testdata and throws before any browser work if a file is invalid.
+     */
+    public static void requireValidTestData() {
+        Map<String, List<String>> invalid = validateTestData();
+        if (!invalid.isEmpty()) {
+            StringBuilder sb = new StringBuilder("Invalid forecast file(s) in resources/testdata:");
+            invalid.forEach((name, problems) -> sb.append("\n  ").append(name).append(": ").append(problems));
+            throw new IllegalStateException(sb.toString());
+        }
+        Methods.sline("All forecast files passed pre-upload validation");
+    }
+
+    private static void checkDates(List<String> dates, int ranges, String label, List<String> problems) {
+        if (dates.size() < ranges) {
+            problems.add((ranges - dates.size()) + " DateTimeRange(s) without " + label);
+        }
+        for (int i = 0; i < dates.size(); i++) {
+            if (dates.get(i).isEmpty()) {
+                problems.add("empty " + label + " in DateTimeRange #" + (i + 1));
+            }
+        }
+    }
+
+    private static boolean isNumeric(String s) {
+        try {
+            new BigDecimal(s);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import model.PlanningItemRecord;
+
+/**
+ * Append-only JSON Lines file (one JSON object per line) with O(1) appends from any number of threads.
+ * - append() only enqueues; a single writer thread drains the queue in batches into one FileChannel,
+ *   so concurrent writers never interleave or lose lines. An append that cannot be written (store
+ *   closed, writer failed or stopped) throws instead of blocking or being dropped.
+ * - fsync is batched: after syncEveryRecords lines and/or syncIntervalMillis (0 = leave it to the OS).
+ * - exportJsonArray() writes the "[ {...}, {...} ]" file Methods.appendToJsonArrayFile produced;
+ *   compact() rewrites the log keeping the latest record per key.
+ * - Use open(path) to share one store per file within the JVM; shared stores are closed on exit.
+ */
+public class JsonLinesStore implements AutoCloseable {
+
+    public static class Options {
+        public int queueCapacity = 4096;      // appends beyond this block until the writer catches up
+        public int syncEveryRecords = 0;      // fsync after this many lines (0 = off)
+        public long syncIntervalMillis = 0;   // fsync at most this long after a write (0 = off)
+    }
+
+    private static final Pattern DOCUMENT_IDENTIFIER_FIELD = field("documentIdentifier");
+    private static final Pattern PLANNING_ITEM_NAME_FIELD = field("planningItemName");
+
+    /**
+     * Key of a PlanningItemRecord line for compact(): documentIdentifier|planningItemName, so one
+     * document's planning items each keep their latest record.
+     */
+    public static final Function<String, String> PLANNING_ITEM = line -> {
+        Matcher id = DOCUMENT_IDENTIFIER_FIELD.matcher(line);
+        Matcher item = PLANNING_ITEM_NAME_FIELD.matcher(line);
+        return id.find() && item.find() ? id.group(1) + "|" + item.group(1) : line;
+    };
+
+    private static final String CLOSE = new String("close"); // identity-compared sentinel
+    private static final int BATCH = 512;
+    private static final long OFFER_SLICE_MILLIS = 100; // a full queue re-checks the writer this often
+    private static final Map<Path, JsonLinesStore> shared = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final Options options;
+    private final BlockingQueue<String> queue;
+    private final Thread writer;
+    private final Object progress = new Object();
+    private final ReadWriteLock appendLock = new ReentrantReadWriteLock(); // close() waits for appends in flight
+    private FileChannel channel;
+    private long enqueued;        // guarded by progress
+    private long written;         // guarded by progress
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    public JsonLinesStore(Path file, Options options) {
+        this.file = file;
+        this.options = options;
+        this.queue = new ArrayBlockingQueue<>(options.queueCapacity);
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            channel = openChannel();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open record store " + file, e);
+        }
+        writer = new Thread(this::writeLoop, "jsonl-writer-" + file.getFileName());
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Store shared by every caller of the same file in this JVM (default options).
+     */
+    public static JsonLinesStore open(Path file) {
+        return shared.computeIfAbsent(file.toAbsolutePath().normalize(), p -> {
+            JsonLinesStore store = new JsonLinesStore(p, new Options());
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close, "jsonl-close-" + p.getFileName()));
+            return store;
+        });
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    // ---------------- Writing ----------------
+
+    /** Appends one JSON object; it must be on a single line (Methods.toJson output is). */
+    public void append(String jsonObject) {
+        if (jsonObject.indexOf('\n') >= 0 || jsonObject.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Record must be a single line: " + jsonObject);
+        }
+        appendLock.readLock().lock();
+        try {
+            checkOpen();
+            synchronized (progress) {
+                enqueued++; // counted before the writer can see it, so flush() never returns ahead of it
+            }
+            boolean queued = false;
+            try {
+                while (!(queued = queue.offer(jsonObject, OFFER_SLICE_MILLIS, TimeUnit.MILLISECONDS))) {
+                    checkWriter();
+                }
+                checkWriter(); // the writer may have stopped before taking this record
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while appending to " + file, e);
+            } finally {
+                if (!queued) {
+                    synchronized (progress) {
+                        enqueued--;
+                        progress.notifyAll();
+                    }
+                }
+            }
+        } finally {
+            appendLock.readLock().unlock();
+        }
+    }
+
+    public void append(PlanningItemRecord record) {
+        append(Methods.toJson(record));
+    }
+
+    /** Blocks until everything appended before this call is written to the file (not necessarily synced). */
+    public void flush() {
+        synchronized (progress) {
+            long target = enqueued;
+            while (written < Math.min(target, enqueued) && failure == null && writer.isAlive()) {
+                try {
+                    progress.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while flushing " + file, e);
+                }
+            }
+        }
+        checkFailure();
+    }
+
+    /** flush() plus fsync. */
+    public void sync() {
+        flush();
+        try {
+            synchronized (this) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to sync " + file, e);
+        }
+    }
+
+    /** Writes what was appended, syncs and stops the writer. Further appends fail. */
+    @Override
+    public void close() {
+        appendLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true; // no append is in flight, so CLOSE lands behind every accepted record
+        } finally {
+            appendLock.writeLock().unlock();
+        }
+        try {
+            while (writer.isAlive() && !queue.offer(CLOSE, OFFER_SLICE_MILLIS, TimeUnit.MILLISECONDS)) {
+                // queue full: the writer is still draining
+            }
+            writer.join();
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            ExceptionHandler.logOnly("JsonLinesStore.close(" + file + ")", e);
+        }
+        shared.remove(file.toAbsolutePath().normalize(), this);
+    }
+
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>(BATCH);
+        long unsynced = 0;
+        long firstUnsyncedAt = 0;
+        boolean stop = false;
+        while (!stop) {
+            try {
+                String first = unsynced > 0 && options.syncIntervalMillis > 0
+                        ? queue.poll(options.syncIntervalMillis, TimeUnit.MILLISECONDS)
+                        : queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH - 1);
+                }
+            } catch (InterruptedException e) {
+                stop = true;
+            }
+            int lines = 0;
+            StringBuilder sb = new StringBuilder();
+            for (String line : batch) {
+                if (line == CLOSE) {
+                    stop = true;
+                    continue;
+                }
+                sb.append(line).append('\n');
+                lines++;
+            }
+            batch.clear();
+            try {
+                synchronized (this) {
+                    if (lines > 0) {
+                        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        if (unsynced == 0) {
+                            firstUnsyncedAt = System.nanoTime();
+                        }
+                        unsynced += lines;
+                    }
+                    boolean byCount = options.syncEveryRecords > 0 && unsynced >= options.syncEveryRecords;
+                    boolean byTime = options.syncIntervalMillis > 0 && unsynced > 0
+                            && System.nanoTime() - firstUnsyncedAt >= TimeUnit.MILLISECONDS.toNanos(options.syncIntervalMillis);
+                    if (byCount || byTime) {
+                        channel.force(false);
+                        unsynced = 0;
+                    }
+                }
+            } catch (IOException e) {
+                failure = e;
+                stop = true;
+            }
+            synchronized (progress) {
+                written += lines;
+                progress.notifyAll();
+            }
+        }
+    }
+
+    // ---------------- Reading / export ----------------
+
+    /** Every record currently in the file, in append order. */
+    public List<String> records() {
+        flush();
+        try {
+            return Files.readAllLines(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read " + file, e);
+        }
+    }
+
+    /**
+     * Writes all records as a JSON array file (the format of Methods.appendToJsonArrayFile), streaming
+     * line by line.
+     * @return number of records exported
+     */
+    public int exportJsonArray(Path target) {
+        flush();
+        int count = 0;
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+                 BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                out.write("[");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    out.write(count++ == 0 ? "\n  " : ",\n  ");
+                    out.write(line);
+                }
+                out.write(count == 0 ? "]\n" : "\n]\n");
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to export " + file + " to " + target, e);
+        }
+        return count;
+    }
+
+    /**
+     * Rewrites the file keeping only the latest record per key (at the position of the key's first record).
+     * Appends made while compacting wait and go to the new file.
+     * @return number of records kept
+     */
+    public int compact(Function<String, String> key) {
+        checkOpen();
+        flush();
+        synchronized (this) { // the writer waits here; its next batch goes to the compacted file
+            try {
+                Map<String, String> latest = new LinkedHashMap<>();
+                try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (!line.isEmpty()) {
+                            latest.put(key.apply(line), line);
+                        }
+                    }
+                }
+                Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+                try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    for (String line : latest.values()) {
+                        out.write(line);
+                        out.write('\n');
+                    }
+                }
+                channel.close();
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                channel = openChannel();
+                return latest.size();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to compact " + file, e);
+            }
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Record store " + file + " is closed");
+        }
+        checkFailure();
+    }
+
+    private void checkWriter() {
+        checkFailure();
+        if (!writer.isAlive()) {
+            throw new IllegalStateException("Record store " + file + " writer has stopped");
+        }
+    }
+
+    private void checkFailure() {
+        IOException e = failure;
+        if (e != null) {
+            throw new RuntimeException("Record store " + file + " failed", e);
+        }
+    }
+
+    /** A JSON string-or-null field as Methods.toJson writes it; group 1 is the raw value. */
+    private static Pattern field(String name) {
+        return Pattern.compile("\"" + name + "\":(\"(?:[^\"\\\\]|\\\\.)*\"|null)");
+    }
+}
@@ -3,6 +3,7 @@ package utils;
 import java.io.File;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,7 +25,8 @@ import java.util.List;
 
 /**
  * Utility class for WebDriver interactions.
- * - Pass driver once via setDriver().
+ * - Pass driver once per thread via setDriver(); every helper uses the calling thread's driver,
+ *   so parallel tests each drive their own browser.
  * - Use by element id or classname.
  * - Timeout always in seconds.
  */
@@ -32,25 +34,76 @@ public class Methods {
 
     // ------ DRIVER MANAGEMENT ------
 
-    private static WebDriver driver;
+    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
     private static final int DEFAULT_TIMEOUT = 10;
 
     /**
-     * Set the WebDriver instance ONCE per test run.
+     * Bind the WebDriver instance to the current thread (once per test or session).
      */
     public static void setDriver(WebDriver webDriver) {
-        driver = webDriver;
+        driver.set(webDriver);
     }
 
     /**
-     * Optionally, get the driver (for custom checks).
+     * Optionally, get the current thread's driver (for custom checks).
      */
     public static WebDriver getDriver() {
-        return driver;
+        return driver.get();
     }
 
+    /**
+     * Unbind the current thread's driver (call when the session ends so pooled threads don't keep it).
+     */
+    public static void clearDriver() {
+        driver.remove();
+    }
+
+    /**
+     * Run an action with the given driver bound to the current thread, restoring the previous binding after.
+     */
+    public static void withDriver(WebDriver webDriver, Runnable action) {
+        WebDriver previous = driver.get();
+        driver.set(webDriver);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                driver.remove();
+            } else {
+                driver.set(previous);
+            }
+        }
+    }
+
+    private static WebDriver requireDriver() {
+        WebDriver current = driver.get();
+        if (current == null) {
+            throw new IllegalStateException("No WebDriver bound to thread " + Thread.currentThread().getName()
+                    + "; call Methods.setDriver() first");
+        }
+        return current;
+    }
+
+    /**
+     * WebDriverWait on AdaptiveWait; every condition waited on is recorded under the one name "getWait".
+     * Prefer getWait(conditionName, timeoutSeconds) or waitUntil so each condition gets its own stats.
+     */
     public static WebDriverWait getWait(int timeoutSeconds) {
-        return new WebDriverWait(driver, java.time.Duration.ofSeconds(timeoutSeconds));
+        return getWait("getWait", timeoutSeconds);
+    }
+
+    /**
+     * WebDriverWait on AdaptiveWait recording under conditionName, which must be stable across runs.
+     */
+    public static WebDriverWait getWait(String conditionName, int timeoutSeconds) {
+        return AdaptiveWait.shared().asWebDriverWait(requireDriver(), conditionName, Duration.ofSeconds(timeoutSeconds));
+    }
+
+    /**
+     * Waits on the current thread's driver through AdaptiveWait (adaptive polling, per-condition stats).
+     */
+    public static <T> T waitUntil(String conditionName, int timeoutSeconds, java.util.function.Function<? super WebDriver, T> condition) {
+        return AdaptiveWait.shared().until(requireDriver(), conditionName, Duration.ofSeconds(timeoutSeconds), condition);
     }
 
     // ---------------------- CLICK METHODS ----------------------
@@ -62,7 +115,7 @@ public class Methods {
     public static void click(String type, String value, int timeoutSeconds) {
         try {
             By locator = buildLocator(type, value);
-            getWait(timeoutSeconds).until(ExpectedConditions.elementToBeClickable(locator)).click();
+            waitUntil("clickable " + type + "=" + value, timeoutSeconds, ExpectedConditions.elementToBeClickable(locator)).click();
         } catch (Exception e) {
             System.err.println("[ERROR] Methods.click(type=" + type + ", value=" + value + ", timeout=" + timeoutSeconds + ")");
             e.printStackTrace();
@@ -88,7 +141,7 @@ public class Methods {
      */
     public static void clickElementByClassIndex(String tag, String className, int index, int timeout) {
         By locator = By.cssSelector(tag + "." + className);
-        List<WebElement> elements = getWait(timeout).until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
+        List<WebElement> elements = waitUntil("visible all " + locator, timeout, ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
 
         if (index >= 0 && index < elements.size()) {
             elements.get(index).click();
@@ -106,8 +159,8 @@ public class Methods {
     public static void sendKeys(String type, String value, int timeoutSeconds, String text) {
         try {
             By locator = buildLocator(type, value);
-            WebElement element = getWait(timeoutSeconds)
-                    .until(ExpectedConditions.visibilityOfElementLocated(locator));
+            WebElement element = waitUntil("visible " + type + "=" + value, timeoutSeconds,
+                    ExpectedConditions.visibilityOfElementLocated(locator));
             element.clear();
             element.sendKeys(text);
         } catch (Exception e) {
@@ -135,8 +188,8 @@ public class Methods {
      */
     public static void sendKeysAndEnter(String type, String value, int timeoutSeconds, String text) {
         By locator = buildLocator(type, value);
-        WebElement element = getWait(timeoutSeconds)
-                .until(ExpectedConditions.visibilityOfElementLocated(locator));
+        WebElement element = waitUntil("visible " + type + "=" + value, timeoutSeconds,
+                ExpectedConditions.visibilityOfElementLocated(locator));
         element.sendKeys(text + Keys.RETURN);
     }
     
@@ -155,8 +208,8 @@ public class Methods {
     public static String getText(String type, String value, int timeoutSeconds) {
         try {
             By locator = buildLocator(type, value);
-            WebElement element = getWait(timeoutSeconds)
-                    .until(ExpectedConditions.visibilityOfElementLocated(locator));
+            WebElement element = waitUntil("visible " + type + "=" + value, timeoutSeconds,
+                    ExpectedConditions.visibilityOfElementLocated(locator));
             return element.getText();
         } catch (Exception e) {
             System.err.println("[ERROR] Methods.getText(type=" + type + ", value=" + value + ", timeout=" + timeoutSeconds + ")");
@@ -180,8 +233,8 @@ public class Methods {
      */
     public static void waitForPageLoad(int timeoutSeconds) {
         try {
-            getWait(timeoutSeconds).until(webDriver ->
-                ((JavascriptExecutor) webDriver).executeScript("return document.readyState").equals("complete"));
+            waitUntil("page load", timeoutSeconds, webDriver ->
+                "complete".equals(((JavascriptExecutor) webDriver).executeScript("return document.readyState")));
         } catch (Exception e) {
             System.err.println("[ERROR] Methods.waitForPageLoad(timeout=" + timeoutSeconds + ")");
             e.printStackTrace();
@@ -201,7 +254,7 @@ public class Methods {
      */
     public static void waitForElementToDisappear(String type, String value, int timeoutSeconds) {
         By locator = buildLocator(type, value);
-        getWait(timeoutSeconds).until(ExpectedConditions.invisibilityOfElementLocated(locator));
+        waitUntil("invisible " + type + "=" + value, timeoutSeconds, ExpectedConditions.invisibilityOfElementLocated(locator));
     }
 
     /**
@@ -216,13 +269,14 @@ public class Methods {
      */
     public static void waitForTextPresent(String type, String value, int timeoutSeconds, String text) {
         By locator = buildLocator(type, value);
-        getWait(timeoutSeconds).until(ExpectedConditions.textToBePresentInElementLocated(locator, text));
+        waitUntil("text in " + type + "=" + value, timeoutSeconds, ExpectedConditions.textToBePresentInElementLocated(locator, text));
     }
     
     /**
      * Hard wait - pauses execution for given seconds.
-     * Use only when necessary; prefer WebDriver waits.
+     * @deprecated fixed pauses slow every run down; wait for a condition with waitUntil() instead.
      */
+    @Deprecated
     public static void wait(int seconds) {
         try {
             Thread.sleep(seconds * 1000L);
@@ -275,7 +329,7 @@ public class Methods {
     public static boolean isElementPresent(String type, String value, int timeoutSeconds) {
         try {
             By locator = buildLocator(type, value);
-            getWait(timeoutSeconds).until(ExpectedConditions.visibilityOfElementLocated(locator));
+            waitUntil("visible " + type + "=" + value, timeoutSeconds, ExpectedConditions.visibilityOfElementLocated(locator));
             return true;
         } catch (org.openqa.selenium.TimeoutException | org.openqa.selenium.NoSuchElementException e) {
             System.err.println("[WARN] Methods.isElementPresent(type=" + type + ", value=" + value + ", timeout=" + timeoutSeconds + ") - not found");
@@ -291,11 +345,11 @@ public class Methods {
 
     
 	/*
-	 * read xml content
+	 * read xml content (raw text, no parsing; use XmlEngine to parse)
 	 */
     public static String readXmlContent(String path) {
         try {
-            return new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(path)));
+            return new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(path)), StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new RuntimeException("Failed to read XML content", e);
         }
@@ -308,7 +362,7 @@ public class Methods {
      */
     public static void setValue(String type, String selector, String value) {
         try {
-            JavascriptExecutor js = (JavascriptExecutor) driver;
+            JavascriptExecutor js = (JavascriptExecutor) requireDriver();
             String script;
 
             switch (type.toLowerCase()) {
@@ -430,8 +484,8 @@ public class Methods {
     	
         sendKeys(inputType, inputValue, timeoutSeconds, textToType);
         By suggestionLocator = By.cssSelector("ul." + dropdownClass + " li:nth-child(" + suggestionIndex + ")");
-        WebElement suggestionItem = getWait(timeoutSeconds)
-                .until(ExpectedConditions.elementToBeClickable(suggestionLocator));
+        WebElement suggestionItem = waitUntil("clickable suggestion ul." + dropdownClass, timeoutSeconds,
+                ExpectedConditions.elementToBeClickable(suggestionLocator));
         suggestionItem.click();
     }
     
@@ -464,8 +518,8 @@ public class Methods {
     public static void selectDropdownOption(String inputType, String inputValue, String matchBy,
                                             String matchValue, int timeoutSeconds) {
         By locator = buildLocator(inputType, inputValue);
-        WebElement dropdownElement = getWait(timeoutSeconds)
-                .until(ExpectedConditions.presenceOfElementLocated(locator));
+        WebElement dropdownElement = waitUntil("present " + inputType + "=" + inputValue, timeoutSeconds,
+                ExpectedConditions.presenceOfElementLocated(locator));
         Select dropdown = new Select(dropdownElement);
 
         switch (matchBy.toLowerCase()) {
@@ -536,17 +590,106 @@ public class Methods {
     public static String getAbsolutePath(String relativePath) {
         return new File(relativePath).getAbsolutePath();
     }
+    /**
+     * Reads a whole table in one round trip: headers, cell text (hidden cells read as "", like
+     * getText) and, per cell, the requested attributes of the cell or its first descendant having them.
+     */
+    static final String TABLE_SCRIPT =
+            "var table = arguments[0], attrs = arguments[1] || [];"
+            + "function text(el) { return el.getClientRects().length"
+            + " ? (el.innerText || '').replace(/\\u00a0/g, ' ').trim() : ''; }"
+            + "var headers = [], rows = [], ths = table.querySelectorAll('thead th');"
+            + "for (var h = 0; h < ths.length; h++) { headers.push(text(ths[h])); }"
+            + "var trs = table.querySelectorAll('tbody tr');"
+            + "for (var r = 0; r < trs.length; r++) {"
+            + "  var tds = trs[r].getElementsByTagName('td'), cells = [], found = [];"
+            + "  for (var c = 0; c < tds.length; c++) {"
+            + "    cells.push(text(tds[c]));"
+            + "    var a = {};"
+            + "    for (var k = 0; k < attrs.length; k++) {"
+            + "      var v = tds[c].getAttribute(attrs[k]);"
+            + "      if (v === null) { var d = tds[c].querySelector('[' + attrs[k] + ']'); v = d ? d.getAttribute(attrs[k]) : null; }"
+            + "      if (v !== null) { a[attrs[k]] = v; }"
+            + "    }"
+            + "    found.push(a);"
+            + "  }"
+            + "  rows.push({cells: cells, attributes: found});"
+            + "}"
+            + "return {headers: headers, rows: rows};";
+
     /**
      * Parses an HTML table into a list of row data maps using header text as keys.
+     * The table is read with a single executeScript (see parseTableRows(By, String...)).
      *
      * @param tableLocator Locator for the <table> element
      * @return List of row maps (column header → cell value)
      */
     public static List<Map<String, String>> parseTableRows(By tableLocator) {
+        return parseTableRows(tableLocator, new String[0]);
+    }
+
+    /**
+     * Bulk mode: one executeScript serializes the whole table instead of one getText per cell.
+     * Falls back to parseTableRowsPerCell when the driver cannot run scripts.
+     *
+     * @param tableLocator Locator for the <table> element
+     * @param attributes   cell attributes to include (e.g. "href", "title"); each one found adds a
+     *                     "header@attribute" entry to the row map
+     * @return List of row maps (column header → cell value), same keys as parseTableRowsPerCell
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Map<String, String>> parseTableRows(By tableLocator, String... attributes) {
+        WebElement table = waitUntil("present table " + tableLocator, DEFAULT_TIMEOUT,
+                ExpectedConditions.presenceOfElementLocated(tableLocator));
+        WebDriver current = requireDriver();
+        if (current instanceof JavascriptExecutor) {
+            Object result = ((JavascriptExecutor) current).executeScript(TABLE_SCRIPT, table, Arrays.asList(attributes));
+            if (result instanceof Map) {
+                return toRowMaps((Map<String, Object>) result);
+            }
+        }
+        return parseTableRowsPerCell(tableLocator);
+    }
+
+    /**
+     * Row maps from the TABLE_SCRIPT result: header text as key, "Column" + index past the last header.
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, String>> toRowMaps(Map<String, Object> table) {
+        List<String> columnNames = new ArrayList<>();
+        for (Object header : (List<Object>) table.get("headers")) {
+            columnNames.add(String.valueOf(header).trim());
+        }
+        List<Object> rows = (List<Object>) table.get("rows");
+        List<Map<String, String>> rowDataList = new ArrayList<>(rows.size());
+        for (Object r : rows) {
+            Map<String, Object> row = (Map<String, Object>) r;
+            List<Object> cells = (List<Object>) row.get("cells");
+            List<Object> attributes = (List<Object>) row.get("attributes");
+            Map<String, String> rowMap = new HashMap<>();
+            for (int i = 0; i < cells.size(); i++) {
+                String header = (i < columnNames.size()) ? columnNames.get(i) : "Column" + i;
+                rowMap.put(header, String.valueOf(cells.get(i)).trim());
+                if (attributes != null && i < attributes.size()) {
+                    for (Map.Entry<String, Object> a : ((Map<String, Object>) attributes.get(i)).entrySet()) {
+                        rowMap.put(header + "@" + a.getKey(), String.valueOf(a.getValue()));
+                    }
+                }
+            }
+            rowDataList.add(rowMap);
+        }
+        return rowDataList;
+    }
+
+    /**
+     * Parses a table with one WebDriver call per header and cell (2 + rows x (cells + 1) round trips).
+     * Kept as the fallback for drivers without script support and as the benchmark baseline.
+     */
+    public static List<Map<String, String>> parseTableRowsPerCell(By tableLocator) {
         List<Map<String, String>> rowDataList = new ArrayList<>();
 
-        WebElement table = getWait(DEFAULT_TIMEOUT)
-                .until(ExpectedConditions.presenceOfElementLocated(tableLocator));
+        WebElement table = waitUntil("present table " + tableLocator, DEFAULT_TIMEOUT,
+                ExpectedConditions.presenceOfElementLocated(tableLocator));
 
         // Get table headers
         List<WebElement> headers = table.findElements(By.cssSelector("thead th"));
@@ -575,13 +718,31 @@ public class Methods {
  // ---------------- Generic Selenium helpers ----------------
 
     public static WebElement waitVisible(WebDriver driver, By locator, int timeoutSec) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeoutSec))
-                .until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return AdaptiveWait.shared().until(driver, "visible " + locator, Duration.ofSeconds(timeoutSec),
+                ExpectedConditions.visibilityOfElementLocated(locator));
+    }
+
+    public static WebElement waitClickable(WebDriver driver, By locator, int timeoutSec) {
+        return AdaptiveWait.shared().until(driver, "clickable " + locator, Duration.ofSeconds(timeoutSec),
+                ExpectedConditions.elementToBeClickable(locator));
     }
 
     public static WebElement waitClickable(WebDriver driver, WebElement el, int timeoutSec) {
-        return new WebDriverWait(driver, Duration.ofSeconds(timeoutSec))
-                .until(ExpectedConditions.elementToBeClickable(el));
+        return AdaptiveWait.shared().until(driver, "clickable " + locatorOf(el), Duration.ofSeconds(timeoutSec),
+                ExpectedConditions.elementToBeClickable(el));
+    }
+
+    /**
+     * Locator an element was found with, without the session part of its toString(): "id: submitbutton",
+     * or "id: table -> xpath: .//tr" when found from another element; "element" when unknown.
+     */
+    static String locatorOf(WebElement el) {
+        String s = String.valueOf(el);
+        int arrow = s.indexOf(" -> ");
+        if (arrow < 0 || s.contains("unknown locator")) {
+            return "element";
+        }
+        return s.substring(arrow + 4).replace("]", "").trim();
     }
 
     public static void scrollIntoView(WebDriver driver, WebElement el) {
@@ -592,6 +753,10 @@ public class Methods {
         ((JavascriptExecutor) driver).executeScript("arguments[0].click();", el);
     }
 
+    /**
+     * @deprecated fixed pauses slow every run down; wait for a condition with waitUntil() instead.
+     */
+    @Deprecated
     public static void sleep(long ms) {
         try { Thread.sleep(ms); } catch (InterruptedException ignored) {}
     }
@@ -659,6 +824,19 @@ public class Methods {
                 + "}";
     }
 
+    /**
+     * Appends a record to the JSON Lines store at relativePath (one object per line, O(1) per append,
+     * safe from parallel tests). JsonLinesStore.open(path).exportJsonArray(...) produces the JSON array file.
+     */
+    public static void appendRecord(String relativePath, model.PlanningItemRecord r) {
+        JsonLinesStore.open(Paths.get(relativePath)).append(r);
+    }
+
+    /**
+     * Rewrites the whole file on every call (O(N) per append) and is not safe for concurrent writers.
+     * @deprecated use appendRecord / JsonLinesStore and export with JsonLinesStore.exportJsonArray
+     */
+    @Deprecated
     public static void appendToJsonArrayFile(String relativePath, String jsonObject) {
         try {
             Path path = Paths.get(relativePath);
@@ -0,0 +1,327 @@
+package utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.PlanningItemRecord;
+
+/**
+ * Persistent history of PlanningItemRecords: a memory-mapped, append-only data file plus in-memory
+ * secondary indexes on documentIdentifier and planningItemName.
+ * - File: 4-byte magic, 4-byte end offset, then records [int length][fields]; strings are
+ *   [int byteLength (-1 = null)][UTF-8], Integers are ints (Integer.MIN_VALUE = null).
+ * - Lookups go straight from the index to the record's offset in the mapping, so no other record is
+ *   read. Reads are not zero-copy: each one decodes new Strings and a new PlanningItemRecord
+ *   (latestStatus() decodes only the status String).
+ * - append() writes into the mapping (growing it by doubling) and adds the offset to both indexes.
+ *   The indexes are rebuilt from the mapping when the file is opened; a record that does not fit in
+ *   the written area (e.g. a torn write) makes opening fail with IllegalStateException.
+ * - One mapping, so a file holds up to 2 GB of records. Methods are synchronized; one instance per file.
+ */
+public class PlanningItemHistory implements AutoCloseable {
+
+    private static final int MAGIC = 0x50494831; // "PIH1"
+    private static final int HEADER = 8;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int MAX_SIZE = Integer.MAX_VALUE;
+
+    private final Path file;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int end;
+    private int count;
+    private final Map<String, Offsets> byDocument = new HashMap<>();
+    private final Map<String, Offsets> byPlanningItem = new HashMap<>();
+
+    /** Growable int list; most keys have only a few records. */
+    private static final class Offsets {
+        int[] values = new int[2];
+        int size;
+
+        void add(int offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = offset;
+        }
+    }
+
+    public PlanningItemHistory(Path file) {
+        this(file, 1 << 20);
+    }
+
+    /**
+     * @param initialCapacity bytes mapped for a new file; the mapping doubles when it fills up
+     */
+    public PlanningItemHistory(Path file, int initialCapacity) {
+        this.file = file;
+        FileChannel opened = null;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel = opened;
+            long existing = channel.size();
+            if (existing == 0) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(HEADER, initialCapacity));
+                buffer.putInt(0, MAGIC);
+                end = HEADER;
+                buffer.putInt(4, end);
+            } else {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, existing);
+                if (existing < HEADER || buffer.getInt(0) != MAGIC) {
+                    throw new IllegalStateException(file + " is not a planning item history file");
+                }
+                end = buffer.getInt(4);
+                if (end < HEADER || end > existing) {
+                    throw new IllegalStateException(file + " has end offset " + end + " outside its " + existing + " bytes");
+                }
+                reindex();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (opened != null) {
+                try {
+                    opened.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new RuntimeException("Failed to open planning item history " + file, e);
+        }
+    }
+
+    // ---------------- Writing ----------------
+
+    /**
+     * Appends a record and indexes it.
+     * @return the record's offset in the file
+     */
+    public synchronized int append(PlanningItemRecord r) {
+        byte[][] strings = {
+                bytes(r.documentIdentifier), bytes(r.planningItemName), bytes(r.sourceFileName),
+                bytes(r.processDate), bytes(r.status), bytes(r.shipToCompany), bytes(r.shipFromCompany)};
+        List<String> list = r.cancelledOrdersList;
+        byte[][] items = new byte[list == null ? 0 : list.size()][];
+        int length = 4 + 4 + 4; // totalLines, ordersCancelled, list count
+        for (byte[] s : strings) {
+            length += 4 + (s == null ? 0 : s.length);
+        }
+        for (int i = 0; i < items.length; i++) {
+            items[i] = bytes(list.get(i));
+            length += 4 + (items[i] == null ? 0 : items[i].length);
+        }
+        int offset = end;
+        ensureCapacity((long) offset + 4 + length);
+
+        int p = offset;
+        buffer.putInt(p, length);
+        p += 4;
+        p = putString(p, strings[0]);
+        p = putString(p, strings[1]);
+        buffer.putInt(p, r.totalLines == null ? NULL_INT : r.totalLines);
+        buffer.putInt(p + 4, r.ordersCancelled == null ? NULL_INT : r.ordersCancelled);
+        buffer.putInt(p + 8, list == null ? -1 : items.length);
+        p += 12;
+        for (byte[] item : items) {
+            p = putString(p, item);
+        }
+        for (int i = 2; i < strings.length; i++) {
+            p = putString(p, strings[i]);
+        }
+        end = p;
+        buffer.putInt(4, end); // record is complete before the header points past it
+        index(offset, r.documentIdentifier, r.planningItemName);
+        return offset;
+    }
+
+    /** Flushes the mapping to disk. */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            ExceptionHandler.logOnly("PlanningItemHistory.close(" + file + ")", e);
+        }
+    }
+
+    // ---------------- Lookups ----------------
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /** Every record of the document, oldest first. */
+    public synchronized List<PlanningItemRecord> byDocument(String documentIdentifier) {
+        return read(byDocument.get(documentIdentifier));
+    }
+
+    /** Every record of the planning item, oldest first. */
+    public synchronized List<PlanningItemRecord> byPlanningItem(String planningItemName) {
+        return read(byPlanningItem.get(planningItemName));
+    }
+
+    /** Most recently appended record of the document, or null. */
+    public synchronized PlanningItemRecord latestForDocument(String documentIdentifier) {
+        Offsets o = byDocument.get(documentIdentifier);
+        return o == null ? null : read(o.values[o.size - 1]);
+    }
+
+    /** Status of the document's most recent record (only that field is decoded), or null. */
+    public synchronized String latestStatus(String documentIdentifier) {
+        Offsets o = byDocument.get(documentIdentifier);
+        if (o == null) {
+            return null;
+        }
+        int p = o.values[o.size - 1] + 4;
+        p = skipString(skipString(p));            // documentIdentifier, planningItemName
+        int items = buffer.getInt(p + 8);
+        p += 12;
+        for (int i = 0; i < items; i++) {
+            p = skipString(p);
+        }
+        p = skipString(skipString(p));            // sourceFileName, processDate
+        return getString(p);
+    }
+
+    /** Decodes the record at offset (as returned by append). */
+    public synchronized PlanningItemRecord read(int offset) {
+        PlanningItemRecord r = new PlanningItemRecord();
+        int p = offset + 4;
+        r.documentIdentifier = getString(p);
+        p = skipString(p);
+        r.planningItemName = getString(p);
+        p = skipString(p);
+        int totalLines = buffer.getInt(p);
+        int ordersCancelled = buffer.getInt(p + 4);
+        int items = buffer.getInt(p + 8);
+        p += 12;
+        r.totalLines = totalLines == NULL_INT ? null : totalLines;
+        r.ordersCancelled = ordersCancelled == NULL_INT ? null : ordersCancelled;
+        if (items >= 0) {
+            r.cancelledOrdersList = new ArrayList<>(items);
+            for (int i = 0; i < items; i++) {
+                r.cancelledOrdersList.add(getString(p));
+                p = skipString(p);
+            }
+        }
+        r.sourceFileName = getString(p);
+        p = skipString(p);
+        r.processDate = getString(p);
+        p = skipString(p);
+        r.status = getString(p);
+        p = skipString(p);
+        r.shipToCompany = getString(p);
+        p = skipString(p);
+        r.shipFromCompany = getString(p);
+        return r;
+    }
+
+    // ---------------- Internals ----------------
+
+    private List<PlanningItemRecord> read(Offsets o) {
+        if (o == null) {
+            return Collections.emptyList();
+        }
+        List<PlanningItemRecord> out = new ArrayList<>(o.size);
+        for (int i = 0; i < o.size; i++) {
+            out.add(read(o.values[i]));
+        }
+        return out;
+    }
+
+    private void reindex() {
+        int p = HEADER;
+        while (p < end) {
+            int length = end - p >= 4 ? buffer.getInt(p) : 0;
+            if (length <= 0 || length > end - p - 4) {
+                throw new IllegalStateException(file + ": record at offset " + p + " has length " + length
+                        + " but the written area ends at " + end + " (torn write?)");
+            }
+            int q = p + 4;
+            String documentIdentifier = getString(q);
+            String planningItemName = getString(skipString(q));
+            index(p, documentIdentifier, planningItemName);
+            p += 4 + length;
+        }
+    }
+
+    private void index(int offset, String documentIdentifier, String planningItemName) {
+        if (documentIdentifier != null) {
+            byDocument.computeIfAbsent(documentIdentifier, k -> new Offsets()).add(offset);
+        }
+        if (planningItemName != null) {
+            byPlanningItem.computeIfAbsent(planningItemName, k -> new Offsets()).add(offset);
+        }
+        count++;
+    }
+
+    private void ensureCapacity(long needed) {
+        if (needed <= buffer.capacity()) {
+            return;
+        }
+        if (needed > MAX_SIZE) {
+            throw new IllegalStateException("Planning item history " + file + " is full (2 GB)");
+        }
+        long capacity = Math.min(MAX_SIZE, Math.max(needed, (long) buffer.capacity() * 2));
+        try {
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity); // extends the file
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to grow planning item history " + file, e);
+        }
+    }
+
+    private int putString(int p, byte[] s) {
+        if (s == null) {
+            buffer.putInt(p, -1);
+            return p + 4;
+        }
+        buffer.putInt(p, s.length);
+        ByteBuffer view = buffer.duplicate(); // Java 8 has no absolute bulk put
+        view.position(p + 4);
+        view.put(s);
+        return p + 4 + s.length;
+    }
+
+    private String getString(int p) {
+        int length = buffer.getInt(p);
+        if (length < 0) {
+            return null;
+        }
+        byte[] b = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(p + 4);
+        view.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private int skipString(int p) {
+        int length = buffer.getInt(p);
+        return p + 4 + Math.max(0, length);
+    }
+
+    private static byte[] bytes(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,299 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.IntegrationDetails;
+import model.PlanningItemRecord;
+
+/**
+ * Column-oriented, compact in-memory form of many IntegrationDetails / PlanningItemRecords.
+ * - Low-cardinality strings (status, direction, docType, ship-to / ship-from company) are
+ *   dictionary-encoded: one int code per row, each distinct value stored once.
+ * - totalLines / ordersCancelled are primitive int columns with null bitmaps.
+ * - Cancelled order lists are packed into one shared array addressed by per-row start offsets.
+ * - Identifiers, names, file names and dates stay plain String columns (mostly unique).
+ * Rows convert back to either POJO; PlanningItemRecord rows have no direction / docType.
+ * Not thread-safe.
+ */
+public class RecordColumns {
+
+    /** String <-> int code; code -1 is null. */
+    static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return code < 0 ? null : values.get(code);
+        }
+
+        int code(String value) {
+            Integer code = value == null ? null : codes.get(value);
+            return code == null ? -1 : code;
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    private int size;
+
+    // plain strings
+    private String[] documentIdentifier;
+    private String[] planningItemName;
+    private String[] processDate;
+    private String[] fileName;
+
+    // dictionary-encoded strings
+    private final Dictionary statuses = new Dictionary();
+    private final Dictionary directions = new Dictionary();
+    private final Dictionary docTypes = new Dictionary();
+    private final Dictionary companies = new Dictionary(); // ship-to and ship-from share one dictionary
+    private int[] status;
+    private int[] direction;
+    private int[] docType;
+    private int[] shipToCompany;
+    private int[] shipFromCompany;
+
+    // primitive ints + null bitmaps
+    private int[] totalLines;
+    private int[] ordersCancelled;
+    private final BitSet totalLinesNull = new BitSet();
+    private final BitSet ordersCancelledNull = new BitSet();
+
+    // packed cancelled order lists: row i owns orders[listStart[i] .. listStart[i + 1])
+    private int[] listStart;
+    private String[] orders = new String[16];
+    private final BitSet listNull = new BitSet();
+
+    public RecordColumns() {
+        this(1024);
+    }
+
+    public RecordColumns(int initialCapacity) {
+        int c = Math.max(16, initialCapacity);
+        documentIdentifier = new String[c];
+        planningItemName = new String[c];
+        processDate = new String[c];
+        fileName = new String[c];
+        status = new int[c];
+        direction = new int[c];
+        docType = new int[c];
+        shipToCompany = new int[c];
+        shipFromCompany = new int[c];
+        totalLines = new int[c];
+        ordersCancelled = new int[c];
+        listStart = new int[c + 1];
+    }
+
+    // ---------------- From POJOs ----------------
+
+    /** Appends a row; returns its index. */
+    public int add(IntegrationDetails d) {
+        return add(d.documentIdentifier, d.planningItemName, d.processDate, d.fileName, d.status, d.direction,
+                d.docType, d.shipToCompany, d.shipFromCompany, d.totalLines, d.ordersCancelled, d.cancelledOrdersList);
+    }
+
+    /** Appends a row; returns its index. */
+    public int add(PlanningItemRecord r) {
+        return add(r.documentIdentifier, r.planningItemName, r.processDate, r.sourceFileName, r.status, null,
+                null, r.shipToCompany, r.shipFromCompany, r.totalLines, r.ordersCancelled, r.cancelledOrdersList);
+    }
+
+    private int add(String documentIdentifier, String planningItemName, String processDate, String fileName,
+            String status, String direction, String docType, String shipToCompany, String shipFromCompany,
+            Integer totalLines, Integer ordersCancelled, List<String> cancelledOrders) {
+        if (size == this.documentIdentifier.length) {
+            grow(size * 2);
+        }
+        int row = size;
+        this.documentIdentifier[row] = documentIdentifier;
+        this.planningItemName[row] = planningItemName;
+        this.processDate[row] = processDate;
+        this.fileName[row] = fileName;
+        this.status[row] = statuses.encode(status);
+        this.direction[row] = directions.encode(direction);
+        this.docType[row] = docTypes.encode(docType);
+        this.shipToCompany[row] = companies.encode(shipToCompany);
+        this.shipFromCompany[row] = companies.encode(shipFromCompany);
+        this.totalLines[row] = totalLines == null ? 0 : totalLines;
+        this.totalLinesNull.set(row, totalLines == null);
+        this.ordersCancelled[row] = ordersCancelled == null ? 0 : ordersCancelled;
+        this.ordersCancelledNull.set(row, ordersCancelled == null);
+
+        int start = listStart[row];
+        int count = cancelledOrders == null ? 0 : cancelledOrders.size();
+        if (start + count > orders.length) {
+            orders = Arrays.copyOf(orders, Math.max(orders.length * 2, start + count));
+        }
+        for (int i = 0; i < count; i++) {
+            orders[start + i] = cancelledOrders.get(i);
+        }
+        listStart[row + 1] = start + count;
+        listNull.set(row, cancelledOrders == null);
+        size++;
+        return row;
+    }
+
+    private void grow(int capacity) {
+        documentIdentifier = Arrays.copyOf(documentIdentifier, capacity);
+        planningItemName = Arrays.copyOf(planningItemName, capacity);
+        processDate = Arrays.copyOf(processDate, capacity);
+        fileName = Arrays.copyOf(fileName, capacity);
+        status = Arrays.copyOf(status, capacity);
+        direction = Arrays.copyOf(direction, capacity);
+        docType = Arrays.copyOf(docType, capacity);
+        shipToCompany = Arrays.copyOf(shipToCompany, capacity);
+        shipFromCompany = Arrays.copyOf(shipFromCompany, capacity);
+        totalLines = Arrays.copyOf(totalLines, capacity);
+        ordersCancelled = Arrays.copyOf(ordersCancelled, capacity);
+        listStart = Arrays.copyOf(listStart, capacity + 1);
+    }
+
+    /** Releases unused capacity once loading is done. */
+    public void trimToSize() {
+        grow(Math.max(1, size));
+        orders = Arrays.copyOf(orders, Math.max(1, listStart[size]));
+    }
+
+    // ---------------- To POJOs ----------------
+
+    public IntegrationDetails toIntegrationDetails(int row) {
+        check(row);
+        IntegrationDetails d = new IntegrationDetails();
+        d.documentIdentifier = documentIdentifier[row];
+        d.processDate = processDate[row];
+        d.direction = direction(row);
+        d.docType = docType(row);
+        d.status = status(row);
+        d.shipToCompany = shipToCompany(row);
+        d.shipFromCompany = shipFromCompany(row);
+        d.fileName = fileName[row];
+        d.planningItemName = planningItemName[row];
+        d.totalLines = totalLines(row);
+        d.ordersCancelled = ordersCancelled(row);
+        d.cancelledOrdersList = cancelledOrders(row);
+        return d;
+    }
+
+    public PlanningItemRecord toPlanningItemRecord(int row) {
+        check(row);
+        PlanningItemRecord r = new PlanningItemRecord();
+        r.documentIdentifier = documentIdentifier[row];
+        r.planningItemName = planningItemName[row];
+        r.totalLines = totalLines(row);
+        r.ordersCancelled = ordersCancelled(row);
+        r.cancelledOrdersList = cancelledOrders(row);
+        r.sourceFileName = fileName[row];
+        r.processDate = processDate[row];
+        r.status = status(row);
+        r.shipToCompany = shipToCompany(row);
+        r.shipFromCompany = shipFromCompany(row);
+        return r;
+    }
+
+    // ---------------- Column access (no POJO) ----------------
+
+    public int size() {
+        return size;
+    }
+
+    public String documentIdentifier(int row) {
+        check(row);
+        return documentIdentifier[row];
+    }
+
+    public String status(int row) {
+        check(row);
+        return statuses.decode(status[row]);
+    }
+
+    public String direction(int row) {
+        check(row);
+        return directions.decode(direction[row]);
+    }
+
+    public String docType(int row) {
+        check(row);
+        return docTypes.decode(docType[row]);
+    }
+
+    public String shipToCompany(int row) {
+        check(row);
+        return companies.decode(shipToCompany[row]);
+    }
+
+    public String shipFromCompany(int row) {
+        check(row);
+        return companies.decode(shipFromCompany[row]);
+    }
+
+    public Integer totalLines(int row) {
+        check(row);
+        return totalLinesNull.get(row) ? null : totalLines[row];
+    }
+
+    public Integer ordersCancelled(int row) {
+        check(row);
+        return ordersCancelledNull.get(row) ? null : ordersCancelled[row];
+    }
+
+    /** New list with the row's cancelled orders, or null if the row had none set. */
+    public List<String> cancelledOrders(int row) {
+        check(row);
+        if (listNull.get(row)) {
+            return null;
+        }
+        return new ArrayList<>(Arrays.asList(orders).subList(listStart[row], listStart[row + 1]));
+    }
+
+    /** Rows with the given status, compared by dictionary code (no string comparisons per row). */
+    public int countStatus(String value) {
+        int code = statuses.code(value);
+        if (value != null && code < 0) {
+            return 0;
+        }
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (status[i] == code) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Distinct values per dictionary column, e.g. {status=3, direction=2, ...}. */
+    public Map<String, Integer> dictionarySizes() {
+        Map<String, Integer> m = new LinkedHashMap<>();
+        m.put("status", statuses.size());
+        m.put("direction", directions.size());
+        m.put("docType", docTypes.size());
+        m.put("companies", companies.size());
+        return m;
+    }
+
+    private void check(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+    }
+}
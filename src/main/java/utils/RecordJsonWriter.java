@@ -0,0 +1,232 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+import model.IntegrationDetails;
+import model.PlanningItemRecord;
+
+/**
+ * Writes PlanningItemRecord / IntegrationDetails JSON straight into a reusable char buffer, with output
+ * identical to Methods.toJson (same field order, escaping and ", " list separator).
+ * - Strings are escaped in one pass; integers are written digit by digit; nothing is concatenated.
+ * - With a Writer the buffer is flushed to it in bufferSize chunks; without one the buffer grows and
+ *   holds the JSON until reset() (reuse one instance per thread).
+ * - IntegrationDetails is written as its PlanningItemRecord (Methods.toPlanningItemRecord), the persisted shape.
+ * Not thread-safe.
+ */
+public class RecordJsonWriter implements AutoCloseable {
+
+    private static final char[] MIN_INT = String.valueOf(Integer.MIN_VALUE).toCharArray();
+
+    private final Writer out;
+    private char[] buf;
+    private int pos;
+
+    /** In-memory mode: read the result with toString(), then reset(). */
+    public RecordJsonWriter() {
+        this(null, 512);
+    }
+
+    public RecordJsonWriter(Writer out) {
+        this(out, 8192);
+    }
+
+    public RecordJsonWriter(Writer out, int bufferSize) {
+        this.out = out;
+        this.buf = new char[Math.max(64, bufferSize)];
+    }
+
+    // ---------------- Records ----------------
+
+    public RecordJsonWriter write(PlanningItemRecord r) {
+        return object(r.documentIdentifier, r.planningItemName, r.totalLines, r.ordersCancelled, r.cancelledOrdersList,
+                r.sourceFileName, r.processDate, r.status, r.shipToCompany, r.shipFromCompany);
+    }
+
+    public RecordJsonWriter write(IntegrationDetails d) {
+        return object(d.documentIdentifier, d.planningItemName, d.totalLines, d.ordersCancelled, d.cancelledOrdersList,
+                d.fileName, d.processDate, d.status, d.shipToCompany, d.shipFromCompany);
+    }
+
+    /** Line separator for JSON Lines output. */
+    public RecordJsonWriter newLine() {
+        ensure(1);
+        buf[pos++] = '\n';
+        return this;
+    }
+
+    private RecordJsonWriter object(String documentIdentifier, String planningItemName, Integer totalLines,
+            Integer ordersCancelled, List<String> cancelledOrdersList, String sourceFileName, String processDate,
+            String status, String shipToCompany, String shipFromCompany) {
+        raw("{\"documentIdentifier\":");
+        string(documentIdentifier);
+        raw(",\"planningItemName\":");
+        string(planningItemName);
+        raw(",\"totalLines\":");
+        integer(totalLines);
+        raw(",\"ordersCancelled\":");
+        integer(ordersCancelled);
+        raw(",\"cancelledOrdersList\":[");
+        if (cancelledOrdersList != null) {
+            for (int i = 0; i < cancelledOrdersList.size(); i++) {
+                if (i > 0) raw(", ");
+                string(cancelledOrdersList.get(i));
+            }
+        }
+        raw("],\"sourceFileName\":");
+        string(sourceFileName);
+        raw(",\"processDate\":");
+        string(processDate);
+        raw(",\"status\":");
+        string(status);
+        raw(",\"shipToCompany\":");
+        string(shipToCompany);
+        raw(",\"shipFromCompany\":");
+        string(shipFromCompany);
+        raw("}");
+        return this;
+    }
+
+    // ---------------- Buffer ----------------
+
+    /** Writes buffered chars to the Writer (and flushes it). No-op in in-memory mode. */
+    public void flush() {
+        if (out == null) {
+            return;
+        }
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to flush JSON output", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close JSON output", e);
+            }
+        }
+    }
+
+    /** Clears the in-memory buffer (keeps its capacity). */
+    public void reset() {
+        pos = 0;
+    }
+
+    public int length() {
+        return pos;
+    }
+
+    /** JSON written since the last reset() (in-memory mode) or flush. */
+    @Override
+    public String toString() {
+        return new String(buf, 0, pos);
+    }
+
+    private void ensure(int n) {
+        if (pos + n <= buf.length) {
+            return;
+        }
+        if (out != null) {
+            drain();
+            if (n <= buf.length) {
+                return;
+            }
+        }
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + n));
+    }
+
+    private void drain() {
+        if (pos == 0) {
+            return;
+        }
+        try {
+            out.write(buf, 0, pos);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write JSON output", e);
+        }
+        pos = 0;
+    }
+
+    private void raw(String s) {
+        int n = s.length();
+        ensure(n);
+        s.getChars(0, n, buf, pos);
+        pos += n;
+    }
+
+    /** Quoted and escaped like Methods.jsonEscape (\\ " \n \r \t), or null. */
+    private void string(String s) {
+        if (s == null) {
+            raw("null");
+            return;
+        }
+        int n = s.length();
+        ensure(n * 2 + 2); // worst case: every char escaped
+        buf[pos++] = '"';
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\':
+                    buf[pos++] = '\\';
+                    buf[pos++] = '\\';
+                    break;
+                case '"':
+                    buf[pos++] = '\\';
+                    buf[pos++] = '"';
+                    break;
+                case '\n':
+                    buf[pos++] = '\\';
+                    buf[pos++] = 'n';
+                    break;
+                case '\r':
+                    buf[pos++] = '\\';
+                    buf[pos++] = 'r';
+                    break;
+                case '\t':
+                    buf[pos++] = '\\';
+                    buf[pos++] = 't';
+                    break;
+                default:
+                    buf[pos++] = c;
+            }
+        }
+        buf[pos++] = '"';
+    }
+
+    private void integer(Integer value) {
+        if (value == null) {
+            raw("null");
+            return;
+        }
+        int v = value;
+        ensure(11);
+        if (v == Integer.MIN_VALUE) {
+            System.arraycopy(MIN_INT, 0, buf, pos, MIN_INT.length);
+            pos += MIN_INT.length;
+            return;
+        }
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (int t = v; t >= 10; t /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        pos += digits;
+    }
+}
@@ -0,0 +1,329 @@
+package utils;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Saves an authenticated browser session (cookies + localStorage + sessionStorage) after a UI login
+ * and injects it into later sessions so they start logged in.
+ * - One snapshot per user and environment (URL host), kept in memory and in
+ *   resources/session/{host}__{user}.properties (git-ignored: it holds live session tokens).
+ * - A snapshot expires after session_snapshot_ttl_minutes or at its earliest cookie expiry.
+ * - restore() verifies the injected session with the caller's check and drops the snapshot when
+ *   the portal rejects it, so the caller falls back to a real login.
+ * - Only the portal's origin is captured: WebDriver exposes the cookies and storage of the page it is
+ *   on, not those of other origins (e.g. an SSO identity provider). A session that also needs state
+ *   on another origin is rejected by the restore check and the caller logs in through the UI; capture()
+ *   is skipped when the browser is not on the portal's origin.
+ */
+public class SessionStateStore {
+
+    static final String READ_STORAGE_SCRIPT =
+            "var s = window[arguments[0]], o = {};"
+            + "for (var i = 0; i < s.length; i++) { var k = s.key(i); o[k] = s.getItem(k); }"
+            + "return o;";
+    static final String WRITE_STORAGE_SCRIPT =
+            "var s = window[arguments[0]], o = arguments[1];"
+            + "for (var k in o) { s.setItem(k, o[k]); }";
+
+    private static volatile SessionStateStore shared;
+
+    private final Path directory;
+    private final long ttlMillis;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Captured session of one user on one environment.
+     */
+    public static class Snapshot {
+        public String origin;                 // scheme://host[:port] the state belongs to
+        public long capturedAt;
+        public long expiresAt;
+        public final List<Cookie> cookies = new ArrayList<>();
+        public final Map<String, String> localStorage = new LinkedHashMap<>();
+        public final Map<String, String> sessionStorage = new LinkedHashMap<>();
+
+        public boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    public SessionStateStore(Path directory, long ttlMinutes) {
+        this.directory = directory;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+    }
+
+    /**
+     * Store configured from config.properties, or null when session_snapshot_enabled is not true.
+     */
+    public static SessionStateStore shared() {
+        if (!Boolean.parseBoolean(ConfigReader.get("session_snapshot_enabled"))) {
+            return null;
+        }
+        SessionStateStore current = shared;
+        if (current == null) {
+            synchronized (SessionStateStore.class) {
+                current = shared;
+                if (current == null) {
+                    String ttl = ConfigReader.get("session_snapshot_ttl_minutes");
+                    current = new SessionStateStore(Paths.get("resources", "session"),
+                            ttl == null || ttl.trim().isEmpty() ? 30 : Long.parseLong(ttl.trim()));
+                    shared = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Captures the current (logged-in) state of the driver for user on the environment of url and persists it.
+     * @return the snapshot, or null when the browser is on another origin than url (nothing is saved)
+     */
+    public Snapshot capture(WebDriver driver, String user, String url) {
+        String current = driver.getCurrentUrl();
+        if (current == null || !origin(url).equalsIgnoreCase(safeOrigin(current))) {
+            Methods.sline("Not saving session for " + user + ": browser is on " + current + ", not " + origin(url));
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Snapshot s = new Snapshot();
+        s.origin = origin(url);
+        s.capturedAt = now;
+        s.expiresAt = now + ttlMillis;
+        for (Cookie c : driver.manage().getCookies()) {
+            s.cookies.add(c);
+            if (c.getExpiry() != null && c.getExpiry().getTime() < s.expiresAt) {
+                s.expiresAt = c.getExpiry().getTime();
+            }
+        }
+        s.localStorage.putAll(readStorage(driver, "localStorage"));
+        s.sessionStorage.putAll(readStorage(driver, "sessionStorage"));
+
+        String key = key(user, url);
+        snapshots.put(key, s);
+        try {
+            save(file(key), s);
+        } catch (Exception e) {
+            ExceptionHandler.logOnly("SessionStateStore.capture(" + key + ")", e);
+        }
+        return s;
+    }
+
+    /**
+     * Injects a saved session and opens url.
+     * @param isAuthenticated check run after navigation, e.g. "the login form is not shown"
+     * @return true when the driver is now logged in; false when there was no valid snapshot or the
+     *         portal rejected it (the driver is then cleared and ready for a UI login)
+     */
+    public boolean restore(WebDriver driver, String user, String url, Predicate<WebDriver> isAuthenticated) {
+        String key = key(user, url);
+        Snapshot s = snapshot(key);
+        if (s == null) {
+            return false;
+        }
+        try {
+            driver.get(s.origin + "/"); // cookies can only be set on a page of their domain
+            for (Cookie c : s.cookies) {
+                try {
+                    driver.manage().addCookie(c);
+                } catch (RuntimeException e) {
+                    ExceptionHandler.logOnly("SessionStateStore.restore cookie " + c.getName(), e);
+                }
+            }
+            writeStorage(driver, "localStorage", s.localStorage);
+            writeStorage(driver, "sessionStorage", s.sessionStorage);
+            driver.get(url);
+            if (isAuthenticated.test(driver)) {
+                Methods.sline("Restored saved session for " + user);
+                return true;
+            }
+        } catch (RuntimeException e) {
+            ExceptionHandler.logOnly("SessionStateStore.restore(" + key + ")", e);
+        }
+        Methods.sline("Saved session for " + user + " rejected, logging in");
+        invalidate(user, url);
+        clear(driver);
+        return false;
+    }
+
+    /** Drops the snapshot from memory and disk. */
+    public void invalidate(String user, String url) {
+        String key = key(user, url);
+        snapshots.remove(key);
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (Exception e) {
+            ExceptionHandler.logOnly("SessionStateStore.invalidate(" + key + ")", e);
+        }
+    }
+
+    /** Valid snapshot from memory, else from disk; expired ones are removed. */
+    Snapshot snapshot(String key) {
+        long now = System.currentTimeMillis();
+        Snapshot s = snapshots.get(key);
+        if (s == null) {
+            Path file = file(key);
+            if (!Files.exists(file)) {
+                return null;
+            }
+            try {
+                s = load(file);
+            } catch (Exception e) {
+                ExceptionHandler.logOnly("SessionStateStore.load(" + file + ")", e);
+                return null;
+            }
+            snapshots.putIfAbsent(key, s);
+        }
+        if (s.isExpired(now)) {
+            snapshots.remove(key, s);
+            try {
+                Files.deleteIfExists(file(key));
+            } catch (Exception ignored) {
+                // stale file is overwritten by the next capture
+            }
+            return null;
+        }
+        return s;
+    }
+
+    // ---------------- Browser state ----------------
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> readStorage(WebDriver driver, String storage) {
+        Map<String, String> out = new LinkedHashMap<>();
+        Object result = ((JavascriptExecutor) driver).executeScript(READ_STORAGE_SCRIPT, storage);
+        if (result instanceof Map) {
+            for (Map.Entry<String, Object> e : ((Map<String, Object>) result).entrySet()) {
+                out.put(e.getKey(), e.getValue() == null ? null : String.valueOf(e.getValue()));
+            }
+        }
+        return out;
+    }
+
+    private static void writeStorage(WebDriver driver, String storage, Map<String, String> values) {
+        if (!values.isEmpty()) {
+            ((JavascriptExecutor) driver).executeScript(WRITE_STORAGE_SCRIPT, storage, values);
+        }
+    }
+
+    private static void clear(WebDriver driver) {
+        try {
+            driver.manage().deleteAllCookies();
+            ((JavascriptExecutor) driver).executeScript(
+                    "try{window.localStorage.clear();}catch(e){} try{window.sessionStorage.clear();}catch(e){}");
+        } catch (RuntimeException e) {
+            ExceptionHandler.logOnly("SessionStateStore.clear", e);
+        }
+    }
+
+    // ---------------- Persistence ----------------
+
+    private static void save(Path file, Snapshot s) throws Exception {
+        Properties p = new Properties();
+        p.setProperty("origin", s.origin);
+        p.setProperty("capturedAt", String.valueOf(s.capturedAt));
+        p.setProperty("expiresAt", String.valueOf(s.expiresAt));
+        for (int i = 0; i < s.cookies.size(); i++) {
+            Cookie c = s.cookies.get(i);
+            String prefix = "cookie." + i + ".";
+            p.setProperty(prefix + "name", c.getName());
+            p.setProperty(prefix + "value", c.getValue());
+            p.setProperty(prefix + "path", c.getPath() == null ? "/" : c.getPath());
+            if (c.getDomain() != null) p.setProperty(prefix + "domain", c.getDomain());
+            if (c.getExpiry() != null) p.setProperty(prefix + "expiry", String.valueOf(c.getExpiry().getTime()));
+            if (c.getSameSite() != null) p.setProperty(prefix + "sameSite", c.getSameSite());
+            p.setProperty(prefix + "secure", String.valueOf(c.isSecure()));
+            p.setProperty(prefix + "httpOnly", String.valueOf(c.isHttpOnly()));
+        }
+        s.localStorage.forEach((k, v) -> { if (v != null) p.setProperty("local." + k, v); });
+        s.sessionStorage.forEach((k, v) -> { if (v != null) p.setProperty("session." + k, v); });
+
+        Files.createDirectories(file.getParent());
+        // unique temp file per writer (parallel captures of one key must not share it), same directory for the atomic move
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                p.store(w, "SessionStateStore snapshot (contains session tokens, do not commit)");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static Snapshot load(Path file) throws Exception {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            p.load(r);
+        }
+        Snapshot s = new Snapshot();
+        s.origin = p.getProperty("origin");
+        s.capturedAt = Long.parseLong(p.getProperty("capturedAt", "0"));
+        s.expiresAt = Long.parseLong(p.getProperty("expiresAt", "0"));
+        for (int i = 0; p.getProperty("cookie." + i + ".name") != null; i++) {
+            String prefix = "cookie." + i + ".";
+            String expiry = p.getProperty(prefix + "expiry");
+            s.cookies.add(new Cookie.Builder(p.getProperty(prefix + "name"), p.getProperty(prefix + "value"))
+                    .path(p.getProperty(prefix + "path"))
+                    .domain(p.getProperty(prefix + "domain"))
+                    .expiresOn(expiry == null ? null : new Date(Long.parseLong(expiry)))
+                    .sameSite(p.getProperty(prefix + "sameSite"))
+                    .isSecure(Boolean.parseBoolean(p.getProperty(prefix + "secure")))
+                    .isHttpOnly(Boolean.parseBoolean(p.getProperty(prefix + "httpOnly")))
+                    .build());
+        }
+        for (String name : p.stringPropertyNames()) {
+            if (name.startsWith("local.")) {
+                s.localStorage.put(name.substring("local.".length()), p.getProperty(name));
+            } else if (name.startsWith("session.")) {
+                s.sessionStorage.put(name.substring("session.".length()), p.getProperty(name));
+            }
+        }
+        return s;
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + ".properties");
+    }
+
+    static String key(String user, String url) {
+        String host = URI.create(url).getHost();
+        return (sanitize(host == null ? url : host) + "__" + sanitize(user)).toLowerCase();
+    }
+
+    static String origin(String url) {
+        URI uri = URI.create(url);
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    private static String safeOrigin(String url) {
+        try {
+            return origin(url);
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    private static String sanitize(String s) {
+        return s.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -1,12 +1,64 @@
 package utils;
 
 import org.w3c.dom.*;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+
+import model.ForecastDocumentSummary;
+
 import java.io.File;
 
 public class XMLDataExtraction {
 
+	/**
+	 * Parses the file once and collects every field the extract/print methods need.
+	 * Prints nothing; missing sections leave the corresponding fields null (or 0 for counts).
+	 * Results come from ForecastDocumentCache, so unchanged files are not parsed again.
+	 *
+	 * @param folder   Either "xml" or "testdata"
+	 * @param fileName The name of the XML file (e.g., "case07.xml")
+	 */
+	public static ForecastDocumentSummary summarize(String folder, String fileName) throws Exception {
+		String filePath = resolvePath(folder, fileName);
+		return ForecastDocumentCache.shared().summary(new File(filePath));
+	}
+
+	/**
+	 * Builds the summary from an already parsed document.
+	 */
+	public static ForecastDocumentSummary summarize(Document doc) {
+		ForecastDocumentSummary s = new ForecastDocumentSummary();
+
+		Element buyerInfo = partnerInfo(doc.getElementsByTagName("From").item(0));
+		s.buyerName = childText(buyerInfo, "RNetPartnerName");
+		s.buyerIdentifier = childText(buyerInfo, "RNetPartnerIdentifier");
+
+		Element sellerInfo = partnerInfo(doc.getElementsByTagName("To").item(0));
+		s.sellerName = childText(sellerInfo, "RNetPartnerName");
+		s.sellerIdentifier = childText(sellerInfo, "RNetPartnerIdentifier");
+
+		Element header = (Element) doc.getElementsByTagName("RNetHeader").item(0);
+		if (header != null) {
+			Element thisDocId = (Element) header.getElementsByTagName("ThisDocumentIdentifier").item(0);
+			s.documentIdentifier = childText(thisDocId, "DocumentIdentifier");
+		}
+
+		NodeList lineItems = doc.getElementsByTagName("RNetDemandForecastLineItem");
+		s.lineItemCount = lineItems.getLength();
+		for (int i = 0; i < lineItems.getLength(); i++) {
+			s.forecastCount += ((Element) lineItems.item(i)).getElementsByTagName("Forecast").getLength();
+		}
+
+		NodeList referenceInfoList = doc.getElementsByTagName("ReferenceInformation");
+		for (int i = 0; i < referenceInfoList.getLength(); i++) {
+			Element referenceElement = (Element) referenceInfoList.item(i);
+			if ("PurchaseOrderNumber".equals(referenceElement.getAttribute("ReferenceType"))) {
+				Element docRef = (Element) referenceElement.getElementsByTagName("DocumentReference").item(0);
+				s.purchaseOrderNumber = childText(docRef, "DocumentIdentifier");
+				break; // stop after first match
+			}
+		}
+		return s;
+	}
+
 	/**
 	 * Extracts the buyer information from the <From> section.
 	 *
@@ -15,16 +67,17 @@ public class XMLDataExtraction {
 	 */
 	public static void extractBuyerInfo(String folder, String fileName) {
 		try {
-			String filePath = resolvePath(folder, fileName);
-			Document doc = loadXmlDocument(filePath);
-			Node buyerNode = doc.getElementsByTagName("From").item(0);
-			printPartnerInfo(buyerNode, "Buyer");
+			extractBuyerInfo(summarize(folder, fileName));
 		} catch (Exception e) {
 			System.err.println("Error extracting buyer info:");
 			e.printStackTrace();
 		}
 	}
 
+	public static void extractBuyerInfo(ForecastDocumentSummary summary) {
+		printPartnerInfo("Buyer", summary.buyerName, summary.buyerIdentifier);
+	}
+
 	/**
 	 * Extracts the seller information from the <To> section.
 	 *
@@ -33,16 +86,17 @@ public class XMLDataExtraction {
 	 */
 	public static void extractSellerInfo(String folder, String fileName) {
 		try {
-			String filePath = resolvePath(folder, fileName);
-			Document doc = loadXmlDocument(filePath);
-			Node sellerNode = doc.getElementsByTagName("To").item(0);
-			printPartnerInfo(sellerNode, "Seller");
+			extractSellerInfo(summarize(folder, fileName));
 		} catch (Exception e) {
 			System.err.println("Error extracting seller info:");
 			e.printStackTrace();
 		}
 	}
 
+	public static void extractSellerInfo(ForecastDocumentSummary summary) {
+		printPartnerInfo("Seller", summary.sellerName, summary.sellerIdentifier);
+	}
+
 	/**
 	 * Resolves the actual file path based on folder keyword ("xml" or "testdata").
 	 */
@@ -68,30 +122,37 @@ public class XMLDataExtraction {
 	}
 
 	/**
-	 * Loads and parses the XML file.
+	 * Returns the first <RNetPartnerInformation> under a From/To node, or null.
 	 */
-	private static Document loadXmlDocument(String path) throws Exception {
-		File xmlFile = new File(path);
-		DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-		return dBuilder.parse(xmlFile);
+	private static Element partnerInfo(Node node) {
+		if (node == null || node.getNodeType() != Node.ELEMENT_NODE) {
+			return null;
+		}
+		return (Element) ((Element) node).getElementsByTagName("RNetPartnerInformation").item(0);
 	}
 
 	/**
-	 * Prints partner information from the node.
+	 * Text of the first descendant with the given tag, or null when either is missing.
 	 */
-	private static void printPartnerInfo(Node node, String label) {
-		if (node.getNodeType() == Node.ELEMENT_NODE) {
-			Element element = (Element) node;
-			Element info = (Element) element.getElementsByTagName("RNetPartnerInformation").item(0);
-
-			String name = info.getElementsByTagName("RNetPartnerName").item(0).getTextContent();
-			String identifier = info.getElementsByTagName("RNetPartnerIdentifier").item(0).getTextContent();
+	private static String childText(Element parent, String tagName) {
+		if (parent == null) {
+			return null;
+		}
+		Node child = parent.getElementsByTagName(tagName).item(0);
+		return child == null ? null : child.getTextContent();
+	}
 
-			System.out.println("[" + label + " Info]");
-			System.out.println("Name: " + name);
-			System.out.println("Identifier: " + identifier);
+	/**
+	 * Prints partner information.
+	 */
+	private static void printPartnerInfo(String label, String name, String identifier) {
+		if (name == null && identifier == null) {
+			System.out.println(label + " info not found in the document.");
+			return;
 		}
+		System.out.println("[" + label + " Info]");
+		System.out.println("Name: " + name);
+		System.out.println("Identifier: " + identifier);
 	}
 
 	/**
@@ -102,25 +163,22 @@ public class XMLDataExtraction {
 	 */
 	public static void extractDocumentIdentifierFromHeader(String folder, String fileName) {
 		try {
-			String filePath = resolvePath(folder, fileName);
-			Document doc = loadXmlDocument(filePath);
-
-			NodeList headerList = doc.getElementsByTagName("RNetHeader");
-			if (headerList.getLength() > 0) {
-				Element headerElement = (Element) headerList.item(0);
-				Element thisDocId = (Element) headerElement.getElementsByTagName("ThisDocumentIdentifier").item(0);
-				String identifier = thisDocId.getElementsByTagName("DocumentIdentifier").item(0).getTextContent();
-				System.out.println("[Document Identifier from Header]");
-				System.out.println("Identifier: " + identifier);
-			} else {
-				System.out.println("RNetHeader not found in the document.");
-			}
+			extractDocumentIdentifierFromHeader(summarize(folder, fileName));
 		} catch (Exception e) {
 			System.err.println("Error extracting DocumentIdentifier from RNetHeader:");
 			e.printStackTrace();
 		}
 	}
 
+	public static void extractDocumentIdentifierFromHeader(ForecastDocumentSummary summary) {
+		if (summary.documentIdentifier != null) {
+			System.out.println("[Document Identifier from Header]");
+			System.out.println("Identifier: " + summary.documentIdentifier);
+		} else {
+			System.out.println("RNetHeader not found in the document.");
+		}
+	}
+
 	/**
 	 * Counts the number of <Forecast> elements under the main forecast line item.
 	 *
@@ -129,26 +187,18 @@ public class XMLDataExtraction {
 	 */
 	public static void countForecastLineItems(String folder, String fileName) {
 		try {
-			String filePath = resolvePath(folder, fileName);
-			Document doc = loadXmlDocument(filePath);
-
-			NodeList forecastList = doc.getElementsByTagName("RNetDemandForecastLineItem");
-
-			int totalForecasts = 0;
-			for (int i = 0; i < forecastList.getLength(); i++) {
-				Element lineItem = (Element) forecastList.item(i);
-				NodeList forecasts = lineItem.getElementsByTagName("Forecast");
-				totalForecasts += forecasts.getLength();
-			}
-
-			System.out.println("[Forecast Count]");
-			System.out.println("Total Forecast entries: " + totalForecasts);
+			countForecastLineItems(summarize(folder, fileName));
 		} catch (Exception e) {
 			System.err.println("Error counting Forecast entries:");
 			e.printStackTrace();
 		}
 	}
 
+	public static void countForecastLineItems(ForecastDocumentSummary summary) {
+		System.out.println("[Forecast Count]");
+		System.out.println("Total Forecast entries: " + summary.forecastCount);
+	}
+
 	/**
 	 * Extracts the PO number from
 	 * <ReferenceInformation ReferenceType="PurchaseOrderNumber">.
@@ -156,47 +206,31 @@ public class XMLDataExtraction {
 	 * @param folder   Either "xml" or "testdata"
 	 * @param fileName XML file name (e.g., "case07.xml")
 	 */
-	/**
-	 * @param folder
-	 * @param fileName
-	 */
-	/**
-	 * @param folder
-	 * @param fileName
-	 */
 	public static void extractPurchaseOrderNumber(String folder, String fileName) {
 		try {
-			String filePath = resolvePath(folder, fileName);
-			Document doc = loadXmlDocument(filePath);
-
-			NodeList referenceInfoList = doc.getElementsByTagName("ReferenceInformation");
-
-			for (int i = 0; i < referenceInfoList.getLength(); i++) {
-				Element referenceElement = (Element) referenceInfoList.item(i);
-				String refType = referenceElement.getAttribute("ReferenceType");
-
-				if ("PurchaseOrderNumber".equals(refType)) {
-					Element docRef = (Element) referenceElement.getElementsByTagName("DocumentReference").item(0);
-					String documentId = docRef.getElementsByTagName("DocumentIdentifier").item(0).getTextContent();
-					System.out.println("[PO Number]");
-					System.out.println("DocumentIdentifier: " + documentId);
-					return; // stop after first match
-				}
-			}
-
-			System.out.println("No PurchaseOrderNumber found.");
+			extractPurchaseOrderNumber(summarize(folder, fileName));
 		} catch (Exception e) {
 			System.err.println("Error extracting PurchaseOrderNumber:");
 			e.printStackTrace();
 		}
 	}
 
-	public static void main(String[] args) {
-		extractBuyerInfo("xml", "case07.xml");
-		extractSellerInfo("xml", "case07.xml");
-		extractDocumentIdentifierFromHeader("xml", "case07.xml");
-		countForecastLineItems("xml", "case07.xml");
-		extractPurchaseOrderNumber("xml", "case07.xml");
+	public static void extractPurchaseOrderNumber(ForecastDocumentSummary summary) {
+		if (summary.purchaseOrderNumber != null) {
+			System.out.println("[PO Number]");
+			System.out.println("DocumentIdentifier: " + summary.purchaseOrderNumber);
+		} else {
+			System.out.println("No PurchaseOrderNumber found.");
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		ForecastDocumentSummary summary = summarize("xml", "case07.xml");
+		extractBuyerInfo(summary);
+		extractSellerInfo(summary);
+		extractDocumentIdentifierFromHeader(summary);
+		countForecastLineItems(summary);
+		extractPurchaseOrderNumber(summary);
 
 	}
 }
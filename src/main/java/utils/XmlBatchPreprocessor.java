@@ -0,0 +1,182 @@
+package utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rewrites every template in resources/xml into resources/testdata in parallel.
+ * - Runs the StAX date rewrite on a dedicated fork-join pool.
+ * - Keeps a small manifest (source SHA-256 + target date per file) in the target folder and skips
+ *   files whose content and target date are unchanged since the last run and whose output still exists.
+ */
+public class XmlBatchPreprocessor {
+
+    static final String MANIFEST_NAME = ".preprocess-manifest.properties";
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /**
+     * Preprocesses resources/xml into resources/testdata for today's date using all cores.
+     */
+    public static Result preprocessAll() {
+        return preprocess(Paths.get("resources", "xml"), Paths.get("resources", "testdata"),
+                LocalDate.now(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Preprocesses every *.xml in sourceDir into targetDir/{name}_updated.xml.
+     */
+    public static Result preprocess(Path sourceDir, Path targetDir, LocalDate baseDate, int parallelism) {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(targetDir);
+            Path manifestPath = targetDir.resolve(MANIFEST_NAME);
+            Map<String, String> previous = loadManifest(manifestPath);
+            Map<String, String> current = new ConcurrentHashMap<>();
+            String targetDate = baseDate.format(formatter);
+
+            List<Path> sources = new ArrayList<>();
+            try (DirectoryStream<Path> dir = Files.newDirectoryStream(sourceDir, "*.xml")) {
+                for (Path p : dir) {
+                    sources.add(p);
+                }
+            }
+
+            Result result = new Result();
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+            try {
+                pool.submit(() -> sources.parallelStream().forEach(source -> {
+                    String name = source.getFileName().toString();
+                    Path target = targetDir.resolve(outputName(name));
+                    try {
+                        String stamp = sha256Hex(source) + "|" + targetDate;
+                        if (stamp.equals(previous.get(name)) && Files.exists(target)) {
+                            current.put(name, stamp);
+                            result.skipped.incrementAndGet();
+                            return;
+                        }
+                        rewrite(source, target, baseDate);
+                        current.put(name, stamp);
+                        result.rewritten.incrementAndGet();
+                    } catch (Exception e) {
+                        result.failed.incrementAndGet();
+                        ExceptionHandler.logOnly("preprocess " + source, e);
+                    }
+                })).get();
+            } finally {
+                pool.shutdown();
+            }
+
+            saveManifest(manifestPath, current);
+            result.elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            Methods.sline("Preprocessed " + result);
+            return result;
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to preprocess XML folder: " + sourceDir, e);
+        }
+    }
+
+    static String outputName(String fileName) {
+        String fileBaseName = fileName.contains(".")
+                ? fileName.substring(0, fileName.lastIndexOf('.'))
+                : fileName;
+        return fileBaseName + "_updated.xml";
+    }
+
+    /** Writes to a temp file first so a failed rewrite never leaves a truncated target behind. */
+    private static void rewrite(Path source, Path target, LocalDate baseDate) throws Exception {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(source));
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                XmlDateUpdater.rewriteStreaming(in, out, baseDate);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String sha256Hex(Path file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(new BufferedInputStream(Files.newInputStream(file)), digest)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // digest is updated as the stream is consumed
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static Map<String, String> loadManifest(Path manifestPath) {
+        Map<String, String> out = new ConcurrentHashMap<>();
+        if (!Files.exists(manifestPath)) {
+            return out;
+        }
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8)) {
+            props.load(reader);
+            for (String key : props.stringPropertyNames()) {
+                out.put(key, props.getProperty(key));
+            }
+        } catch (Exception e) {
+            ExceptionHandler.logOnly("read manifest " + manifestPath + " (rebuilding)", e);
+            out.clear();
+        }
+        return out;
+    }
+
+    private static void saveManifest(Path manifestPath, Map<String, String> entries) throws Exception {
+        Properties props = new Properties();
+        props.putAll(entries);
+        Path tmp = manifestPath.resolveSibling(MANIFEST_NAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            props.store(writer, "XmlBatchPreprocessor: file=sha256|targetDate");
+        }
+        Files.move(tmp, manifestPath, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Outcome counters for one preprocessing run.
+     */
+    public static class Result {
+        public final AtomicInteger rewritten = new AtomicInteger();
+        public final AtomicInteger skipped = new AtomicInteger();
+        public final AtomicInteger failed = new AtomicInteger();
+        public long elapsedMillis;
+
+        @Override
+        public String toString() {
+            return "rewritten=" + rewritten + ", skipped=" + skipped + ", failed=" + failed + ", " + elapsedMillis + "ms";
+        }
+    }
+
+    public static void main(String[] args) {
+        preprocessAll();
+    }
+}
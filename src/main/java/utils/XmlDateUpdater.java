@@ -1,20 +1,38 @@
 package utils;
 
 import org.w3c.dom.*;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.*;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 
 public class XmlDateUpdater {
 
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
 
+    private static final String INDENT = "  ";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
     /**
      * Updates forecast dates in the given XML file and writes output to resources/testdata/{fileName}_updated.xml.
      * @param fileName the input file name, e.g. "case07.xml"
@@ -22,46 +40,46 @@ public class XmlDateUpdater {
      */
     public static String updateForecastDates(String fileName) {
         try {
-            String inputPath = "resources/xml/" + fileName;
-
-            String fileBaseName = fileName.contains(".")
-                    ? fileName.substring(0, fileName.lastIndexOf('.'))
-                    : fileName;
-            String outputFileName = fileBaseName + "_updated.xml";
-            String outputPath = "resources/testdata/" + outputFileName;
+            String inputPath = inputPath(fileName);
+            String outputPath = outputPath(fileName);
 
             File inputFile = new File(inputPath);
             File outputFile = new File(outputPath);
             outputFile.getParentFile().mkdirs();
 
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document doc = builder.parse(inputFile);
-            doc.getDocumentElement().normalize();
-
-            removeEmptyTextNodes(doc.getDocumentElement());
-
-            NodeList dateTimeRanges = doc.getElementsByTagName("DateTimeRange");
-            for (int i = 0; i < dateTimeRanges.getLength(); i++) {
-                Node node = dateTimeRanges.item(i);
-                if (node.getNodeType() == Node.ELEMENT_NODE) {
-                    Element dateRange = (Element) node;
-                    String newDate = LocalDate.now().plusDays(i).format(formatter);
-                    dateRange.getElementsByTagName("FromDateTime").item(0).setTextContent(newDate);
-                    dateRange.getElementsByTagName("ToDateTime").item(0).setTextContent(newDate);
-                }
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+                rewriteDom(inputFile, out, LocalDate.now());
             }
 
-            Transformer transformer = TransformerFactory.newInstance().newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-            transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-            transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
-            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            Methods.sline("Updated XML written to: " + outputPath);
+            return outputPath;
 
-            DOMSource source = new DOMSource(doc);
-            StreamResult result = new StreamResult(outputFile);
-            transformer.transform(source, result);
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to process XML: " + fileName, e);
+        }
+    }
+
+    /**
+     * Streaming variant of {@link #updateForecastDates(String)}.
+     * Rewrites FromDateTime/ToDateTime and strips whitespace-only text in a single
+     * forward StAX pass, so memory stays flat regardless of the number of Forecasts.
+     * The output is byte-identical to the DOM path.
+     * @param fileName the input file name, e.g. "case07.xml"
+     * @return the output file path (for upload usage)
+     */
+    public static String updateForecastDatesStreaming(String fileName) {
+        try {
+            String inputPath = inputPath(fileName);
+            String outputPath = outputPath(fileName);
+
+            File outputFile = new File(outputPath);
+            outputFile.getParentFile().mkdirs();
+
+            try (InputStream in = new BufferedInputStream(new FileInputStream(inputPath));
+                 OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+                rewriteStreaming(in, out, LocalDate.now());
+            }
 
             Methods.sline("Updated XML written to: " + outputPath);
             return outputPath;
@@ -72,6 +90,109 @@ public class XmlDateUpdater {
         }
     }
 
+    /**
+     * In-memory variant: rewrites the dates and returns the document bytes (UTF-8) without touching
+     * resources/testdata. Set write_updated_xml=true in config.properties to also keep the
+     * {fileName}_updated.xml copy on disk for debugging.
+     * @param fileName the input file name, e.g. "case07.xml"
+     * @return the updated document, byte-identical to what updateForecastDates writes
+     */
+    public static byte[] updateForecastDatesToBytes(String fileName) {
+        return updateForecastDatesToBytes(fileName, LocalDate.now());
+    }
+
+    static byte[] updateForecastDatesToBytes(String fileName, LocalDate baseDate) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        updateForecastDates(fileName, out, baseDate);
+        byte[] bytes = out.toByteArray();
+
+        if (Boolean.parseBoolean(ConfigReader.get("write_updated_xml"))) {
+            String outputPath = outputPath(fileName);
+            try {
+                File outputFile = new File(outputPath);
+                outputFile.getParentFile().mkdirs();
+                Files.write(outputFile.toPath(), bytes);
+                Methods.sline("Updated XML written to: " + outputPath);
+            } catch (Exception e) {
+                ExceptionHandler.logOnly("write debug copy " + outputPath, e);
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Streams the updated document into the given sink (not closed).
+     * @param fileName the input file name, e.g. "case07.xml"
+     */
+    public static void updateForecastDates(String fileName, OutputStream out) {
+        updateForecastDates(fileName, out, LocalDate.now());
+    }
+
+    static void updateForecastDates(String fileName, OutputStream out, LocalDate baseDate) {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(inputPath(fileName)))) {
+            rewriteStreaming(in, out, baseDate);
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to process XML: " + fileName, e);
+        }
+    }
+
+    private static String inputPath(String fileName) {
+        return "resources/xml/" + fileName;
+    }
+
+    private static String outputPath(String fileName) {
+        String fileBaseName = fileName.contains(".")
+                ? fileName.substring(0, fileName.lastIndexOf('.'))
+                : fileName;
+        return "resources/testdata/" + fileBaseName + "_updated.xml";
+    }
+
+    /**
+     * DOM rewrite: parse, strip whitespace, set the i-th DateTimeRange to baseDate + i days, pretty-print.
+     * One-shot: parses the file directly instead of through ForecastDocumentCache, so nothing is retained.
+     */
+    static void rewriteDom(File inputFile, OutputStream out, LocalDate baseDate) throws Exception {
+        Document doc = XmlEngine.parse(inputFile);
+        doc.getDocumentElement().normalize();
+
+        removeEmptyTextNodes(doc.getDocumentElement());
+
+        NodeList dateTimeRanges = doc.getElementsByTagName("DateTimeRange");
+        for (int i = 0; i < dateTimeRanges.getLength(); i++) {
+            Node node = dateTimeRanges.item(i);
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                Element dateRange = (Element) node;
+                String newDate = baseDate.plusDays(i).format(formatter);
+                dateRange.getElementsByTagName("FromDateTime").item(0).setTextContent(newDate);
+                dateRange.getElementsByTagName("ToDateTime").item(0).setTextContent(newDate);
+            }
+        }
+
+        Transformer transformer = XmlEngine.indentingTransformer();
+
+        DOMSource source = new DOMSource(doc);
+        StreamResult result = new StreamResult(out);
+        transformer.transform(source, result);
+    }
+
+    /**
+     * StAX rewrite: same output as {@link #rewriteDom} in one forward pass.
+     * Only the current start tag and the current text run are held in memory.
+     * Documents are expected to have element-only or text-only content (no mixed content),
+     * which is what RNetDemandForecast uses.
+     */
+    static void rewriteStreaming(InputStream in, OutputStream out, LocalDate baseDate) throws Exception {
+        XMLStreamReader reader = XmlEngine.createStreamReader(in);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            new StreamingRewriter(writer, baseDate).rewrite(reader);
+            writer.flush();
+        } finally {
+            reader.close();
+        }
+    }
+
     private static void removeEmptyTextNodes(Node node) {
         NodeList children = node.getChildNodes();
         for (int i = children.getLength() - 1; i >= 0; i--) {
@@ -83,7 +204,245 @@ public class XmlDateUpdater {
             }
         }
     }
-    
+
+    /**
+     * Event-driven serializer that mirrors the indenting identity Transformer:
+     * sorted attributes, self-closing empty elements, text-only elements on one line,
+     * everything else indented by two spaces per level.
+     */
+    private static final class StreamingRewriter {
+
+        private final Writer out;
+        private final LocalDate baseDate;
+        private final StringBuilder text = new StringBuilder();
+
+        private int depth;
+        private boolean startTagOpen;       // "<name attrs" written, '>' still pending
+        private boolean hasChildElements;    // current element had a nested child before its end tag
+        private boolean lastWasText;
+
+        private int dateTimeRangeIndex = -1;
+        private int dateTimeRangeDepth = -1;
+        private boolean fromDone;
+        private boolean toDone;
+        private int replaceDepth = -1;       // depth of the From/ToDateTime being replaced
+
+        StreamingRewriter(Writer out, LocalDate baseDate) {
+            this.out = out;
+            this.baseDate = baseDate;
+        }
+
+        void rewrite(XMLStreamReader reader) throws Exception {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>");
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (replaceDepth >= 0 && event != XMLStreamConstants.END_ELEMENT
+                        && event != XMLStreamConstants.START_ELEMENT) {
+                    continue; // content of a date element is replaced wholesale
+                }
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (replaceDepth >= 0) {
+                            depth++;
+                            continue;
+                        }
+                        startElement(reader);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (replaceDepth >= 0 && depth > replaceDepth) {
+                            depth--;
+                            continue;
+                        }
+                        endElement(reader);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.SPACE:
+                    case XMLStreamConstants.ENTITY_REFERENCE:
+                        if (depth > 0) {
+                            text.append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.CDATA:
+                        flushText();
+                        closeStartTag();
+                        out.write("<![CDATA[");
+                        out.write(reader.getText());
+                        out.write("]]>");
+                        lastWasText = true;
+                        break;
+                    case XMLStreamConstants.COMMENT:
+                        flushText();
+                        closeStartTag();
+                        newLine(depth);
+                        out.write("<!--");
+                        out.write(reader.getText());
+                        out.write("-->");
+                        hasChildElements = true;
+                        break;
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                        flushText();
+                        closeStartTag();
+                        newLine(depth);
+                        out.write("<?");
+                        out.write(reader.getPITarget());
+                        String data = reader.getPIData();
+                        if (data != null && !data.isEmpty()) {
+                            out.write(' ');
+                            out.write(data);
+                        }
+                        out.write("?>");
+                        hasChildElements = true;
+                        break;
+                    case XMLStreamConstants.END_DOCUMENT:
+                        out.write(LINE_SEPARATOR);
+                        break;
+                    default:
+                        // DTD, entity declarations etc. are not serialized by the DOM path either
+                }
+            }
+        }
+
+        private void startElement(XMLStreamReader reader) throws Exception {
+            flushText();
+            closeStartTag();
+            String name = qName(reader.getPrefix(), reader.getLocalName());
+
+            newLine(depth);
+            out.write('<');
+            out.write(name);
+
+            int count = reader.getAttributeCount();
+            if (count > 0) {
+                List<String[]> attrs = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    attrs.add(new String[] {
+                            qName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                            reader.getAttributeValue(i) });
+                }
+                // Xerces keeps attributes sorted by name; the serializer writes them in that order
+                Collections.sort(attrs, (a, b) -> a[0].compareTo(b[0]));
+                for (String[] attr : attrs) {
+                    out.write(' ');
+                    out.write(attr[0]);
+                    out.write("=\"");
+                    escapeAttribute(attr[1]);
+                    out.write('"');
+                }
+            }
+
+            startTagOpen = true;
+            hasChildElements = false;
+            lastWasText = false;
+            depth++;
+
+            if ("DateTimeRange".equals(name) && dateTimeRangeDepth < 0) {
+                dateTimeRangeIndex++;
+                dateTimeRangeDepth = depth;
+                fromDone = false;
+                toDone = false;
+            } else if (dateTimeRangeDepth >= 0) {
+                boolean from = !fromDone && "FromDateTime".equals(name);
+                boolean to = !toDone && "ToDateTime".equals(name);
+                if (from || to) {
+                    fromDone |= from;
+                    toDone |= to;
+                    replaceDepth = depth;
+                }
+            }
+        }
+
+        private void endElement(XMLStreamReader reader) throws Exception {
+            if (replaceDepth >= 0 && depth == replaceDepth) {
+                text.setLength(0);
+                text.append(baseDate.plusDays(dateTimeRangeIndex).format(formatter));
+                replaceDepth = -1;
+            }
+            if (depth == dateTimeRangeDepth) {
+                dateTimeRangeDepth = -1;
+            }
+            flushText();
+            depth--;
+            String name = qName(reader.getPrefix(), reader.getLocalName());
+            if (startTagOpen) {
+                out.write("/>");
+                startTagOpen = false;
+            } else {
+                if (hasChildElements && !lastWasText) {
+                    newLine(depth);
+                }
+                out.write("</");
+                out.write(name);
+                out.write('>');
+            }
+            // the parent now has at least one child element; its end tag goes on a new line
+            hasChildElements = true;
+            lastWasText = false;
+        }
+
+        /** Emits buffered text unless it is whitespace-only (the DOM path removes those nodes). */
+        private void flushText() throws Exception {
+            if (text.length() == 0) {
+                return;
+            }
+            if (!text.toString().trim().isEmpty()) {
+                closeStartTag();
+                escapeText(text);
+                lastWasText = true;
+            }
+            text.setLength(0);
+        }
+
+        private void closeStartTag() throws Exception {
+            if (startTagOpen) {
+                out.write('>');
+                startTagOpen = false;
+            }
+        }
+
+        private void newLine(int level) throws Exception {
+            if (lastWasText) {
+                return;
+            }
+            out.write(LINE_SEPARATOR);
+            for (int i = 0; i < level; i++) {
+                out.write(INDENT);
+            }
+        }
+
+        private void escapeText(CharSequence s) throws Exception {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '&': out.write("&amp;"); break;
+                    case '<': out.write("&lt;"); break;
+                    case '>': out.write("&gt;"); break;
+                    case '\r': out.write("&#13;"); break;
+                    default: out.write(c);
+                }
+            }
+        }
+
+        private void escapeAttribute(String s) throws Exception {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '&': out.write("&amp;"); break;
+                    case '<': out.write("&lt;"); break;
+                    case '>': out.write("&gt;"); break;
+                    case '"': out.write("&quot;"); break;
+                    case '\n': out.write("&#10;"); break;
+                    case '\r': out.write("&#13;"); break;
+                    case '\t': out.write("&#9;"); break;
+                    default: out.write(c);
+                }
+            }
+        }
+
+        private static String qName(String prefix, String localName) {
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+    }
+
     public static void main(String args[]) {
     	updateForecastDates("case07.xml");
     }
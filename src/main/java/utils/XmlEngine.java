@@ -0,0 +1,122 @@
+package utils;
+
+import org.w3c.dom.Document;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Shared XML parser/transformer engine for the XML utilities.
+ * - Factories are looked up once per thread instead of on every call.
+ * - Builders and transformers are confined to their thread and reset before each use,
+ *   so parallel TestNG threads never share a non thread-safe instance.
+ * - Every parser gets the same feature configuration.
+ */
+public final class XmlEngine {
+
+    private static final ThreadLocal<DocumentBuilder> builders = ThreadLocal.withInitial(XmlEngine::newDocumentBuilder);
+    private static final ThreadLocal<Transformer> transformers = ThreadLocal.withInitial(XmlEngine::newTransformer);
+    private static final ThreadLocal<XMLInputFactory> inputFactories = ThreadLocal.withInitial(XmlEngine::newInputFactory);
+    private static final ThreadLocal<XMLOutputFactory> outputFactories = ThreadLocal.withInitial(XMLOutputFactory::newInstance);
+
+    private XmlEngine() {
+    }
+
+    /**
+     * Parses a file with this thread's DocumentBuilder.
+     */
+    public static Document parse(File file) throws Exception {
+        DocumentBuilder builder = builders.get();
+        builder.reset();
+        return builder.parse(file);
+    }
+
+    /**
+     * Parses a stream with this thread's DocumentBuilder.
+     */
+    public static Document parse(InputStream in) throws Exception {
+        DocumentBuilder builder = builders.get();
+        builder.reset();
+        return builder.parse(in);
+    }
+
+    /**
+     * Returns this thread's Transformer configured for indented UTF-8 output (2 spaces).
+     * The instance is reset on every call; do not hand it to another thread.
+     */
+    public static Transformer indentingTransformer() {
+        Transformer transformer = transformers.get();
+        transformer.reset();
+        applyIndentedOutput(transformer);
+        return transformer;
+    }
+
+    /**
+     * Creates a non namespace-aware, non-coalescing StAX reader over the stream.
+     */
+    public static XMLStreamReader createStreamReader(InputStream in) throws XMLStreamException {
+        return inputFactories.get().createXMLStreamReader(in);
+    }
+
+    /**
+     * Creates a UTF-8 StAX writer over the stream. The stream is not closed with the writer.
+     */
+    public static XMLStreamWriter createStreamWriter(OutputStream out) throws XMLStreamException {
+        return outputFactories.get().createXMLStreamWriter(out, "UTF-8");
+    }
+
+    // ---------------- Factory configuration ----------------
+
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(false);
+            factory.setXIncludeAware(false);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("Failed to configure DocumentBuilder", e);
+        }
+    }
+
+    private static Transformer newTransformer() {
+        try {
+            TransformerFactory factory = TransformerFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return factory.newTransformer();
+        } catch (TransformerConfigurationException e) {
+            throw new RuntimeException("Failed to configure Transformer", e);
+        }
+    }
+
+    private static XMLInputFactory newInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        return factory;
+    }
+
+    private static void applyIndentedOutput(Transformer transformer) {
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "no");
+        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+    }
+}
@@ -0,0 +1,418 @@
+package utils;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative field extraction for forecast XML.
+ * - Field paths are compiled once; all fields are evaluated together in a single StAX pass.
+ * - Path syntax (a small XPath subset):
+ *     /A/B/C          child steps from the document root
+ *     //C  or  A//C   C at any depth below
+ *     *               any element name
+ *     B[@Type='PO']   attribute equality predicate on a step
+ *     .../@Agency     last step selects an attribute instead of the element text
+ * - Scalar fields keep the first match (trimmed text), repeated fields keep every match in
+ *   document order, count fields only count matches.
+ * - Compiled extractors are immutable and can be shared across threads.
+ *
+ * Example:
+ *   XmlFieldExtractor fields = XmlFieldExtractor.compile(
+ *       Field.scalar("documentIdentifier", "/RNetDemandForecast/RNetHeader/ThisDocumentIdentifier/DocumentIdentifier"),
+ *       Field.repeated("lineNumbers", "//RNetDemandForecastLineItem/Forecast/LineNumber"),
+ *       Field.count("forecasts", "//RNetDemandForecastLineItem/Forecast"));
+ *   XmlFieldExtractor.Values v = fields.extract(new File("resources/xml/orderCreate01.xml"));
+ */
+public final class XmlFieldExtractor {
+
+    public enum Kind { SCALAR, REPEATED, COUNT }
+
+    /**
+     * A named path plus how its matches are collected.
+     */
+    public static final class Field {
+        final String name;
+        final String path;
+        final Kind kind;
+
+        private Field(String name, String path, Kind kind) {
+            this.name = name;
+            this.path = path;
+            this.kind = kind;
+        }
+
+        public static Field scalar(String name, String path) {
+            return new Field(name, path, Kind.SCALAR);
+        }
+
+        public static Field repeated(String name, String path) {
+            return new Field(name, path, Kind.REPEATED);
+        }
+
+        public static Field count(String name, String path) {
+            return new Field(name, path, Kind.COUNT);
+        }
+    }
+
+    /** Fields that make up a ForecastDocumentSummary plus per-forecast line numbers and quantities. */
+    public static final XmlFieldExtractor FORECAST_FIELDS = compile(
+            Field.scalar("documentIdentifier", "/RNetDemandForecast/RNetHeader/ThisDocumentIdentifier/DocumentIdentifier"),
+            Field.scalar("buyerName", "/RNetDemandForecast/RNetHeader/From/RNetPartnerInformation/RNetPartnerName"),
+            Field.scalar("buyerIdentifier", "/RNetDemandForecast/RNetHeader/From/RNetPartnerInformation/RNetPartnerIdentifier"),
+            Field.scalar("sellerName", "/RNetDemandForecast/RNetHeader/To/RNetPartnerInformation/RNetPartnerName"),
+            Field.scalar("sellerIdentifier", "/RNetDemandForecast/RNetHeader/To/RNetPartnerInformation/RNetPartnerIdentifier"),
+            Field.scalar("purchaseOrderNumber", "//ReferenceInformation[@ReferenceType='PurchaseOrderNumber']/DocumentReference/DocumentIdentifier"),
+            Field.count("lineItemCount", "//RNetDemandForecastLineItem"),
+            Field.count("forecastCount", "//RNetDemandForecastLineItem/Forecast"),
+            Field.repeated("lineNumbers", "//RNetDemandForecastLineItem/Forecast/LineNumber"),
+            Field.repeated("quantities", "//RNetDemandForecastLineItem/Forecast//MeasurementValue"));
+
+    private static final class Step {
+        final String name;          // element name or "*"
+        final boolean descendant;   // preceded by "//"
+        final String attrName;      // predicate [@attrName='attrValue'], or null
+        final String attrValue;
+
+        Step(String name, boolean descendant, String attrName, String attrValue) {
+            this.name = name;
+            this.descendant = descendant;
+            this.attrName = attrName;
+            this.attrValue = attrValue;
+        }
+
+        boolean matches(String element, XMLStreamReader r) {
+            if (!"*".equals(name) && !name.equals(element)) {
+                return false;
+            }
+            return attrName == null || attrValue.equals(r.getAttributeValue(null, attrName));
+        }
+    }
+
+    private final Field[] fields;
+    private final Step[][] steps;
+    private final String[] selectAttribute; // per field; null selects element text
+    private final boolean hasOpenEndedFields;
+
+    private XmlFieldExtractor(Field[] fields) {
+        this.fields = fields;
+        this.steps = new Step[fields.length][];
+        this.selectAttribute = new String[fields.length];
+        boolean openEnded = false;
+        for (int i = 0; i < fields.length; i++) {
+            compilePath(i, fields[i].path);
+            openEnded |= fields[i].kind != Kind.SCALAR;
+        }
+        this.hasOpenEndedFields = openEnded;
+    }
+
+    /**
+     * Compiles the field list. Throws IllegalArgumentException on malformed paths or duplicate names.
+     */
+    public static XmlFieldExtractor compile(Field... fields) {
+        List<String> names = new ArrayList<>();
+        for (Field f : fields) {
+            if (names.contains(f.name)) {
+                throw new IllegalArgumentException("Duplicate field name: " + f.name);
+            }
+            names.add(f.name);
+        }
+        return new XmlFieldExtractor(fields.clone());
+    }
+
+    private void compilePath(int field, String path) {
+        if (path == null || !path.startsWith("/")) {
+            throw new IllegalArgumentException("Path must start with '/': " + path);
+        }
+        List<Step> out = new ArrayList<>();
+        int i = 0;
+        while (i < path.length()) {
+            boolean descendant = path.startsWith("//", i);
+            i += descendant ? 2 : 1;
+            int end = nextSeparator(path, i);
+            String token = path.substring(i, end);
+            i = end;
+            if (token.isEmpty()) {
+                throw new IllegalArgumentException("Empty step in path: " + path);
+            }
+            if (token.startsWith("@")) {
+                if (i != path.length() || descendant) {
+                    throw new IllegalArgumentException("Attribute selector must be the last child step: " + path);
+                }
+                selectAttribute[field] = token.substring(1);
+                break;
+            }
+            out.add(parseStep(token, descendant, path));
+        }
+        if (out.isEmpty()) {
+            throw new IllegalArgumentException("Path selects no element: " + path);
+        }
+        steps[field] = out.toArray(new Step[0]);
+    }
+
+    private static int nextSeparator(String path, int from) {
+        int depth = 0;
+        for (int i = from; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '[') depth++;
+            else if (c == ']') depth--;
+            else if (c == '/' && depth == 0) return i;
+        }
+        return path.length();
+    }
+
+    private static Step parseStep(String token, boolean descendant, String path) {
+        int bracket = token.indexOf('[');
+        if (bracket < 0) {
+            return new Step(token, descendant, null, null);
+        }
+        String predicate = token.substring(bracket + 1, token.length() - 1).trim();
+        int eq = predicate.indexOf('=');
+        if (!token.endsWith("]") || !predicate.startsWith("@") || eq < 0) {
+            throw new IllegalArgumentException("Unsupported predicate in path: " + path);
+        }
+        String value = predicate.substring(eq + 1).trim();
+        if (value.length() < 2 || (value.charAt(0) != '\'' && value.charAt(0) != '"')
+                || value.charAt(value.length() - 1) != value.charAt(0)) {
+            throw new IllegalArgumentException("Predicate value must be quoted: " + path);
+        }
+        return new Step(token.substring(0, bracket), descendant,
+                predicate.substring(1, eq).trim(), value.substring(1, value.length() - 1));
+    }
+
+    // ---------------- Evaluation ----------------
+
+    public Values extract(File file) throws Exception {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return extract(in);
+        }
+    }
+
+    public Values extract(byte[] xml) throws Exception {
+        return extract(new ByteArrayInputStream(xml));
+    }
+
+    /**
+     * Evaluates every field in one forward pass over the stream (not closed).
+     */
+    public Values extract(InputStream in) throws Exception {
+        Values values = new Values(fields);
+        XMLStreamReader r = XmlEngine.createStreamReader(in);
+        try {
+            evaluate(r, values);
+        } finally {
+            r.close();
+        }
+        return values;
+    }
+
+    /**
+     * NFA over the element stack: each open element carries the (field, step) states still alive below it.
+     * States are packed as field << 16 | step.
+     */
+    private void evaluate(XMLStreamReader r, Values values) throws Exception {
+        int[][] stack = new int[16][];
+        int[] stackSize = new int[16];
+        int depth = 0;
+
+        int[] initial = new int[fields.length];
+        for (int f = 0; f < fields.length; f++) {
+            initial[f] = f << 16;
+        }
+        stack[0] = initial;
+        stackSize[0] = initial.length;
+
+        boolean[] scalarDone = new boolean[fields.length];
+        int scalarsLeft = 0;
+        for (Field f : fields) {
+            if (f.kind == Kind.SCALAR) scalarsLeft++;
+        }
+
+        // text capture: one buffer per field being captured, keyed by the depth that opened it
+        StringBuilder[] capture = new StringBuilder[fields.length];
+        int[] captureDepth = new int[fields.length];
+        Arrays.fill(captureDepth, -1);
+        int capturing = 0;
+
+        while (r.hasNext()) {
+            int event = r.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String element = r.getLocalName();
+                int[] parent = stack[depth];
+                int parentSize = stackSize[depth];
+                depth++;
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                    stackSize = Arrays.copyOf(stackSize, depth * 2);
+                }
+                int[] next = stack[depth];
+                if (next == null || next.length < parentSize * 2) {
+                    next = new int[Math.max(8, parentSize * 2)];
+                    stack[depth] = next;
+                }
+                int n = 0;
+                for (int k = 0; k < parentSize; k++) {
+                    int state = parent[k];
+                    int f = state >>> 16;
+                    int s = state & 0xFFFF;
+                    if (scalarDone[f]) {
+                        continue;
+                    }
+                    Step step = steps[f][s];
+                    if (step.descendant) {
+                        next[n++] = state; // keep looking deeper
+                    }
+                    if (!step.matches(element, r)) {
+                        continue;
+                    }
+                    if (s + 1 < steps[f].length) {
+                        next[n++] = (f << 16) | (s + 1);
+                        continue;
+                    }
+                    // full match
+                    Field field = fields[f];
+                    if (field.kind == Kind.COUNT) {
+                        values.counts[f]++;
+                    } else if (selectAttribute[f] != null) {
+                        String v = r.getAttributeValue(null, selectAttribute[f]);
+                        if (v != null) {
+                            values.add(f, v);
+                            if (field.kind == Kind.SCALAR) {
+                                scalarDone[f] = true;
+                                scalarsLeft--;
+                            }
+                        }
+                    } else if (captureDepth[f] < 0) {
+                        capture[f] = capture[f] == null ? new StringBuilder() : capture[f];
+                        capture[f].setLength(0);
+                        captureDepth[f] = depth;
+                        capturing++;
+                    }
+                }
+                stackSize[depth] = dedupe(next, n);
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (capturing > 0) {
+                    for (int f = 0; f < fields.length; f++) {
+                        if (captureDepth[f] == depth) {
+                            captureDepth[f] = -1;
+                            capturing--;
+                            values.add(f, capture[f].toString().trim());
+                            if (fields[f].kind == Kind.SCALAR && !scalarDone[f]) {
+                                scalarDone[f] = true;
+                                scalarsLeft--;
+                            }
+                        }
+                    }
+                }
+                depth--;
+                if (!hasOpenEndedFields && scalarsLeft == 0 && capturing == 0) {
+                    return; // everything found; skip the rest of the document
+                }
+            } else if (capturing > 0 && (event == XMLStreamConstants.CHARACTERS
+                    || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE)) {
+                String text = r.getText();
+                for (int f = 0; f < fields.length; f++) {
+                    if (captureDepth[f] >= 0) {
+                        capture[f].append(text);
+                    }
+                }
+            }
+        }
+    }
+
+    /** "//" states can be carried and re-added by the same parent; keep each state once. */
+    private static int dedupe(int[] states, int n) {
+        if (n < 2) {
+            return n;
+        }
+        Arrays.sort(states, 0, n);
+        int w = 1;
+        for (int i = 1; i < n; i++) {
+            if (states[i] != states[w - 1]) {
+                states[w++] = states[i];
+            }
+        }
+        return w;
+    }
+
+    /**
+     * Extracted values by field name.
+     */
+    public static final class Values {
+        private final Field[] fields;
+        private final Object[] data;   // String for SCALAR, List<String> for REPEATED
+        private final int[] counts;
+
+        private Values(Field[] fields) {
+            this.fields = fields;
+            this.data = new Object[fields.length];
+            this.counts = new int[fields.length];
+        }
+
+        @SuppressWarnings("unchecked")
+        private void add(int f, String value) {
+            if (fields[f].kind == Kind.SCALAR) {
+                if (data[f] == null) data[f] = value;
+            } else {
+                if (data[f] == null) data[f] = new ArrayList<String>();
+                ((List<String>) data[f]).add(value);
+                counts[f]++;
+            }
+        }
+
+        /** First match of a scalar field, or null. */
+        public String get(String name) {
+            int f = index(name);
+            if (fields[f].kind != Kind.SCALAR) {
+                throw new IllegalArgumentException("Not a scalar field: " + name);
+            }
+            return (String) data[f];
+        }
+
+        /** All matches of a repeated field, in document order. */
+        @SuppressWarnings("unchecked")
+        public List<String> getAll(String name) {
+            int f = index(name);
+            if (fields[f].kind != Kind.REPEATED) {
+                throw new IllegalArgumentException("Not a repeated field: " + name);
+            }
+            return data[f] == null ? Collections.<String>emptyList() : Collections.unmodifiableList((List<String>) data[f]);
+        }
+
+        /** Number of matches (count and repeated fields; 0 or 1 for scalars). */
+        public int count(String name) {
+            int f = index(name);
+            return fields[f].kind == Kind.SCALAR ? (data[f] == null ? 0 : 1) : counts[f];
+        }
+
+        /** All values as a map: String, List&lt;String&gt; or Integer (count fields). */
+        public Map<String, Object> asMap() {
+            Map<String, Object> out = new LinkedHashMap<>();
+            for (int f = 0; f < fields.length; f++) {
+                switch (fields[f].kind) {
+                    case SCALAR: out.put(fields[f].name, data[f]); break;
+                    case REPEATED: out.put(fields[f].name, getAll(fields[f].name)); break;
+                    default: out.put(fields[f].name, counts[f]);
+                }
+            }
+            return out;
+        }
+
+        private int index(String name) {
+            for (int f = 0; f < fields.length; f++) {
+                if (fields[f].name.equals(name)) return f;
+            }
+            throw new IllegalArgumentException("Unknown field: " + name);
+        }
+    }
+}
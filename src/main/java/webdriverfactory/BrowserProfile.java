@@ -0,0 +1,249 @@
+package webdriverfactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.MutableCapabilities;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.chromium.ChromiumOptions;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+
+import utils.ConfigReader;
+
+/**
+ * Named launch settings for a browser session.
+ * - Built-in profiles: "default" (headed, normal load, as before), "headless" and "throughput"
+ *   (headless, eager load, no images/extensions, fixed window, shared disk cache).
+ * - Custom profiles come from config.properties:
+ *   browser_profile.&lt;name&gt;=headless, pageLoad=eager, images=false, extensions=false, window=1366x768, diskCache=true
+ * - Selected with "browser:profile" (TestNG browser parameter, e.g. chrome:throughput) or browser_profile in config.
+ */
+public class BrowserProfile {
+
+    public String name;
+    public boolean headless;
+    public PageLoadStrategy pageLoadStrategy = PageLoadStrategy.NORMAL;
+    public boolean images = true;
+    public boolean extensions = true;
+    public int windowWidth;          // 0 = maximize
+    public int windowHeight;
+    public boolean sharedDiskCache;  // one cache directory for every session of this run
+
+    private static volatile File runCacheDir;
+
+    /**
+     * Resolves the profile for a browser parameter such as "chrome" or "chrome:throughput".
+     * Without an explicit profile, browser_profile from config is used ("default" if unset).
+     */
+    public static BrowserProfile forBrowser(String browser) {
+        int colon = browser.indexOf(':');
+        String name = colon >= 0 ? browser.substring(colon + 1) : ConfigReader.get("browser_profile");
+        return named(name == null || name.trim().isEmpty() ? "default" : name.trim());
+    }
+
+    /** Browser part of a "browser:profile" parameter, lower-cased. */
+    public static String browserName(String browser) {
+        int colon = browser.indexOf(':');
+        return (colon >= 0 ? browser.substring(0, colon) : browser).trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static BrowserProfile named(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        String custom = ConfigReader.get("browser_profile." + key);
+        if (custom != null) {
+            return parse(key, custom);
+        }
+        switch (key) {
+            case "default":
+                return parse(key, "");
+            case "headless":
+                return parse(key, "headless, window=1920x1080");
+            case "throughput":
+                return parse(key, "headless, pageLoad=eager, images=false, extensions=false, window=1366x768, diskCache=true");
+            default:
+                throw new IllegalArgumentException("Unknown browser profile: " + name);
+        }
+    }
+
+    /**
+     * Parses a comma-separated profile spec: "headless", "pageLoad=normal|eager|none", "images=true|false",
+     * "extensions=true|false", "window=WxH", "diskCache=true|false".
+     */
+    static BrowserProfile parse(String name, String spec) {
+        BrowserProfile p = new BrowserProfile();
+        p.name = name;
+        for (String part : spec.split(",")) {
+            String token = part.trim();
+            if (token.isEmpty()) {
+                continue;
+            }
+            int eq = token.indexOf('=');
+            String key = (eq < 0 ? token : token.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+            String value = eq < 0 ? "true" : token.substring(eq + 1).trim();
+            switch (key) {
+                case "headless":
+                    p.headless = Boolean.parseBoolean(value);
+                    break;
+                case "pageload":
+                    p.pageLoadStrategy = PageLoadStrategy.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "images":
+                    p.images = Boolean.parseBoolean(value);
+                    break;
+                case "extensions":
+                    p.extensions = Boolean.parseBoolean(value);
+                    break;
+                case "window":
+                    String[] wh = value.toLowerCase(Locale.ROOT).split("x");
+                    if (wh.length != 2) {
+                        throw new IllegalArgumentException("Bad window size in profile " + name + ": " + value);
+                    }
+                    p.windowWidth = Integer.parseInt(wh[0].trim());
+                    p.windowHeight = Integer.parseInt(wh[1].trim());
+                    break;
+                case "diskcache":
+                    p.sharedDiskCache = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown setting '" + key + "' in browser profile " + name);
+            }
+        }
+        return p;
+    }
+
+    // ---------------- Options per browser ----------------
+
+    public ChromeOptions chromeOptions() {
+        return chromium(new ChromeOptions());
+    }
+
+    public EdgeOptions edgeOptions() {
+        return chromium(new EdgeOptions());
+    }
+
+    private <T extends ChromiumOptions<?>> T chromium(T options) {
+        options.setPageLoadStrategy(pageLoadStrategy);
+        if (headless) {
+            options.addArguments("--headless=new");
+        }
+        if (!extensions) {
+            options.addArguments("--disable-extensions");
+        }
+        if (windowWidth > 0) {
+            options.addArguments("--window-size=" + windowWidth + "," + windowHeight);
+        }
+        if (sharedDiskCache) {
+            options.addArguments("--disk-cache-dir=" + runCacheDir().getAbsolutePath());
+        }
+        if (!images) {
+            Map<String, Object> prefs = new HashMap<>();
+            prefs.put("profile.managed_default_content_settings.images", 2);
+            options.setExperimentalOption("prefs", prefs);
+        }
+        return options;
+    }
+
+    public FirefoxOptions firefoxOptions() {
+        FirefoxOptions options = new FirefoxOptions();
+        options.setPageLoadStrategy(pageLoadStrategy);
+        if (headless) {
+            options.addArguments("-headless");
+        }
+        if (windowWidth > 0) {
+            options.addArguments("--width=" + windowWidth, "--height=" + windowHeight);
+        }
+        if (!images) {
+            options.addPreference("permissions.default.image", 2);
+        }
+        if (!extensions) {
+            options.addPreference("extensions.enabledScopes", 0);
+        }
+        if (sharedDiskCache) {
+            options.addPreference("browser.cache.disk.parent_directory", runCacheDir().getAbsolutePath());
+        }
+        return options;
+    }
+
+    /** Options for the given browser name ("chrome", "firefox", "edge"). */
+    public MutableCapabilities optionsFor(String browser) {
+        switch (browserName(browser)) {
+            case "chrome":
+                return chromeOptions();
+            case "firefox":
+                return firefoxOptions();
+            case "edge":
+                return edgeOptions();
+            default:
+                throw new IllegalArgumentException("Browser not supported: " + browser);
+        }
+    }
+
+    /**
+     * Sizes the window: the profile's fixed size, or maximize when none is set (previous behaviour).
+     */
+    public void sizeWindow(WebDriver driver) {
+        if (windowWidth > 0) {
+            driver.manage().window().setSize(new Dimension(windowWidth, windowHeight));
+        } else {
+            driver.manage().window().maximize();
+        }
+    }
+
+    /** Per-run cache directory, created on first use and removed on exit. */
+    static File runCacheDir() {
+        File dir = runCacheDir;
+        if (dir == null) {
+            synchronized (BrowserProfile.class) {
+                dir = runCacheDir;
+                if (dir == null) {
+                    try {
+                        dir = Files.createTempDirectory("fc-browser-cache").toFile();
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to create browser disk cache directory", e);
+                    }
+                    File created = dir;
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteTree(created), "browser-cache-cleanup"));
+                    runCacheDir = dir;
+                }
+            }
+        }
+        return dir;
+    }
+
+    private static void deleteTree(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        file.delete();
+    }
+
+    /** Settings as a map, for logging and benchmark reports. */
+    public Map<String, Object> describe() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("name", name);
+        m.put("headless", headless);
+        m.put("pageLoad", pageLoadStrategy);
+        m.put("images", images);
+        m.put("extensions", extensions);
+        m.put("window", windowWidth > 0 ? windowWidth + "x" + windowHeight : "maximized");
+        m.put("diskCache", sharedDiskCache);
+        return Collections.unmodifiableMap(m);
+    }
+
+    @Override
+    public String toString() {
+        return "BrowserProfile" + describe();
+    }
+}
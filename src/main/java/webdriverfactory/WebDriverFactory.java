@@ -1,39 +1,146 @@
 package webdriverfactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.firefox.FirefoxDriver;
 
+import utils.ConfigReader;
+
 public class WebDriverFactory {
     private static final ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
+    private static volatile WebDriverPool pool;
+    private static volatile Boolean poolEnabled; // null: driver_pool_enabled from config
 
+    /**
+     * Binds a driver to the current thread. With driver_pool_enabled=true in config.properties the
+     * driver is leased from the shared warm pool instead of being launched.
+     */
     public static void initDriver(String browser) {
-        WebDriver driver;
-        switch (browser.toLowerCase()) {
+        WebDriver driver = isPoolEnabled()
+                ? pool().lease(browser, intConfig("driver_pool_lease_timeout_seconds", 120))
+                : createDriver(browser);
+        driverThreadLocal.set(driver);
+    }
+
+    /**
+     * Pre-launches driver_pool_warm_up sessions (default driver_pool_size) of the browser in parallel, so
+     * the first leases do not pay for browser startup. No-op unless pooling is enabled.
+     */
+    public static void warmUpPool(String browser) {
+        if (isPoolEnabled()) {
+            pool().warmUp(browser, intConfig("driver_pool_warm_up", intConfig("driver_pool_size", 2)));
+        }
+    }
+
+    /**
+     * Launches a new browser session, bypassing the pool. The browser may carry a profile
+     * ("chrome:throughput"); otherwise browser_profile from config applies (see BrowserProfile).
+     */
+    public static WebDriver createDriver(String browser) {
+        BrowserProfile profile = BrowserProfile.forBrowser(browser);
+        switch (BrowserProfile.browserName(browser)) {
             case "chrome":
-                driver = new ChromeDriver();
-                break;
+                return new ChromeDriver(profile.chromeOptions());
             case "firefox":
-                driver = new FirefoxDriver();
-                break;
+                return new FirefoxDriver(profile.firefoxOptions());
             case "edge":
-                driver = new EdgeDriver();
-                break;
+                return new EdgeDriver(profile.edgeOptions());
             default:
                 throw new IllegalArgumentException("Browser not supported: " + browser);
         }
-        driverThreadLocal.set(driver);
     }
 
     public static WebDriver getDriver() {
         return driverThreadLocal.get();
     }
 
+    /**
+     * Unbinds the current thread's driver. Pooled sessions are reset and returned, others are quit.
+     */
     public static void quitDriver() {
-        if (driverThreadLocal.get() != null) {
-            driverThreadLocal.get().quit();
+        WebDriver driver = driverThreadLocal.get();
+        if (driver != null) {
             driverThreadLocal.remove();
+            quitDriver(driver);
         }
     }
+
+    /**
+     * Ends a session started on another thread (e.g. a class-scoped driver torn down by a different
+     * TestNG worker). Pooled sessions are reset and returned, others are quit.
+     */
+    public static void quitDriver(WebDriver driver) {
+        if (driver == driverThreadLocal.get()) {
+            driverThreadLocal.remove();
+        }
+        WebDriverPool current = pool;
+        if (current != null && current.isLeased(driver)) {
+            current.release(driver);
+        } else {
+            driver.quit();
+        }
+    }
+
+    /**
+     * Shared pool, created on first use from config (driver_pool_size, driver_pool_max_uses,
+     * driver_pool_reset_origins) and shut down with the JVM. Creating it does not enable pooling.
+     */
+    public static WebDriverPool pool() {
+        WebDriverPool current = pool;
+        if (current == null) {
+            synchronized (WebDriverFactory.class) {
+                current = pool;
+                if (current == null) {
+                    current = new WebDriverPool(intConfig("driver_pool_size", 2),
+                            intConfig("driver_pool_max_uses", 20), WebDriverFactory::createDriver,
+                            listConfig("driver_pool_reset_origins"));
+                    WebDriverPool created = current;
+                    Runtime.getRuntime().addShutdownHook(new Thread(created::shutdown, "driver-pool-shutdown"));
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Replaces the shared pool (tests inject one with a fake launcher); the old one is shut down. */
+    static synchronized void setPool(WebDriverPool replacement) {
+        WebDriverPool old = pool;
+        pool = replacement;
+        if (old != null && old != replacement) {
+            old.shutdown();
+        }
+    }
+
+    /** Overrides driver_pool_enabled (tests); null restores the config value. */
+    static void setPoolEnabled(Boolean enabled) {
+        poolEnabled = enabled;
+    }
+
+    private static boolean isPoolEnabled() {
+        Boolean enabled = poolEnabled;
+        return enabled != null ? enabled : Boolean.parseBoolean(ConfigReader.get("driver_pool_enabled"));
+    }
+
+    private static List<String> listConfig(String key) {
+        List<String> values = new ArrayList<>();
+        String value = ConfigReader.get(key);
+        if (value != null) {
+            for (String v : value.split(",")) {
+                if (!v.trim().isEmpty()) {
+                    values.add(v.trim());
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int intConfig(String key, int defaultValue) {
+        String value = ConfigReader.get(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
 }
@@ -0,0 +1,298 @@
+package webdriverfactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chromium.HasCdp;
+
+import utils.ExceptionHandler;
+
+/**
+ * Bounded pool of pre-launched browser sessions, one sub-pool per browser type.
+ * - lease() hands out an idle, healthy session (or launches one while under the bound, or waits).
+ * - release() resets the session and makes it idle again: every window is replaced by one fresh tab, the
+ *   cookies of all domains are cleared and storage is cleared for every origin the windows showed plus
+ *   the configured resetOrigins (e.g. the SSO / IdP hosts). Only Chrome and Edge (CDP) can do this;
+ *   other sessions are quit on release instead of being reused.
+ * - Sessions are quit and replaced after maxUses leases or when a liveness check fails.
+ * - Each session is owned by exactly one lease at a time.
+ */
+public class WebDriverPool {
+
+    private final int maxSessionsPerBrowser;
+    private final int maxUses;
+    private final Function<String, WebDriver> launcher;
+    private final Collection<String> resetOrigins;
+
+    private final Map<String, BlockingQueue<PooledSession>> idle = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> live = new ConcurrentHashMap<>();
+    private final Map<WebDriver, PooledSession> leased = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * @param maxSessionsPerBrowser upper bound of live sessions per browser type
+     * @param maxUses               leases after which a session is quit and replaced
+     * @param launcher              starts a new driver for a browser name (e.g. WebDriverFactory::createDriver)
+     */
+    public WebDriverPool(int maxSessionsPerBrowser, int maxUses, Function<String, WebDriver> launcher) {
+        this(maxSessionsPerBrowser, maxUses, launcher, Collections.emptyList());
+    }
+
+    /**
+     * @param resetOrigins origins ("https://idp.example") whose storage is cleared on every release, in
+     *                     addition to the origins open when the session is released
+     */
+    public WebDriverPool(int maxSessionsPerBrowser, int maxUses, Function<String, WebDriver> launcher,
+            Collection<String> resetOrigins) {
+        if (maxSessionsPerBrowser <= 0 || maxUses <= 0) {
+            throw new IllegalArgumentException("Pool size and max uses must be positive");
+        }
+        this.maxSessionsPerBrowser = maxSessionsPerBrowser;
+        this.maxUses = maxUses;
+        this.launcher = launcher;
+        this.resetOrigins = new ArrayList<>(resetOrigins);
+    }
+
+    /**
+     * Launches sessions up to count (bounded by the pool size) so the first leases are warm.
+     */
+    public void warmUp(String browser, int count) {
+        String key = key(browser);
+        List<Thread> starters = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (!reserveSlot(key)) {
+                break;
+            }
+            Thread t = new Thread(() -> {
+                try {
+                    queue(key).offer(new PooledSession(key, launcher.apply(key)));
+                } catch (RuntimeException e) {
+                    live(key).decrementAndGet();
+                    ExceptionHandler.logOnly("WebDriverPool.warmUp(" + key + ")", e);
+                }
+            }, "driver-warmup-" + key + "-" + i);
+            t.start();
+            starters.add(t);
+        }
+        for (Thread t : starters) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Leases a healthy session, waiting up to timeoutSeconds when the pool is exhausted.
+     */
+    public WebDriver lease(String browser, int timeoutSeconds) {
+        String key = key(browser);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        while (!closed) {
+            PooledSession session = queue(key).poll();
+            if (session == null && reserveSlot(key)) {
+                try {
+                    session = new PooledSession(key, launcher.apply(key));
+                } catch (RuntimeException e) {
+                    live(key).decrementAndGet();
+                    throw e;
+                }
+            }
+            if (session == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("No " + key + " session available within " + timeoutSeconds + "s");
+                }
+                try {
+                    // short waits: a discarded session frees a slot without anything being offered
+                    session = queue(key).poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for a " + key + " session", e);
+                }
+                if (session == null) {
+                    continue;
+                }
+            }
+            if (!isAlive(session.driver)) {
+                discard(session);
+                continue;
+            }
+            session.uses++;
+            leased.put(session.driver, session);
+            return session.driver;
+        }
+        throw new IllegalStateException("WebDriverPool is closed");
+    }
+
+    /**
+     * Returns a leased session. It is reset and reused, or quit when worn out or broken.
+     */
+    public void release(WebDriver driver) {
+        PooledSession session = leased.remove(driver);
+        if (session == null) {
+            throw new IllegalArgumentException("Driver was not leased from this pool");
+        }
+        if (closed || session.uses >= maxUses || !reset(session.driver, resetOrigins)) {
+            discard(session);
+            return;
+        }
+        queue(session.browser).offer(session);
+    }
+
+    /** True when the driver was handed out by this pool and not yet released. */
+    public boolean isLeased(WebDriver driver) {
+        return leased.containsKey(driver);
+    }
+
+    public int idleCount(String browser) {
+        return queue(key(browser)).size();
+    }
+
+    public int liveCount(String browser) {
+        return live(key(browser)).get();
+    }
+
+    /**
+     * Quits every idle session and every session released from now on.
+     */
+    public void shutdown() {
+        closed = true;
+        for (BlockingQueue<PooledSession> q : idle.values()) {
+            PooledSession s;
+            while ((s = q.poll()) != null) {
+                discard(s);
+            }
+        }
+    }
+
+    // ---------------- Internals ----------------
+
+    /** Liveness: a dead or crashed session throws on the cheapest remote call. */
+    static boolean isAlive(WebDriver driver) {
+        try {
+            driver.getWindowHandles();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Clears what one test could leak into the next: windows, session storage, cookies of every domain
+     * and storage of the given origins plus those the windows showed.
+     * @return false when the session cannot be reset completely (no CDP, or a command failed)
+     */
+    static boolean reset(WebDriver driver, Collection<String> origins) {
+        if (!(driver instanceof HasCdp)) {
+            return false; // no way to reach other domains' cookies and storage
+        }
+        try {
+            HasCdp cdp = (HasCdp) driver;
+            Set<String> clear = new LinkedHashSet<>(origins);
+            Set<String> handles = driver.getWindowHandles();
+            for (String handle : handles) {
+                driver.switchTo().window(handle);
+                String origin = origin(driver.getCurrentUrl());
+                if (origin != null) {
+                    clear.add(origin);
+                }
+            }
+            driver.switchTo().newWindow(WindowType.TAB); // a new tab starts without session storage
+            String fresh = driver.getWindowHandle();
+            for (String handle : handles) {
+                driver.switchTo().window(handle);
+                driver.close();
+            }
+            driver.switchTo().window(fresh);
+            cdp.executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+            for (String origin : clear) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("origin", origin);
+                params.put("storageTypes", "all");
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", params);
+            }
+            driver.get("about:blank");
+            return true;
+        } catch (RuntimeException e) {
+            ExceptionHandler.logOnly("WebDriverPool.reset", e);
+            return false;
+        }
+    }
+
+    /** "https://host[:port]" of an http(s) URL, else null. */
+    static String origin(String url) {
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return null;
+            }
+            return scheme.toLowerCase() + "://" + uri.getHost().toLowerCase() + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private boolean reserveSlot(String key) {
+        AtomicInteger count = live(key);
+        while (true) {
+            int current = count.get();
+            if (current >= maxSessionsPerBrowser) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void discard(PooledSession session) {
+        live(session.browser).decrementAndGet();
+        try {
+            session.driver.quit();
+        } catch (RuntimeException e) {
+            ExceptionHandler.logOnly("WebDriverPool.discard", e);
+        }
+    }
+
+    private BlockingQueue<PooledSession> queue(String key) {
+        return idle.computeIfAbsent(key, k -> new LinkedBlockingDeque<>());
+    }
+
+    private AtomicInteger live(String key) {
+        return this.live.computeIfAbsent(key, k -> new AtomicInteger());
+    }
+
+    private static String key(String browser) {
+        return browser.toLowerCase();
+    }
+
+    private static final class PooledSession {
+        final String browser;
+        final WebDriver driver;
+        int uses;
+
+        PooledSession(String browser, WebDriver driver) {
+            this.browser = browser;
+            this.driver = driver;
+        }
+    }
+}
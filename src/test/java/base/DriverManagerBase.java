@@ -1,13 +1,38 @@
 package base;
 
+import java.util.concurrent.Semaphore;
+
 import org.openqa.selenium.WebDriver;
 import org.testng.annotations.*;
 import utils.Methods;
+import webdriverfactory.BrowserProfile;
 import webdriverfactory.WebDriverFactory;
 
+/**
+ * Browser per test method (sessionScope=method, default) or one browser per class (sessionScope=class).
+ * - method scope: each method binds its own driver to its thread; the shared driver field stays null
+ *   (use driver()), so methods can run in parallel.
+ * - class scope: every method uses the class's browser, so methods of the class run one at a time even
+ *   under parallel=methods.
+ */
 public class DriverManagerBase {
+    /** Class-scoped browser (set in @BeforeClass only); null in method scope. */
     protected WebDriver driver;
 
+    private final Semaphore classSession = new Semaphore(1);
+    private final ThreadLocal<Boolean> holdsClassSession = ThreadLocal.withInitial(() -> false);
+
+    /** The browser of the running test method (either scope). */
+    protected WebDriver driver() {
+        return Methods.getDriver();
+    }
+
+    @BeforeTest(alwaysRun = true)
+    @Parameters({"browser"})
+    public void warmUpDrivers(@Optional("chrome") String browser) {
+        WebDriverFactory.warmUpPool(browser); // no-op unless driver_pool_enabled
+    }
+
     @BeforeClass(alwaysRun = true)
     @Parameters({"browser", "sessionScope"})
     public void setUpClass(@Optional("chrome") String browser,
@@ -15,7 +40,7 @@ public class DriverManagerBase {
         if ("class".equalsIgnoreCase(sessionScope)) {
             WebDriverFactory.initDriver(browser);
             driver = WebDriverFactory.getDriver();
-            driver.manage().window().maximize();
+            BrowserProfile.forBrowser(browser).sizeWindow(driver);
             Methods.setDriver(driver);
         }
     }
@@ -24,12 +49,17 @@ public class DriverManagerBase {
     @Parameters({"browser", "sessionScope"})
     public void setUpMethod(@Optional("chrome") String browser,
                             @Optional("method") String sessionScope) {
-        if (!"class".equalsIgnoreCase(sessionScope)) { // default: per-method
-            WebDriverFactory.initDriver(browser);
-            driver = WebDriverFactory.getDriver();
-            driver.manage().window().maximize();
-            Methods.setDriver(driver);
+        if ("class".equalsIgnoreCase(sessionScope)) {
+            classSession.acquireUninterruptibly(); // one method at a time on the shared browser
+            holdsClassSession.set(true);
+            Methods.setDriver(driver); // methods may run on a different worker thread than @BeforeClass
+            return;
         }
+        // default: per-method; never write the shared field, parallel methods of this instance would race on it
+        WebDriverFactory.initDriver(browser);
+        WebDriver d = WebDriverFactory.getDriver();
+        BrowserProfile.forBrowser(browser).sizeWindow(d);
+        Methods.setDriver(d);
     }
 
     @AfterMethod(alwaysRun = true)
@@ -38,13 +68,20 @@ public class DriverManagerBase {
         if (!"class".equalsIgnoreCase(sessionScope)) {
             WebDriverFactory.quitDriver();
         }
+        Methods.clearDriver();
+        if (holdsClassSession.get()) {
+            holdsClassSession.remove();
+            classSession.release();
+        }
     }
 
     @AfterClass(alwaysRun = true)
     @Parameters({"sessionScope"})
     public void tearDownClass(@Optional("method") String sessionScope) {
-        if ("class".equalsIgnoreCase(sessionScope)) {
-            WebDriverFactory.quitDriver();
+        if ("class".equalsIgnoreCase(sessionScope) && driver != null) {
+            WebDriverFactory.quitDriver(driver);
+            driver = null;
         }
+        Methods.clearDriver();
     }
 }
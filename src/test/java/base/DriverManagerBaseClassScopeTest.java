@@ -0,0 +1,74 @@
+package base;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import utils.Methods;
+import webdriverfactory.FakeDriverFactory;
+
+/**
+ * DriverManagerBase with sessionScope=class (set for this class in unit_suite.xml) under parallel methods:
+ * the methods share the class's browser, so they must run one at a time.
+ */
+public class DriverManagerBaseClassScopeTest extends DriverManagerBase {
+
+    private FakeDriverFactory factory;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger ran = new AtomicInteger();
+
+    @Override
+    @BeforeClass(alwaysRun = true)
+    @Parameters({"browser", "sessionScope"})
+    public void setUpClass(@Optional("chrome") String browser, @Optional("method") String sessionScope) {
+        factory = FakeDriverFactory.install(1, 100);
+        super.setUpClass(browser, sessionScope);
+    }
+
+    @Override
+    @AfterClass(alwaysRun = true)
+    @Parameters({"sessionScope"})
+    public void tearDownClass(@Optional("method") String sessionScope) {
+        try {
+            super.tearDownClass(sessionScope);
+            Assert.assertEquals(factory.launched.size(), 1, "one browser for the class");
+            Assert.assertEquals(ran.get(), 10);
+        } finally {
+            factory.close();
+        }
+    }
+
+    private void useSharedBrowser() throws InterruptedException {
+        Assert.assertNotNull(driver, "sessionScope=class expected (unit_suite.xml parameter)");
+        Assert.assertEquals(running.incrementAndGet(), 1, "methods overlapped on the class browser");
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertSame(Methods.getDriver(), driver);
+                Thread.sleep(1);
+            }
+        } finally {
+            running.decrementAndGet();
+            ran.incrementAndGet();
+        }
+    }
+
+    @Test(threadPoolSize = 4, invocationCount = 8)
+    public void parallelInvocationsTakeTurns() throws Exception {
+        useSharedBrowser();
+    }
+
+    @Test
+    public void firstMethod() throws Exception {
+        useSharedBrowser();
+    }
+
+    @Test
+    public void secondMethod() throws Exception {
+        useSharedBrowser();
+    }
+}
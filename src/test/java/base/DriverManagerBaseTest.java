@@ -0,0 +1,86 @@
+package base;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import utils.Methods;
+import webdriverfactory.FakeDriverFactory;
+import webdriverfactory.WebDriverFactory;
+
+/**
+ * Runs the real DriverManagerBase hooks (sessionScope=method) under parallel methods, with the factory
+ * leasing FakeDrivers: every method must drive its own browser and never see another method's.
+ */
+public class DriverManagerBaseTest extends DriverManagerBase {
+
+    private FakeDriverFactory factory;
+    private final Map<WebDriver, AtomicInteger> inUse = new ConcurrentHashMap<>();
+
+    @Override
+    @BeforeClass(alwaysRun = true)
+    @Parameters({"browser", "sessionScope"})
+    public void setUpClass(@Optional("chrome") String browser, @Optional("method") String sessionScope) {
+        factory = FakeDriverFactory.install(4, 100);
+        super.setUpClass(browser, sessionScope);
+    }
+
+    @Override
+    @AfterClass(alwaysRun = true)
+    @Parameters({"sessionScope"})
+    public void tearDownClass(@Optional("method") String sessionScope) {
+        try {
+            super.tearDownClass(sessionScope);
+        } finally {
+            factory.close();
+        }
+    }
+
+    private void driveOwnBrowser(String name) throws InterruptedException {
+        WebDriver mine = driver();
+        Assert.assertNotNull(mine);
+        Assert.assertSame(mine, WebDriverFactory.getDriver());
+        Assert.assertNull(driver, "method hooks never write the shared field");
+        Assert.assertEquals(inUse.computeIfAbsent(mine, k -> new AtomicInteger()).incrementAndGet(), 1,
+                "browser " + mine + " is bound to two running methods");
+        try {
+            for (int i = 0; i < 20; i++) {
+                String url = "https://portal.example/" + name + "/" + Thread.currentThread().getId() + "/" + i;
+                Methods.getDriver().get(url);
+                Thread.sleep(1);
+                Assert.assertSame(Methods.getDriver(), mine);
+                Assert.assertEquals(mine.getCurrentUrl(), url, "another method navigated this browser");
+            }
+        } finally {
+            inUse.get(mine).decrementAndGet();
+        }
+    }
+
+    @Test(threadPoolSize = 4, invocationCount = 12)
+    public void parallelInvocationsDriveTheirOwnBrowser() throws Exception {
+        driveOwnBrowser("invocation");
+    }
+
+    @Test
+    public void firstMethod() throws Exception {
+        driveOwnBrowser("first");
+    }
+
+    @Test
+    public void secondMethod() throws Exception {
+        driveOwnBrowser("second");
+    }
+
+    @Test
+    public void thirdMethod() throws Exception {
+        driveOwnBrowser("third");
+    }
+}
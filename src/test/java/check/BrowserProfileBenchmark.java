@@ -0,0 +1,101 @@
+package check;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import utils.Methods;
+import webdriverfactory.BrowserProfile;
+import webdriverfactory.WebDriverFactory;
+
+/**
+ * Per-test wall time for each browser profile against a local fixture page (no portal access needed).
+ * Run with: mvn test -Dsuite.file=profile_benchmark.xml
+ * One "test" = launch + N page loads + quit, the way a sessionScope=method test spends its time.
+ */
+public class BrowserProfileBenchmark {
+
+    private static final int LOADS_PER_SESSION = 10;
+    private static final int SESSIONS = 3;
+
+    private Path fixtureDir;
+    private String fixtureUrl;
+    private String browser;
+
+    @BeforeClass
+    @Parameters({"browser"})
+    public void writeFixture(@Optional("chrome") String browser) throws Exception {
+        this.browser = BrowserProfile.browserName(browser);
+        fixtureDir = Files.createTempDirectory("profile-benchmark");
+        StringBuilder html = new StringBuilder("<html><head><title>fixture</title></head><body><table id='log'><thead><tr>");
+        html.append("<th>Document</th><th>Status</th><th>Lines</th><th>Preview</th></tr></thead><tbody>");
+        for (int i = 0; i < 200; i++) {
+            File png = fixtureDir.resolve("img" + i + ".png").toFile();
+            BufferedImage img = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+            img.setRGB(i % 256, i % 256, 0xFFFFFF);
+            ImageIO.write(img, "png", png);
+            html.append("<tr><td>DOC-").append(i).append("</td><td>Processed</td><td>").append(i % 17)
+                    .append("</td><td><img src='").append(png.getName()).append("'></td></tr>");
+        }
+        html.append("</tbody></table></body></html>");
+        Path page = fixtureDir.resolve("index.html");
+        Files.write(page, html.toString().getBytes(StandardCharsets.UTF_8));
+        fixtureUrl = page.toUri().toString();
+    }
+
+    @DataProvider
+    public Object[][] profiles() {
+        return new Object[][]{{"default"}, {"headless"}, {"throughput"}};
+    }
+
+    @Test(dataProvider = "profiles")
+    public void perTestWallTime(String profile) {
+        String spec = browser + ":" + profile;
+        long[] sessionMillis = new long[SESSIONS];
+        long[] loadMicros = new long[SESSIONS * LOADS_PER_SESSION];
+        for (int s = 0; s < SESSIONS; s++) {
+            long start = System.nanoTime();
+            WebDriver driver = WebDriverFactory.createDriver(spec);
+            try {
+                BrowserProfile.forBrowser(spec).sizeWindow(driver);
+                for (int i = 0; i < LOADS_PER_SESSION; i++) {
+                    long t = System.nanoTime();
+                    driver.get(fixtureUrl);
+                    loadMicros[s * LOADS_PER_SESSION + i] = (System.nanoTime() - t) / 1_000;
+                }
+            } finally {
+                driver.quit();
+            }
+            sessionMillis[s] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(sessionMillis);
+        Arrays.sort(loadMicros);
+        Methods.sline(String.format("%s: test median %d ms, page load p50 %.1f ms / p90 %.1f ms",
+                spec, sessionMillis[SESSIONS / 2],
+                loadMicros[loadMicros.length / 2] / 1000.0, loadMicros[loadMicros.length * 9 / 10] / 1000.0), 100, '.');
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteFixture() throws Exception {
+        File[] files = fixtureDir.toFile().listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        Files.deleteIfExists(fixtureDir);
+    }
+}
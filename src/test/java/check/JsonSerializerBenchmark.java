@@ -0,0 +1,127 @@
+package check;
+
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.PlanningItemRecord;
+import utils.Methods;
+import utils.RecordJsonWriter;
+
+/**
+ * Methods.toJson vs RecordJsonWriter: time and heap allocation per record, JMH style (warm-up rounds,
+ * then measured rounds, median reported) without the JMH dependency. Allocation comes from
+ * com.sun.management.ThreadMXBean. Offline, no browser.
+ * Run with: mvn test -Dsuite.file=json_benchmark.xml
+ */
+public class JsonSerializerBenchmark {
+
+    private static final int RECORDS = 10_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 20;
+
+    /** Discards output so only serialization is measured. */
+    private static final class NullWriter extends Writer {
+        long chars;
+
+        public void write(char[] cbuf, int off, int len) {
+            chars += len;
+        }
+
+        public void write(String str) {
+            chars += str.length();
+        }
+
+        public void flush() {
+        }
+
+        public void close() {
+        }
+    }
+
+    private interface Round {
+        long run(List<PlanningItemRecord> records);
+    }
+
+    private static List<PlanningItemRecord> records() {
+        List<PlanningItemRecord> records = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            PlanningItemRecord r = new PlanningItemRecord();
+            r.documentIdentifier = "FC" + (10_000_000 + i);
+            r.planningItemName = "FC01004467924-" + (i % 2000);
+            r.totalLines = 8 + i % 5;
+            r.ordersCancelled = i % 3;
+            r.cancelledOrdersList = Arrays.asList("PO" + i, "PO" + (i + 1), "PO" + (i + 2));
+            r.sourceFileName = "case" + (i % 50) + "_updated.xml";
+            r.processDate = "8/21/25 4:50:02 AM IST";
+            r.status = i % 11 == 0 ? "Failed: \"schema\"\tline 3" : "Success / SUCCESS (10)";
+            r.shipToCompany = "Goodyear / 30";
+            r.shipFromCompany = "Orion Engineered Carbons / 20";
+            records.add(r);
+        }
+        return records;
+    }
+
+    private static String measure(String name, List<PlanningItemRecord> records, Round round) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += round.run(records);
+        }
+        double[] nanosPerRecord = new double[ROUNDS];
+        double[] bytesPerRecord = new double[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long t = System.nanoTime();
+            sink += round.run(records);
+            nanosPerRecord[i] = (System.nanoTime() - t) / (double) RECORDS;
+            bytesPerRecord[i] = (threads.getThreadAllocatedBytes(thread) - allocated) / (double) RECORDS;
+        }
+        Arrays.sort(nanosPerRecord);
+        Arrays.sort(bytesPerRecord);
+        Assert.assertTrue(sink > 0);
+        return String.format("%-28s %7.0f ns/record %7.0f B/record", name, nanosPerRecord[ROUNDS / 2], bytesPerRecord[ROUNDS / 2]);
+    }
+
+    @Test
+    public void toJsonVsRecordJsonWriter() {
+        List<PlanningItemRecord> records = records();
+        NullWriter sinkWriter = new NullWriter();
+        RecordJsonWriter streaming = new RecordJsonWriter(sinkWriter);
+        RecordJsonWriter inMemory = new RecordJsonWriter();
+
+        String concat = measure("Methods.toJson -> Writer", records, rs -> {
+            long before = sinkWriter.chars;
+            for (PlanningItemRecord r : rs) {
+                sinkWriter.write(Methods.toJson(r));
+                sinkWriter.write("\n");
+            }
+            return sinkWriter.chars - before;
+        });
+        String stream = measure("RecordJsonWriter -> Writer", records, rs -> {
+            long before = sinkWriter.chars;
+            for (PlanningItemRecord r : rs) {
+                streaming.write(r).newLine();
+            }
+            streaming.flush();
+            return sinkWriter.chars - before;
+        });
+        String buffer = measure("RecordJsonWriter reused", records, rs -> {
+            long length = 0;
+            for (PlanningItemRecord r : rs) {
+                inMemory.reset();
+                length += inMemory.write(r).length();
+            }
+            return length;
+        });
+        Methods.sline(concat, 100, '.');
+        Methods.sline(stream, 100, '.');
+        Methods.sline(buffer, 100, '.');
+    }
+}
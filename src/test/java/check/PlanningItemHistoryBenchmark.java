@@ -0,0 +1,129 @@
+package check;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import model.PlanningItemRecord;
+import utils.JsonLinesStore;
+import utils.Methods;
+import utils.PlanningItemHistory;
+
+/**
+ * PlanningItemHistory at 1M records: append rate, reopen (reindex) time and indexed lookups, against a
+ * linear scan of the same records in a JSON Lines file. Offline, no browser.
+ * Run with: mvn test -Dsuite.file=history_benchmark.xml
+ */
+public class PlanningItemHistoryBenchmark {
+
+    private static final int RECORDS = 1_000_000;
+    private static final int DOCUMENTS = 250_000;     // ~4 records per document
+    private static final int PLANNING_ITEMS = 20_000;
+    private static final int LOOKUPS = 100_000;
+    private static final int SCANS = 3;
+
+    private Path dir;
+
+    private static PlanningItemRecord record(int i) {
+        PlanningItemRecord r = new PlanningItemRecord();
+        r.documentIdentifier = "FC" + (10_000_000 + i % DOCUMENTS);
+        r.planningItemName = "FC01004467924-" + (i % PLANNING_ITEMS);
+        r.totalLines = 8 + i % 5;
+        r.ordersCancelled = i % 3;
+        r.cancelledOrdersList = Arrays.asList("PO" + i, "PO" + (i + 1));
+        r.sourceFileName = "case" + (i % 50) + "_updated.xml";
+        r.processDate = "8/21/25 4:50:02 AM IST";
+        r.status = i % 11 == 0 ? "Failed" : "Success / SUCCESS (10)";
+        r.shipToCompany = "Goodyear / 30";
+        r.shipFromCompany = "Orion Engineered Carbons / 20";
+        return r;
+    }
+
+    @BeforeClass
+    public void createDir() throws Exception {
+        dir = Files.createTempDirectory("history-benchmark");
+    }
+
+    @Test
+    public void millionRecords() throws Exception {
+        Path data = dir.resolve("history.dat");
+        Path lines = dir.resolve("history.jsonl");
+
+        long t = System.nanoTime();
+        try (PlanningItemHistory history = new PlanningItemHistory(data, 64 << 20)) {
+            for (int i = 0; i < RECORDS; i++) {
+                history.append(record(i));
+            }
+        }
+        long appendMillis = (System.nanoTime() - t) / 1_000_000;
+        try (JsonLinesStore store = new JsonLinesStore(lines, new JsonLinesStore.Options())) {
+            for (int i = 0; i < RECORDS; i++) {
+                store.append(record(i));
+            }
+        }
+
+        t = System.nanoTime();
+        try (PlanningItemHistory history = new PlanningItemHistory(data)) {
+            long reopenMillis = (System.nanoTime() - t) / 1_000_000;
+            Assert.assertEquals(history.size(), RECORDS);
+
+            Random random = new Random(42);
+            long[] statusNanos = new long[LOOKUPS];
+            long[] planningItemNanos = new long[LOOKUPS / 10];
+            for (int i = 0; i < LOOKUPS; i++) {
+                String id = "FC" + (10_000_000 + random.nextInt(DOCUMENTS));
+                long s = System.nanoTime();
+                Assert.assertNotNull(history.latestStatus(id));
+                statusNanos[i] = System.nanoTime() - s;
+            }
+            for (int i = 0; i < planningItemNanos.length; i++) {
+                String name = "FC01004467924-" + random.nextInt(PLANNING_ITEMS);
+                long s = System.nanoTime();
+                Assert.assertEquals(history.byPlanningItem(name).size(), RECORDS / PLANNING_ITEMS);
+                planningItemNanos[i] = System.nanoTime() - s;
+            }
+
+            long[] scanMillis = new long[SCANS];
+            for (int i = 0; i < SCANS; i++) {
+                String needle = "\"documentIdentifier\":\"FC" + (10_000_000 + random.nextInt(DOCUMENTS)) + "\"";
+                long s = System.nanoTime();
+                String last = null;
+                try (BufferedReader in = Files.newBufferedReader(lines, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (line.contains(needle)) {
+                            last = line;
+                        }
+                    }
+                }
+                Assert.assertNotNull(last);
+                scanMillis[i] = (System.nanoTime() - s) / 1_000_000;
+            }
+
+            Arrays.sort(statusNanos);
+            Arrays.sort(planningItemNanos);
+            Arrays.sort(scanMillis);
+            Methods.sline(String.format("%,d records, %.0f MB mapped: append %d ms (%.0f/s), reopen+reindex %d ms", RECORDS,
+                    Files.size(data) / 1e6, appendMillis, RECORDS * 1000.0 / appendMillis, reopenMillis), 100, '.');
+            Methods.sline(String.format("latestStatus p50 %.1f us / p99 %.1f us; byPlanningItem(%d records) p50 %.1f us / p99 %.1f us",
+                    statusNanos[LOOKUPS / 2] / 1e3, statusNanos[LOOKUPS * 99 / 100] / 1e3, RECORDS / PLANNING_ITEMS,
+                    planningItemNanos[planningItemNanos.length / 2] / 1e3, planningItemNanos[planningItemNanos.length * 99 / 100] / 1e3), 100, '.');
+            Methods.sline(String.format("JSON Lines linear scan for one document: %d ms", scanMillis[SCANS / 2]), 100, '.');
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteDir() throws Exception {
+        Files.deleteIfExists(dir.resolve("history.dat"));
+        Files.deleteIfExists(dir.resolve("history.jsonl"));
+        Files.deleteIfExists(dir);
+    }
+}
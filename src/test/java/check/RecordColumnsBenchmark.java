@@ -0,0 +1,90 @@
+package check;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.IntegrationDetails;
+import utils.Methods;
+import utils.RecordColumns;
+
+/**
+ * Retained heap of a large IntegrationDetails history: List of POJOs vs RecordColumns.
+ * Every string is a fresh instance, as it is when scraped from the portal. Heap is read from the
+ * MemoryMXBean after repeated System.gc(). Offline, no browser.
+ * Run with: mvn test -Dsuite.file=columns_benchmark.xml
+ */
+public class RecordColumnsBenchmark {
+
+    private static final int RECORDS = 500_000;
+    private static final String[] STATUSES = {"Success / SUCCESS (10)", "Failed / FAILED (20)", "Pending / PENDING (5)"};
+    private static final String[] DIRECTIONS = {"Inbound / IF", "Outbound / OF"};
+    private static final String[] DOC_TYPES = {"Demand Forecast / RNetDemandForecast", "Order Forecast / RNetOrderForecast"};
+    private static final String[] COMPANIES = {"Goodyear / 30", "Orion Engineered Carbons / 20", "Cabot / 40"};
+
+    private static IntegrationDetails details(int i) {
+        IntegrationDetails d = new IntegrationDetails();
+        d.documentIdentifier = "FC" + (10_000_000 + i);
+        d.processDate = "8/21/25 4:" + (i % 60) + ":02 AM IST";
+        d.direction = new String(DIRECTIONS[i % DIRECTIONS.length]);
+        d.docType = new String(DOC_TYPES[i % DOC_TYPES.length]);
+        d.status = new String(STATUSES[i % STATUSES.length]);
+        d.shipToCompany = new String(COMPANIES[i % COMPANIES.length]);
+        d.shipFromCompany = new String(COMPANIES[(i + 1) % COMPANIES.length]);
+        d.fileName = "case" + (i % 50) + "_updated.xml";
+        d.planningItemName = "FC01004467924-" + (i % 2000);
+        d.totalLines = 8 + i % 5;
+        d.ordersCancelled = i % 3 == 0 ? null : i % 3;
+        for (int j = 0; j < i % 4; j++) {
+            d.cancelledOrdersList.add("PO" + (i + j));
+        }
+        return d;
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    private static String line(String name, long bytes) {
+        return String.format("%-28s %8.1f MB %6.0f B/record", name, bytes / 1e6, bytes / (double) RECORDS);
+    }
+
+    @Test
+    public void pojosVsColumns() {
+        long base = usedHeap();
+        List<IntegrationDetails> pojos = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            pojos.add(details(i));
+        }
+        long pojoBytes = usedHeap() - base;
+
+        long t = System.nanoTime();
+        RecordColumns columns = new RecordColumns(RECORDS);
+        for (IntegrationDetails d : pojos) {
+            columns.add(d);
+        }
+        columns.trimToSize();
+        long loadMillis = (System.nanoTime() - t) / 1_000_000;
+        int sample = RECORDS / 2 + 1;
+        Assert.assertEquals(Methods.toJson(Methods.toPlanningItemRecord(columns.toIntegrationDetails(sample))),
+                Methods.toJson(Methods.toPlanningItemRecord(pojos.get(sample))));
+        pojos = null;
+        long columnBytes = usedHeap() - base; // the columns still share the unique id/name/date strings
+
+        Methods.sline(line("List<IntegrationDetails>", pojoBytes), 100, '.');
+        Methods.sline(line("RecordColumns", columnBytes), 100, '.');
+        Methods.sline(String.format("RecordColumns load: %d ms, %d rows, dictionaries %s",
+                loadMillis, columns.size(), columns.dictionarySizes()), 100, '.');
+        Assert.assertTrue(columnBytes < pojoBytes, "columns should be smaller than the POJOs");
+    }
+}
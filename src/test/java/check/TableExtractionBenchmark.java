@@ -0,0 +1,111 @@
+package check;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Optional;
+import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
+
+import utils.Methods;
+import webdriverfactory.WebDriverFactory;
+
+/**
+ * WebDriver round trips and wall time of Methods.parseTableRows (one script) vs parseTableRowsPerCell
+ * on a large local table (no portal access needed).
+ * Run with: mvn test -Dsuite.file=table_benchmark.xml
+ */
+public class TableExtractionBenchmark {
+
+    private static final int ROWS = 1000;
+    private static final int COLUMNS = 8;
+    private static final int RUNS = 3;
+    private static final By TABLE = By.id("log");
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private Path fixture;
+    private WebDriver driver;
+
+    @BeforeClass
+    @Parameters({"browser"})
+    public void openFixture(@Optional("chrome:headless") String browser) throws Exception {
+        StringBuilder html = new StringBuilder("<html><head><title>fixture</title></head><body><table id='log'><thead><tr>");
+        for (int c = 0; c < COLUMNS; c++) {
+            html.append("<th>Column title ").append(c).append("</th>");
+        }
+        html.append("</tr></thead><tbody>");
+        for (int r = 0; r < ROWS; r++) {
+            html.append("<tr><td><a href='/doc?id=").append(r).append("'>DOC-").append(r).append("</a></td>");
+            for (int c = 1; c < COLUMNS; c++) {
+                html.append("<td>value ").append(r).append('.').append(c).append("&nbsp;</td>");
+            }
+            html.append("</tr>");
+        }
+        html.append("</tbody></table></body></html>");
+        fixture = Files.createTempFile("table-benchmark", ".html");
+        Files.write(fixture, html.toString().getBytes(StandardCharsets.UTF_8));
+
+        // every WebDriver / WebElement command made through the decorated driver is one round trip
+        WebDriverListener counter = new WebDriverListener() {
+            @Override
+            public void beforeAnyCall(Object target, Method method, Object[] args) {
+                calls.incrementAndGet();
+            }
+        };
+        driver = new EventFiringDecorator<WebDriver>(counter).decorate(WebDriverFactory.createDriver(browser));
+        driver.get(fixture.toUri().toString());
+        Methods.setDriver(driver);
+    }
+
+    @Test
+    public void singleScriptVsPerCell() {
+        List<Map<String, String>> bulk = null;
+        List<Map<String, String>> perCell = null;
+        long[] bulkMillis = new long[RUNS];
+        long[] perCellMillis = new long[RUNS];
+        int bulkCalls = 0;
+        int perCellCalls = 0;
+        for (int i = 0; i < RUNS; i++) {
+            calls.set(0);
+            long t = System.nanoTime();
+            bulk = Methods.parseTableRows(TABLE);
+            bulkMillis[i] = (System.nanoTime() - t) / 1_000_000;
+            bulkCalls = calls.get();
+
+            calls.set(0);
+            t = System.nanoTime();
+            perCell = Methods.parseTableRowsPerCell(TABLE);
+            perCellMillis[i] = (System.nanoTime() - t) / 1_000_000;
+            perCellCalls = calls.get();
+        }
+        Arrays.sort(bulkMillis);
+        Arrays.sort(perCellMillis);
+        Assert.assertEquals(bulk, perCell, "Bulk and per-cell extraction must return the same rows");
+        Methods.sline(String.format("%dx%d table: per-cell %d calls / %d ms, single script %d calls / %d ms",
+                ROWS, COLUMNS, perCellCalls, perCellMillis[RUNS / 2], bulkCalls, bulkMillis[RUNS / 2]), 100, '.');
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void close() throws Exception {
+        Methods.clearDriver();
+        if (driver != null) {
+            driver.quit();
+        }
+        if (fixture != null) {
+            Files.deleteIfExists(fixture);
+        }
+    }
+}
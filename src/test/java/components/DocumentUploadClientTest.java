@@ -0,0 +1,317 @@
+package components;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import utils.BulkUploadPipeline;
+import utils.ForecastValidator;
+
+@Test(singleThreaded = true) // one stub server per method, held in fields
+public class DocumentUploadClientTest {
+
+    /** Local stand-in for the portal: nav page with mainFrame, upload form with a token, upload endpoint. */
+    private HttpServer server;
+    private String baseUrl;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final List<String> uploads = new CopyOnWriteArrayList<>();
+    private final AtomicInteger formLoads = new AtomicInteger();
+    private final AtomicInteger posts = new AtomicInteger();
+    private final List<String> navCookies = new CopyOnWriteArrayList<>();
+    private final Set<String> validTokens = ConcurrentHashMap.newKeySet(); // tokens of forms handed out
+    private volatile int failAfterStoringStatus;   // store the upload, then answer with this status (0 = off)
+    private volatile String failAfterStoringBody;
+    private volatile boolean singleUseTokens;
+    private volatile boolean formInResponse;       // upload responses carry the next form
+    private volatile int failEvery;                // store, then answer 500 for every n-th stored upload (0 = off)
+
+    @BeforeMethod
+    public void startStub() throws Exception {
+        clientPorts.clear();
+        uploads.clear();
+        navCookies.clear();
+        validTokens.clear();
+        formLoads.set(0);
+        posts.set(0);
+        failAfterStoringStatus = 0;
+        singleUseTokens = false;
+        formInResponse = false;
+        failEvery = 0;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/nav", ex -> {
+            navCookies.add(String.valueOf(ex.getRequestHeaders().getFirst("Cookie")));
+            if (!authenticated(ex)) {
+                respond(ex, 200, "<form id='login'><input id='username_id' name='u'></form>");
+                return;
+            }
+            respond(ex, 200, "<html><frameset><frame name=\"mainFrame\" src=\"/submission/form.jsp?x=1&amp;y=2\"></frameset></html>");
+        });
+        server.createContext("/submission/form.jsp", ex -> {
+            formLoads.incrementAndGet();
+            ex.getResponseHeaders().add("Set-Cookie", "route=node7; Path=/; HttpOnly");
+            ex.getResponseHeaders().add("Set-Cookie", "formPath=1; Path=/submission");
+            respond(ex, 200, newForm());
+        });
+        server.createContext("/submission/upload.do", ex -> {
+            posts.incrementAndGet();
+            String cookies = String.valueOf(ex.getRequestHeaders().getFirst("Cookie"));
+            String body = new String(readAll(ex.getRequestBody()), StandardCharsets.UTF_8);
+            if (!authenticated(ex)) {
+                respond(ex, 200, "<input id='username_id'>");
+                return;
+            }
+            Matcher token = Pattern.compile("name=\"csrf\"\r\n\r\n(\\w+)\r\n").matcher(body);
+            if (!cookies.contains("route=node7") || !cookies.contains("formPath=1") || cookies.contains("SSO=")
+                    || !token.find() || !validTokens.contains(token.group(1))) {
+                respond(ex, 403, "bad token");
+                return;
+            }
+            Matcher file = Pattern.compile("name=\"fileData\"; filename=\"([^\"]+)\"\r\nContent-Type: text/xml\r\n\r\n(.*)\r\n--",
+                    Pattern.DOTALL).matcher(body);
+            Assert.assertTrue(file.find(), body);
+            uploads.add(file.group(1) + "=" + file.group(2));
+            if (failEvery > 0 && uploads.size() % failEvery == 0) {
+                respond(ex, 500, "Internal Server Error");
+                return;
+            }
+            if (failAfterStoringStatus != 0) {
+                respond(ex, failAfterStoringStatus, failAfterStoringBody);
+                return;
+            }
+            if (singleUseTokens) {
+                validTokens.remove(token.group(1));
+            }
+            respond(ex, 200, "<div class='notice'>File uploaded</div>" + (formInResponse ? newForm() : ""));
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopStub() {
+        server.stop(0);
+    }
+
+    private String newForm() {
+        String token = "tok" + UUID.randomUUID().toString().replace("-", "");
+        validTokens.add(token);
+        return "<form method='post' enctype='multipart/form-data' id=\"uploadForm\" action=\"upload.do\">"
+                + "<input type=\"hidden\" name=\"csrf\" value=\"" + token + "\">"
+                + "<input type='file' id='fileData' name='fileData'>"
+                + "<input type='submit' value='Upload File'></form>";
+    }
+
+    private boolean authenticated(HttpExchange ex) {
+        clientPorts.add(ex.getRemoteAddress().getPort());
+        String cookies = ex.getRequestHeaders().getFirst("Cookie");
+        return cookies != null && cookies.contains("JSESSIONID=valid");
+    }
+
+    private static byte[] readAll(InputStream in) throws java.io.IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void respond(HttpExchange ex, int status, String body) throws java.io.IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private DocumentUploadClient client() {
+        DocumentUploadClient client = new DocumentUploadClient(baseUrl + "/");
+        client.setCookie("JSESSIONID", "valid");
+        client.uploads = new IntegrationLogVerifier(); // keep the run-wide verifier clean
+        return client;
+    }
+
+    @Test
+    public void uploadsRewrittenForecastThroughDiscoveredForm() {
+        DocumentUploadClient client = client();
+        DocumentUploadClient.Result result = client.uploadForecast("orderCreate01.xml");
+
+        Assert.assertTrue(result.success, result.toString());
+        Assert.assertEquals(result.statusCode, 200);
+        Assert.assertTrue(result.responseBody.contains("File uploaded"));
+        Assert.assertEquals(uploads.size(), 1);
+        String[] upload = uploads.get(0).split("=", 2);
+        Assert.assertEquals(upload[0], "orderCreate01.xml");
+        Assert.assertTrue(ForecastValidator.validate(upload[1].getBytes(StandardCharsets.UTF_8)).isEmpty());
+        Assert.assertEquals(client.uploads.size(), 1, "registered for the Integration Log check");
+    }
+
+    @Test
+    public void reusesFormAndKeepAliveConnectionAcrossUploads() {
+        DocumentUploadClient client = client();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(client.upload("doc" + i + ".xml", "<a/>".getBytes(StandardCharsets.UTF_8)).success);
+        }
+        Assert.assertEquals(uploads.size(), 10);
+        Assert.assertEquals(formLoads.get(), 1, "form discovered once");
+        Assert.assertEquals(clientPorts.size(), 1, "all requests on one connection: " + clientPorts);
+    }
+
+    @Test
+    public void reloadsFormOnceWhenTokenWasRotated() {
+        DocumentUploadClient client = client();
+        Assert.assertTrue(client.upload("a.xml", "<a/>".getBytes(StandardCharsets.UTF_8)).success);
+        validTokens.clear(); // token rotated server-side
+        DocumentUploadClient.Result result = client.upload("b.xml", "<b/>".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(result.success, result.toString());
+        Assert.assertEquals(formLoads.get(), 2);
+    }
+
+    @Test
+    public void serverErrorAfterStoringIsNotResent() {
+        failAfterStoringStatus = 500;
+        failAfterStoringBody = "Internal Server Error";
+        DocumentUploadClient client = client();
+        DocumentUploadClient.Result result = client.uploadForecast("orderCreate01.xml");
+
+        Assert.assertFalse(result.success);
+        Assert.assertFalse(result.tokenRejected);
+        Assert.assertEquals(result.attempts, 1);
+        Assert.assertEquals(posts.get(), 1, "a failed upload may have been stored: never re-POST it");
+        Assert.assertEquals(uploads.size(), 1);
+        Assert.assertEquals(client.uploads.size(), 0, "only accepted documents are verified");
+    }
+
+    @Test
+    public void errorPageWithSuccessStatusIsNotResent() {
+        failAfterStoringStatus = 200;
+        failAfterStoringBody = "<div class='error'>Upload failed: please try again later</div>";
+        DocumentUploadClient.Result result = client().upload("a.xml", "<a/>".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals(result.attempts, 1);
+        Assert.assertEquals(posts.get(), 1);
+    }
+
+    @Test
+    public void singleUseTokensCostOneRejectedPostPerClient() {
+        singleUseTokens = true;
+        DocumentUploadClient client = client();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(client.upload("doc" + i + ".xml", "<a/>".getBytes(StandardCharsets.UTF_8)).success);
+        }
+        Assert.assertEquals(uploads.size(), 10);
+        Assert.assertEquals(posts.get(), 11, "only the first reuse of a token is refused");
+    }
+
+    @Test
+    public void formReturnedWithTheResponseIsUsedNext() {
+        singleUseTokens = true;
+        formInResponse = true;
+        DocumentUploadClient client = client();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(client.upload("doc" + i + ".xml", "<a/>".getBytes(StandardCharsets.UTF_8)).success);
+        }
+        Assert.assertEquals(posts.get(), 10);
+        Assert.assertEquals(formLoads.get(), 1);
+    }
+
+    @Test
+    public void cookiesAreSentOnlyToTheirDomainAndPath() {
+        DocumentUploadClient client = client();
+        client.setCookie("SSO", "idp-session", "idp.example", "/");
+        Assert.assertTrue(client.upload("a.xml", "<a/>".getBytes(StandardCharsets.UTF_8)).success);
+        validTokens.clear(); // forces a second form load through /nav
+        Assert.assertTrue(client.upload("b.xml", "<b/>".getBytes(StandardCharsets.UTF_8)).success);
+
+        Assert.assertEquals(navCookies.size(), 2);
+        for (String cookies : navCookies) {
+            Assert.assertTrue(cookies.contains("JSESSIONID=valid"), cookies);
+            Assert.assertFalse(cookies.contains("SSO="), "other domain: " + cookies);
+            Assert.assertFalse(cookies.contains("formPath="), "Path=/submission: " + cookies);
+        }
+    }
+
+    @Test
+    public void setCookieScopeFollowsTheHeader() {
+        URI request = URI.create("https://portal.example/submission/form.jsp");
+        DocumentUploadClient.StoredCookie hostOnly = DocumentUploadClient.parseSetCookie(request, "a=1");
+        Assert.assertTrue(hostOnly.matches(URI.create("https://portal.example/submission/upload.do")));
+        Assert.assertFalse(hostOnly.matches(URI.create("https://portal.example/nav")), "default path is /submission");
+        Assert.assertFalse(hostOnly.matches(URI.create("https://sub.portal.example/submission/x")));
+
+        DocumentUploadClient.StoredCookie domain = DocumentUploadClient.parseSetCookie(request, "b=2; Domain=.portal.example; Path=/; Secure");
+        Assert.assertTrue(domain.matches(URI.create("https://sub.portal.example/nav")));
+        Assert.assertFalse(domain.matches(URI.create("http://portal.example/nav")), "secure");
+
+        Assert.assertNull(DocumentUploadClient.parseSetCookie(request, "c=3; Domain=idp.example"), "foreign domain");
+        Assert.assertNull(DocumentUploadClient.parseSetCookie(request, "d=; Max-Age=0").value);
+    }
+
+    @Test
+    public void tokenRejectionNeedsATokenMessage() {
+        Assert.assertTrue(DocumentUploadClient.isTokenRejection(403, "Invalid CSRF token"));
+        Assert.assertTrue(DocumentUploadClient.isTokenRejection(200, "<p>The form token has expired.</p>"));
+        Assert.assertTrue(DocumentUploadClient.isTokenRejection(419, ""));
+        Assert.assertFalse(DocumentUploadClient.isTokenRejection(403, "Access denied"));
+        Assert.assertFalse(DocumentUploadClient.isTokenRejection(500, "invalid token"));
+        Assert.assertFalse(DocumentUploadClient.isTokenRejection(200, "File uploaded"));
+    }
+
+    @Test
+    public void bulkPipelineStoresEveryDocumentOnceDespiteServerErrors() throws Exception {
+        failEvery = 4;
+        Path dir = Files.createTempDirectory("bulk-direct");
+        dir.toFile().deleteOnExit();
+        for (int i = 0; i < 12; i++) {
+            Path copy = Files.copy(Paths.get("resources", "xml", "orderCreate01.xml"), dir.resolve("doc" + i + ".xml"));
+            copy.toFile().deleteOnExit();
+        }
+        DocumentUploadClient client = client();
+        BulkUploadPipeline.Options options = new BulkUploadPipeline.Options();
+        options.uploadThreads = 4;
+        BulkUploadPipeline.Report report = new BulkUploadPipeline(options,
+                (name, content) -> client.upload(name, content).success).run(BulkUploadPipeline.fromDirectory(dir, "*.xml"));
+
+        Map<String, Long> stored = uploads.stream()
+                .collect(Collectors.groupingBy(u -> u.split("=", 2)[0], Collectors.counting()));
+        Assert.assertEquals(stored.size(), 12);
+        Assert.assertTrue(stored.values().stream().allMatch(n -> n == 1), "stored twice: " + stored);
+        Assert.assertEquals(report.uploadFailed.get(), 3);
+        Assert.assertEquals(report.uploaded.get(), 9);
+    }
+
+    @Test
+    public void reportsMissingSession() {
+        try {
+            new DocumentUploadClient(baseUrl).upload("a.xml", new byte[0]);
+            Assert.fail("expected not logged in");
+        } catch (IllegalStateException expected) {
+            Assert.assertTrue(expected.getMessage().contains("login page"), expected.getMessage());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package components;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import model.IntegrationLogRow;
+
+public class IntegrationLogReaderTest {
+
+    private static final int PAGES = 3;
+    private static final int ROWS_PER_PAGE = 4;
+
+    /** Local paginated fixture: page1.html .. page3.html, each with a next link except the last. */
+    private Path dir;
+
+    @BeforeClass
+    public void writeFixture() throws Exception {
+        dir = Files.createTempDirectory("integration-log");
+        for (int p = 1; p <= PAGES; p++) {
+            StringBuilder html = new StringBuilder("<html><body><form><table id=\"logTableRow\" class='grid'><thead><tr>")
+                    .append("<th>Document Identifier</th><th>Process Date</th><th>Status</th><th>Ship To</th><th>Details</th>")
+                    .append("</tr></thead><tbody>");
+            for (int r = 0; r < ROWS_PER_PAGE; r++) {
+                int n = (p - 1) * ROWS_PER_PAGE + r;
+                html.append("<tr><td class=\"noBreaks\">DOC-").append(n).append("</td><td>8/21/25&nbsp;4:50 AM</td>")
+                        .append("<td><span>").append(n % 5 == 0 ? "Failed" : "Success").append("</span></td>")
+                        .append("<td>Goodyear / 30</td><td><img class='imageLink' src='d.png'></td></tr>");
+            }
+            html.append("</tbody></table>");
+            html.append("<div class='pager'><a href='page1.html'>First</a>");
+            if (p < PAGES) {
+                html.append(" <a href='page").append(p + 1).append(".html'> Next </a>");
+            }
+            html.append("</div></form></body></html>");
+            Files.write(dir.resolve("page" + p + ".html"), html.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private IntegrationLogReader reader() {
+        return new IntegrationLogReader(IntegrationLogReader.html(
+                dir.resolve("page1.html").toUri().toString(), IntegrationLogReader.TABLE_ID, Collections.emptyMap()));
+    }
+
+    @Test
+    public void iteratesEveryPageInOrder() {
+        IntegrationLogReader reader = reader();
+        List<String> ids = reader.stream().map(r -> r.documentIdentifier).collect(Collectors.toList());
+
+        Assert.assertEquals(ids.size(), PAGES * ROWS_PER_PAGE);
+        Assert.assertEquals(ids.get(0), "DOC-0");
+        Assert.assertEquals(ids.get(ids.size() - 1), "DOC-11");
+        Assert.assertEquals(reader.pagesFetched(), PAGES);
+        Assert.assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void stopsFetchingOnceTheDocumentIsFound() {
+        IntegrationLogReader reader = reader();
+        Optional<IntegrationLogRow> row = reader.findDocument("DOC-5");
+
+        Assert.assertTrue(row.isPresent());
+        Assert.assertEquals(row.get().status, "Failed");
+        Assert.assertEquals(row.get().processDate, "8/21/25 4:50 AM");
+        Assert.assertEquals(row.get().shipToCompany, "Goodyear / 30");
+        Assert.assertEquals(row.get().columns.get("Details"), "");
+        Assert.assertEquals(reader.pagesFetched(), 2);
+    }
+
+    @Test
+    public void missingDocumentReadsToTheLastPage() {
+        IntegrationLogReader reader = reader();
+
+        Assert.assertFalse(reader.findDocument("DOC-99").isPresent());
+        Assert.assertEquals(reader.pagesFetched(), PAGES);
+    }
+
+    @Test
+    public void lastPageHasNoNextLink() throws Exception {
+        String last = new String(Files.readAllBytes(dir.resolve("page3.html")), StandardCharsets.UTF_8);
+        String first = new String(Files.readAllBytes(dir.resolve("page1.html")), StandardCharsets.UTF_8);
+        String base = dir.resolve("page1.html").toUri().toString();
+
+        Assert.assertNull(IntegrationLogReader.nextLink(base, last));
+        Assert.assertEquals(URI.create(IntegrationLogReader.nextLink(base, first)), dir.resolve("page2.html").toUri());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteFixture() throws Exception {
+        for (int p = 1; p <= PAGES; p++) {
+            Files.deleteIfExists(dir.resolve("page" + p + ".html"));
+        }
+        Files.deleteIfExists(dir);
+    }
+}
@@ -0,0 +1,287 @@
+package components;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.IntegrationLogRow;
+import utils.AdaptiveWait;
+
+public class IntegrationLogVerifierTest {
+
+    private static final DateTimeFormatter PROCESS_DATE = DateTimeFormatter.ofPattern("M/d/yy h:mm a", Locale.US);
+
+    /** In-memory Integration Log: rows newest first, filtered like the portal's form. */
+    private static final class FakeLog implements IntegrationLogVerifier.LogQuery {
+        final List<IntegrationLogRow> rows = new CopyOnWriteArrayList<>();
+        final List<IntegrationLogVerifier.Filter> queries = new ArrayList<>();
+        final AtomicInteger rowsServed = new AtomicInteger();
+        IntConsumer beforeQuery = n -> { }; // gets the 1-based query number
+
+        void add(String id, String shipTo, String shipFrom, String messageType, String status) {
+            add(id, shipTo, shipFrom, messageType, status, LocalDateTime.now());
+        }
+
+        void add(String id, String shipTo, String shipFrom, String messageType, String status, LocalDateTime processed) {
+            Map<String, String> cells = new HashMap<>();
+            cells.put("Document Identifier", id);
+            cells.put("Ship To Company", shipTo);
+            cells.put("Ship From Company", shipFrom);
+            cells.put("Doc Type", messageType);
+            cells.put("Status", status);
+            cells.put("Process Date", PROCESS_DATE.format(processed));
+            rows.add(0, IntegrationLogRow.from(cells));
+        }
+
+        @Override
+        public Iterator<IntegrationLogRow> rows(IntegrationLogVerifier.Filter f) {
+            queries.add(f);
+            beforeQuery.accept(queries.size());
+            Iterator<IntegrationLogRow> it = rows.stream()
+                    .filter(r -> (f.shipToCompany == null || f.shipToCompany.equals(r.shipToCompany))
+                            && (f.shipFromCompany == null || f.shipFromCompany.equals(r.shipFromCompany))
+                            && (f.messageType == null || f.messageType.equals(r.docType))
+                            && (f.documentIdentifier == null || r.documentIdentifier.contains(f.documentIdentifier)))
+                    .iterator();
+            return new Iterator<IntegrationLogRow>() {
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public IntegrationLogRow next() {
+                    rowsServed.incrementAndGet();
+                    return it.next();
+                }
+            };
+        }
+    }
+
+    private static IntegrationLogVerifier verifier() {
+        IntegrationLogVerifier v = new IntegrationLogVerifier();
+        v.waits = new AdaptiveWait();
+        v.logZone = ZoneId.systemDefault();
+        return v;
+    }
+
+    @Test
+    public void onePerPartnerPairAndTypeAndCoarserWhenTooMany() {
+        IntegrationLogVerifier v = verifier();
+        List<IntegrationLogVerifier.Expected> docs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            IntegrationLogVerifier.Expected e = new IntegrationLogVerifier.Expected();
+            e.documentIdentifier = "DOC-" + i;
+            e.shipToCompany = "Goodyear";
+            e.shipFromCompany = i < 5 ? "Orion" : "Cabot";
+            e.messageType = "Demand Forecast";
+            docs.add(e);
+        }
+        Assert.assertEquals(v.plan(docs), Arrays.asList(
+                new IntegrationLogVerifier.Filter("Goodyear", "Orion", "Demand Forecast"),
+                new IntegrationLogVerifier.Filter("Goodyear", "Cabot", "Demand Forecast")));
+
+        for (int i = 0; i < docs.size(); i++) {
+            docs.get(i).messageType = "Type " + i; // 10 exact filters > 4: fall back to the two partner pairs
+        }
+        Assert.assertEquals(v.plan(docs), Arrays.asList(
+                new IntegrationLogVerifier.Filter("Goodyear", "Orion", null),
+                new IntegrationLogVerifier.Filter("Goodyear", "Cabot", null)));
+
+        for (int i = 0; i < docs.size(); i++) {
+            docs.get(i).shipFromCompany = "Supplier " + i;
+        }
+        Assert.assertEquals(v.plan(docs), Collections.singletonList(new IntegrationLogVerifier.Filter(null, null, null)));
+    }
+
+    @Test
+    public void fewUploadsWithoutPartnersAreSearchedByIdentifier() {
+        IntegrationLogVerifier v = verifier();
+        List<IntegrationLogVerifier.Expected> docs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            IntegrationLogVerifier.Expected e = new IntegrationLogVerifier.Expected();
+            e.documentIdentifier = "FC-" + i;
+            docs.add(e);
+        }
+        Assert.assertEquals(v.plan(docs), Collections.singletonList(new IntegrationLogVerifier.Filter(null, null, null)));
+
+        docs.remove(4);
+        Assert.assertEquals(v.plan(docs), Arrays.asList(
+                new IntegrationLogVerifier.Filter(null, null, null, "FC-0"),
+                new IntegrationLogVerifier.Filter(null, null, null, "FC-1"),
+                new IntegrationLogVerifier.Filter(null, null, null, "FC-2"),
+                new IntegrationLogVerifier.Filter(null, null, null, "FC-3")));
+    }
+
+    @Test
+    public void allDocumentsOfAPartnerPairNeedOneQuery() {
+        FakeLog log = new FakeLog();
+        IntegrationLogVerifier v = verifier();
+        for (int i = 0; i < 50; i++) {
+            log.add("OLD-" + i, "Goodyear", "Orion", "Demand Forecast", "Success");
+        }
+        for (int i = 0; i < 20; i++) {
+            log.add("DOC-" + i, "Goodyear", "Orion", "Demand Forecast", i == 3 ? "Failed" : "Success");
+            v.expect("DOC-" + i, "Goodyear", "Orion", "Demand Forecast");
+        }
+
+        IntegrationLogVerifier.Result result = v.verify(log, Duration.ofSeconds(5));
+
+        Assert.assertEquals(result.queries, 1);
+        Assert.assertEquals(log.rowsServed.get(), 20, "stops reading once every document was seen");
+        Assert.assertFalse(result.allSucceeded(), result.toString());
+        Assert.assertEquals(result.found.size(), 19);
+        Assert.assertEquals(result.failed.keySet(), Collections.singleton("DOC-3"));
+        Assert.assertTrue(result.missing.isEmpty());
+    }
+
+    @Test
+    public void rowsStillProcessingArePolledUntilTheySucceedOrTimeOut() {
+        FakeLog log = new FakeLog();
+        IntegrationLogVerifier v = verifier();
+        log.add("DOC-A", "Goodyear", "Orion", "Demand Forecast", "Processing");
+        log.add("DOC-B", "Goodyear", "Orion", "Demand Forecast", "In Progress");
+        v.expect("DOC-A", "Goodyear", "Orion", "Demand Forecast");
+        v.expect("DOC-B", "Goodyear", "Orion", "Demand Forecast");
+        log.beforeQuery = n -> {
+            if (n == 2) {
+                log.add("DOC-A", "Goodyear", "Orion", "Demand Forecast", "Success"); // newer row on top
+            }
+        };
+
+        IntegrationLogVerifier.Result result = v.verify(log, Duration.ofMillis(200));
+
+        Assert.assertTrue(result.found.containsKey("DOC-A"), result.toString());
+        Assert.assertEquals(result.failed.get("DOC-B").status, "In Progress", "never finished: not successful");
+        Assert.assertTrue(result.missing.isEmpty());
+        Assert.assertFalse(result.allSucceeded());
+    }
+
+    @Test
+    public void statusesAreClassified() {
+        Assert.assertTrue(IntegrationLogVerifier.isSuccess("Success"));
+        Assert.assertTrue(IntegrationLogVerifier.isSuccess(" successful "));
+        Assert.assertFalse(IntegrationLogVerifier.isSuccess("Unsuccessful"));
+        Assert.assertTrue(IntegrationLogVerifier.isFailure("Failed"));
+        Assert.assertTrue(IntegrationLogVerifier.isFailure("Processing Error"));
+        Assert.assertTrue(IntegrationLogVerifier.isFailure(""));
+        Assert.assertFalse(IntegrationLogVerifier.isFailure("Processing"));
+    }
+
+    @Test
+    public void uploadsAreRegisteredByTheirDocumentIdentifier() throws Exception {
+        IntegrationLogVerifier v = verifier();
+        byte[] content = Files.readAllBytes(Paths.get("resources", "xml", "orderCreate01.xml"));
+
+        Assert.assertEquals(v.expectUpload("orderCreate01.xml", content), "FC20250812_SP001");
+        Assert.assertNull(v.expectUpload("a.xml", "<a/>".getBytes(StandardCharsets.UTF_8)));
+        Assert.assertEquals(v.size(), 1);
+    }
+
+    @Test
+    public void onlyMissingDocumentsArePolledAgain() {
+        FakeLog log = new FakeLog();
+        IntegrationLogVerifier v = verifier();
+        log.add("DOC-A", "Goodyear", "Orion", "Demand Forecast", "Success");
+        v.expect("DOC-A", "Goodyear", "Orion", "Demand Forecast");
+        v.expect("DOC-B", "Michelin", "Cabot", "Demand Forecast");
+        log.beforeQuery = n -> {
+            if (n == 4) {
+                log.add("DOC-B", "Michelin", "Cabot", "Demand Forecast", "Success"); // shows up late
+            }
+        };
+
+        IntegrationLogVerifier.Result result = v.verify(log, Duration.ofSeconds(5));
+
+        Assert.assertTrue(result.allSucceeded(), result.toString());
+        Assert.assertEquals(result.rounds, 3);
+        Assert.assertEquals(log.queries, Arrays.asList(
+                new IntegrationLogVerifier.Filter("Goodyear", "Orion", "Demand Forecast"),
+                new IntegrationLogVerifier.Filter("Michelin", "Cabot", "Demand Forecast"),
+                new IntegrationLogVerifier.Filter("Michelin", "Cabot", "Demand Forecast"),
+                new IntegrationLogVerifier.Filter("Michelin", "Cabot", "Demand Forecast")));
+    }
+
+    @Test
+    public void reportsDocumentsStillMissingAtTheDeadline() {
+        FakeLog log = new FakeLog();
+        IntegrationLogVerifier v = verifier();
+        log.add("DOC-A", "Goodyear", "Orion", "Demand Forecast", "Success");
+        v.expect("DOC-A", "Goodyear", "Orion", "Demand Forecast");
+        v.expect("DOC-Z", "Goodyear", "Orion", "Demand Forecast");
+
+        IntegrationLogVerifier.Result result = v.verify(log, Duration.ofMillis(200));
+
+        Assert.assertFalse(result.allSucceeded());
+        Assert.assertEquals(result.missing, Collections.singleton("DOC-Z"));
+        Assert.assertTrue(result.found.containsKey("DOC-A"));
+        Assert.assertTrue(result.rounds > 1);
+        Assert.assertTrue(result.elapsedMillis < 2_000, result.toString());
+    }
+
+    @Test
+    public void rowsOfAnEarlierUploadOfTheSameIdentifierDoNotVerify() {
+        FakeLog log = new FakeLog();
+        IntegrationLogVerifier v = verifier();
+        log.add("FC20250812_SP001", "Goodyear", "Orion", "Demand Forecast", "Success",
+                LocalDateTime.now().minusDays(1)); // yesterday's run
+        log.add("OTHER", "Goodyear", "Orion", "Demand Forecast", "Success");
+        v.expect("FC20250812_SP001", "Goodyear", "Orion", "Demand Forecast");
+
+        IntegrationLogVerifier.Result result = v.verify(log, Duration.ofMillis(200));
+
+        Assert.assertEquals(result.missing, Collections.singleton("FC20250812_SP001"), result.toString());
+        Assert.assertTrue(result.found.isEmpty());
+        Assert.assertTrue(result.staleRows > 0);
+
+        log.add("FC20250812_SP001", "Goodyear", "Orion", "Demand Forecast", "Success"); // this run's upload
+        Assert.assertTrue(v.verify(log, Duration.ofMillis(200)).allSucceeded());
+    }
+
+    @Test
+    public void processDatesAreReadInTheLogZone() {
+        IntegrationLogVerifier v = verifier();
+        v.logZone = ZoneId.of("Asia/Kolkata");
+        long expected = LocalDateTime.of(2025, 8, 21, 4, 50, 2).atZone(v.logZone).toInstant().toEpochMilli();
+
+        Assert.assertEquals(v.processDateMillis("8/21/25 4:50:02 AM IST"), expected);
+        Assert.assertEquals(v.processDateMillis("8/21/2025 4:50 am"), expected - 2_000);
+        Assert.assertEquals(v.processDateMillis(""), -1);
+        Assert.assertEquals(v.processDateMillis(null), -1);
+    }
+
+    @Test
+    public void documentsWithAVerdictAreRemoved() {
+        FakeLog log = new FakeLog();
+        IntegrationLogVerifier v = verifier();
+        log.add("DOC-A", "Goodyear", "Orion", "Demand Forecast", "Success");
+        log.add("DOC-B", "Goodyear", "Orion", "Demand Forecast", "Failed");
+        v.expect("DOC-A", "Goodyear", "Orion", "Demand Forecast");
+        v.expect("DOC-B", "Goodyear", "Orion", "Demand Forecast");
+        v.expect("DOC-Z", "Goodyear", "Orion", "Demand Forecast");
+
+        v.verify(log, Duration.ofMillis(100));
+
+        Assert.assertEquals(v.size(), 1, "only the missing document is checked again");
+        log.add("DOC-Z", "Goodyear", "Orion", "Demand Forecast", "Success");
+        IntegrationLogVerifier.Result again = v.verify(log, Duration.ofMillis(100));
+        Assert.assertEquals(again.found.keySet(), Collections.singleton("DOC-Z"));
+        Assert.assertEquals(v.size(), 0);
+    }
+}
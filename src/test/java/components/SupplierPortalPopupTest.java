@@ -0,0 +1,116 @@
+package components;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import model.IntegrationDetails;
+import utils.Methods;
+import webdriverfactory.FakeDriver;
+
+public class SupplierPortalPopupTest {
+
+    private static Map<String, Object> row(String key, String value, String anchor) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("key", key);
+        row.put("value", value);
+        row.put("anchor", anchor);
+        return row;
+    }
+
+    private static List<Map<String, Object>> popupRows() {
+        return new ArrayList<>(Arrays.asList(
+                row("Process Date:", "8/21/25 4:50:02 AM IST", null),
+                row("Direction:", "Inbound /\n IF", null),
+                row("Doc Type:", "Demand Forecast / RNetDemandForecast", null),
+                row("Status:", "Success / SUCCESS (10)", null),
+                row("Ship To Company:", "Goodyear / 30", null),
+                row("Ship From Company:", "Orion Engineered Carbons / 20", null),
+                row("File:", "case07.xml (download)", "case07.xml"),
+                row("System ID:", "12345", null),
+                row("Details:", "Planning Item Name: FC01004467924-83062D;\nTotal Lines: 8;\n"
+                        + "Orders Cancelled: 2;\nCancelled Orders List: PO1:PO2;", null)));
+    }
+
+    /** Popup table row with a key and a value cell, read cell by cell by the fallback. */
+    private static WebElement tr(String key, String value) {
+        List<WebElement> tds = Arrays.asList(td(key), td(value));
+        return (WebElement) Proxy.newProxyInstance(WebElement.class.getClassLoader(), new Class<?>[]{WebElement.class},
+                (p, m, a) -> {
+                    if (m.getName().equals("findElements") && a[0].equals(By.tagName("td"))) {
+                        return tds;
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+                });
+    }
+
+    private static WebElement td(String text) {
+        return (WebElement) Proxy.newProxyInstance(WebElement.class.getClassLoader(), new Class<?>[]{WebElement.class},
+                (p, m, a) -> {
+                    if (m.getName().equals("getText")) {
+                        return text;
+                    }
+                    throw new UnsupportedOperationException(m.getName());
+                });
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void unbind() {
+        Methods.clearDriver();
+    }
+
+    @Test
+    public void popupIsReadWithOneScript() {
+        FakeDriver fake = new FakeDriver();
+        fake.addElement(By.id("showIntegrationDetails"), "");
+        fake.scriptHandler = (f, script, args) -> script.equals(SupplierPortal.POPUP_ROWS_SCRIPT) ? popupRows() : null;
+
+        IntegrationDetails d = new SupplierPortal(fake.driver).readIntegrationLogDetails("DOC-1");
+
+        Assert.assertEquals(fake.scripts.size(), 1);
+        Assert.assertEquals(d.documentIdentifier, "DOC-1");
+        Assert.assertEquals(d.processDate, "8/21/25 4:50:02 AM IST");
+        Assert.assertEquals(d.direction, "Inbound / IF");
+        Assert.assertEquals(d.docType, "Demand Forecast / RNetDemandForecast");
+        Assert.assertEquals(d.status, "Success / SUCCESS (10)");
+        Assert.assertEquals(d.shipToCompany, "Goodyear / 30");
+        Assert.assertEquals(d.shipFromCompany, "Orion Engineered Carbons / 20");
+        Assert.assertEquals(d.fileName, "case07.xml");
+        Assert.assertEquals(d.planningItemName, "FC01004467924-83062D");
+        Assert.assertEquals(d.totalLines, Integer.valueOf(8));
+        Assert.assertEquals(d.ordersCancelled, Integer.valueOf(2));
+        Assert.assertEquals(d.cancelledOrdersList, Arrays.asList("PO1", "PO2"));
+    }
+
+    @Test
+    public void fileRowWithoutAnchorUsesCellText() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(row("File:", " case08.xml ", null));
+
+        Assert.assertEquals(SupplierPortal.popupRowsToModel("DOC-2", rows).fileName, "case08.xml");
+    }
+
+    @Test
+    public void emptyScriptResultFallsBackToPerRowReads() {
+        FakeDriver fake = new FakeDriver();
+        fake.addElement(By.id("showIntegrationDetails"), "");
+        fake.elements.put(By.cssSelector("#showIntegrationDetails tbody tr").toString(), new ArrayList<>(Arrays.asList(
+                tr("Process Date:", "8/21/25 4:50:02 AM IST"), tr("Status:", "Success / SUCCESS (10)"))));
+        fake.scriptHandler = (f, script, args) -> Collections.emptyList(); // rows not rendered when the script ran
+
+        IntegrationDetails d = new SupplierPortal(fake.driver).readIntegrationLogDetails("DOC-3");
+
+        Assert.assertEquals(d.processDate, "8/21/25 4:50:02 AM IST");
+        Assert.assertEquals(d.status, "Success / SUCCESS (10)");
+    }
+}
@@ -3,6 +3,7 @@ package uploadSample;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 import base.DriverManagerBase;
@@ -10,7 +11,9 @@ import io.github.bonigarcia.wdm.WebDriverManager;
 import pages.login.NetworkLoginFlow;
 import pages.login.SupplierLoginFlow;
 import utils.ConfigReader;
+import utils.ForecastValidator;
 import utils.Methods;
+import utils.XmlBatchPreprocessor;
 
 public class UploadSample extends DriverManagerBase {
 	
@@ -20,6 +23,16 @@ public class UploadSample extends DriverManagerBase {
     private String userName;
     private String password;
 	
+    /*
+     * Rewrite and validate every forecast before any browser is started,
+     * so a malformed file fails the suite in seconds instead of after login/upload.
+     */
+    @BeforeSuite(alwaysRun = true)
+    public void validateForecastsBeforeUpload() {
+        XmlBatchPreprocessor.preprocessAll();
+        ForecastValidator.requireValidTestData();
+    }
+
     @BeforeClass(alwaysRun = true)
 	public void initializePages() throws InterruptedException {
 	    // Suppress Selenium CDP logging
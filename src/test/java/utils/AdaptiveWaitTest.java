@@ -0,0 +1,205 @@
+package utils;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import webdriverfactory.FakeDriver;
+
+public class AdaptiveWaitTest {
+
+    private static AdaptiveWait engine(List<Long> pauses) {
+        AdaptiveWait w = new AdaptiveWait(null);
+        w.jitter = 0;
+        w.sleeper = pauses::add;
+        return w;
+    }
+
+    @Test
+    public void pollsFastThenBacksOffToTheCap() {
+        List<Long> pauses = new ArrayList<>();
+        AdaptiveWait w = engine(pauses);
+        AtomicInteger polls = new AtomicInteger();
+        String value = w.until(null, "ready", Duration.ofSeconds(60), d -> polls.incrementAndGet() == 12 ? "done" : null);
+
+        Assert.assertEquals(value, "done");
+        Assert.assertEquals(pauses.size(), 11);
+        Assert.assertEquals(pauses.get(0).longValue(), 20L);
+        Assert.assertEquals(pauses.get(1).longValue(), 32L);
+        for (int i = 1; i < pauses.size(); i++) {
+            Assert.assertTrue(pauses.get(i) >= pauses.get(i - 1), pauses.toString());
+        }
+        Assert.assertEquals(pauses.get(pauses.size() - 1).longValue(), 500L, pauses.toString());
+    }
+
+    @Test
+    public void jitterSpreadsPollIntervals() {
+        AdaptiveWait w = new AdaptiveWait(null);
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            long p = w.jittered(100);
+            Assert.assertTrue(p >= 75 && p <= 125, String.valueOf(p));
+            seen.add(p);
+        }
+        Assert.assertTrue(seen.size() > 10, "jitter varies: " + seen);
+    }
+
+    @Test
+    public void timeoutKeepsLastIgnoredExceptionAndStopsTuning() {
+        AdaptiveWait w = new AdaptiveWait(null);
+        for (int i = 0; i < AdaptiveWait.MIN_SAMPLES_FOR_TUNING; i++) {
+            w.until(null, "flaky", Duration.ofSeconds(1), d -> true);
+        }
+        Assert.assertTrue(w.suggestedTimeoutMillis("flaky") > 0);
+        try {
+            w.until(null, "flaky", Duration.ofMillis(60), d -> {
+                throw new NoSuchElementException("missing");
+            });
+            Assert.fail("expected timeout");
+        } catch (TimeoutException e) {
+            Assert.assertTrue(e.getMessage().contains("'flaky'"), e.getMessage());
+            Assert.assertTrue(e.getCause() instanceof NoSuchElementException);
+        }
+        Assert.assertEquals(w.suggestedTimeoutMillis("flaky"), -1L);
+        Assert.assertTrue(w.report().contains("timeouts=1"), w.report());
+    }
+
+    @Test
+    public void autotuneCapsLongTimeoutsFromHistory() {
+        AdaptiveWait w = new AdaptiveWait(null);
+        w.autoTune = true;
+        w.minTimeoutMillis = 100;
+        Assert.assertEquals(w.effectiveTimeoutMillis("login form", 100_000), 100_000L, "no history yet");
+        for (int i = 0; i < AdaptiveWait.MIN_SAMPLES_FOR_TUNING; i++) {
+            w.until(null, "login form", Duration.ofSeconds(100), d -> true);
+        }
+        Assert.assertEquals(w.effectiveTimeoutMillis("login form", 100_000), 100L);
+        Assert.assertEquals(w.effectiveTimeoutMillis("login form", 50), 50L, "never above the caller's timeout");
+
+        long start = System.nanoTime();
+        try {
+            w.until(null, "login form", Duration.ofSeconds(100), d -> false);
+            Assert.fail("expected timeout");
+        } catch (TimeoutException e) {
+            Assert.assertTrue(e.getMessage().contains("tuned from 100000ms"), e.getMessage());
+        }
+        Assert.assertTrue(System.nanoTime() - start < 5_000_000_000L, "failed fast instead of waiting 100s");
+    }
+
+    @Test
+    public void statisticsSurviveARestart() throws Exception {
+        Path file = Files.createTempDirectory("waitStats").resolve("wait-stats.properties");
+        AdaptiveWait first = new AdaptiveWait(file);
+        first.minTimeoutMillis = 1;
+        for (int i = 0; i < 30; i++) {
+            int delay = i;
+            first.until(null, "popup rows", Duration.ofSeconds(1), d -> delay >= 0);
+        }
+        first.save();
+
+        AdaptiveWait second = new AdaptiveWait(file);
+        second.minTimeoutMillis = 1;
+        Assert.assertEquals(second.suggestedTimeoutMillis("popup rows"), first.suggestedTimeoutMillis("popup rows"));
+        Assert.assertTrue(second.report().contains("n=30"), second.report());
+    }
+
+    @Test
+    public void webDriverWaitAdapterRoutesThroughEngine() {
+        List<Long> pauses = new ArrayList<>();
+        AdaptiveWait w = engine(pauses);
+        FakeDriver fake = new FakeDriver();
+        fake.scriptHandler = (f, script, args) -> "complete";
+        AtomicInteger calls = new AtomicInteger();
+        Object result = w.asWebDriverWait(fake.driver, "three calls", Duration.ofSeconds(5))
+                .until(d -> calls.incrementAndGet() >= 3);
+        Assert.assertEquals(result, Boolean.TRUE);
+        Assert.assertEquals(pauses.size(), 2);
+        Assert.assertTrue(w.report().startsWith("three calls"), w.report());
+
+        try {
+            w.asWebDriverWait(fake.driver, "home url", Duration.ofMillis(1)).until(ExpectedConditions.urlContains("/home"));
+            Assert.fail("expected timeout");
+        } catch (TimeoutException expected) {
+            // recorded under the caller's name, not the condition's toString()
+        }
+        Assert.assertTrue(w.report().contains("home url"), w.report());
+        try {
+            w.asWebDriverWait(fake.driver, " ", Duration.ofSeconds(1));
+            Assert.fail("a name is required");
+        } catch (IllegalArgumentException expected) {
+            // lambdas have no stable toString()
+        }
+    }
+
+    @Test
+    public void webDriverWaitAdapterHonoursPollingAndIgnoring() {
+        List<Long> pauses = new ArrayList<>();
+        AdaptiveWait w = engine(pauses);
+        FakeDriver fake = new FakeDriver();
+        AtomicInteger calls = new AtomicInteger();
+        Object result = w.asWebDriverWait(fake.driver, "flaky script", Duration.ofSeconds(5))
+                .pollingEvery(Duration.ofMillis(250))
+                .ignoring(IllegalStateException.class)
+                .until(d -> {
+                    if (calls.incrementAndGet() < 4) {
+                        throw new IllegalStateException("not yet");
+                    }
+                    return "ok";
+                });
+        Assert.assertEquals(result, "ok");
+        Assert.assertEquals(pauses, Arrays.asList(250L, 250L, 250L), "fixed interval, no backoff");
+
+        try {
+            w.asWebDriverWait(fake.driver, "not ignored", Duration.ofSeconds(5)).until(d -> {
+                throw new IllegalStateException("boom");
+            });
+            Assert.fail("expected the exception");
+        } catch (IllegalStateException expected) {
+            // only NotFound/StaleElement are ignored by default
+        }
+    }
+
+    @Test
+    public void clickableWaitsAreNamedByTheElementsLocator() {
+        Assert.assertEquals(Methods.locatorOf(element("[[ChromeDriver: chrome on linux (4f1c2a)] -> id: submitbutton]")),
+                "id: submitbutton");
+        Assert.assertEquals(Methods.locatorOf(element("[[[ChromeDriver: chrome on linux (4f1c2a)] -> id: logTable]] -> xpath: .//tr]")),
+                "id: logTable -> xpath: .//tr");
+        Assert.assertEquals(Methods.locatorOf(element("[[ChromeDriver: chrome on linux (4f1c2a)] -> unknown locator]")), "element");
+    }
+
+    private static WebElement element(String description) {
+        return (WebElement) Proxy.newProxyInstance(WebElement.class.getClassLoader(), new Class<?>[] {WebElement.class},
+                (proxy, method, args) -> {
+                    if ("toString".equals(method.getName())) {
+                        return description;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    public void malformedStatsLinesAreSkipped() throws Exception {
+        Path file = Files.createTempDirectory("waitStats").resolve("wait-stats.properties");
+        Files.write(file, Arrays.asList("good=2|0|10,20", "badCount=x|0|10", "badSample=1|0|10,abc", "short=1|0"));
+
+        AdaptiveWait w = new AdaptiveWait(file);
+
+        Assert.assertTrue(w.report().contains("good"), w.report());
+        Assert.assertEquals(w.report().trim().split("\n").length, 1, w.report());
+    }
+}
@@ -0,0 +1,95 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BulkUploadPipelineTest {
+
+    private static BulkUploadPipeline.Options options(int preprocess, int upload, int capacity) {
+        BulkUploadPipeline.Options o = new BulkUploadPipeline.Options();
+        o.preprocessThreads = preprocess;
+        o.uploadThreads = upload;
+        o.queueCapacity = capacity;
+        o.baseDate = LocalDate.of(2025, 3, 1);
+        return o;
+    }
+
+    @Test
+    public void uploadsEveryTemplateWithRewrittenDates() {
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        BulkUploadPipeline pipeline = new BulkUploadPipeline(options(2, 2, 4), (name, content) -> {
+            String xml = new String(content, StandardCharsets.UTF_8);
+            Assert.assertTrue(xml.contains("20250301"), name);
+            return names.add(name);
+        });
+        BulkUploadPipeline.Report report = pipeline.run(BulkUploadPipeline.fromDirectory(Paths.get("resources", "xml"), "*.xml"));
+
+        Assert.assertEquals(report.uploaded.get(), names.size());
+        Assert.assertTrue(names.contains("orderCreate01.xml"), names.toString());
+        Assert.assertEquals(report.preprocessFailed.get() + report.uploadFailed.get(), 0, report.failures.toString());
+        Assert.assertEquals(report.upload.count(), names.size());
+    }
+
+    @Test
+    public void slowUploadsApplyBackpressureWithinQueueBound() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        BulkUploadPipeline pipeline = new BulkUploadPipeline(options(4, 2, 3), (name, content) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(40); // slower than preprocessing
+            inFlight.decrementAndGet();
+            return true;
+        });
+        File template = new File("resources/xml/orderCreate01.xml");
+        BulkUploadPipeline.Report report = pipeline.run(BulkUploadPipeline.fromGenerator(template, 60, i -> {
+            ForecastGenerator.Options o = new ForecastGenerator.Options();
+            o.seed = i;
+            o.lineItems = 3;
+            o.forecastsPerLine = 4;
+            o.documentIdentifier = "BULK_" + i;
+            return o;
+        }));
+
+        Assert.assertEquals(report.uploaded.get(), 60, report.failures.toString());
+        Assert.assertEquals(maxInFlight.get(), 2, "upload concurrency is bounded");
+        Assert.assertTrue(report.maxQueueDepth() <= 3, "queue depth " + report.maxQueueDepth());
+        Assert.assertTrue(report.backpressureNanos.get() > 0, "preprocess workers were throttled");
+        Assert.assertTrue(report.docsPerSecond() > 0);
+        Assert.assertTrue(report.toString().contains("docs/s"));
+    }
+
+    @Test
+    public void failuresAreCountedPerStageWithoutStoppingTheRun() throws Exception {
+        byte[] good = java.nio.file.Files.readAllBytes(Paths.get("resources", "xml", "orderCreate01.xml"));
+        List<BulkUploadPipeline.Document> docs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            byte[] content = i == 3 ? "<RNetDemandForecast><broken>".getBytes(StandardCharsets.UTF_8) : good;
+            docs.add(BulkUploadPipeline.document("doc" + i + ".xml", () -> new ByteArrayInputStream(content)));
+        }
+        Iterator<BulkUploadPipeline.Document> source = docs.iterator();
+        BulkUploadPipeline pipeline = new BulkUploadPipeline(options(3, 3, 2), (name, content) -> {
+            if (name.equals("doc5.xml")) {
+                throw new IllegalStateException("HTTP 500");
+            }
+            return !name.equals("doc7.xml");
+        });
+        BulkUploadPipeline.Report report = pipeline.run(source);
+
+        Assert.assertEquals(report.uploaded.get(), 7);
+        Assert.assertEquals(report.preprocessFailed.get(), 1);
+        Assert.assertEquals(report.uploadFailed.get(), 2);
+        Assert.assertEquals(report.failures.size(), 3, report.failures.toString());
+    }
+}
@@ -0,0 +1,122 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.IntegrationDetails;
+
+public class ForecastDiffTest {
+
+    private static final String KEY_PREFIX = "7|UC1AutomationTest01_buyer,UC1AutomationTest01_Seller|";
+
+    @Test
+    public void orderCancelHasThreeCancellations() {
+        ForecastDiff.Result r = ForecastDiff.diff(new File("resources/xml/orderChange01.xml"),
+                new File("resources/xml/orderCancel01.xml"));
+
+        Assert.assertEquals(r.cancelled, Arrays.asList(KEY_PREFIX + "8", KEY_PREFIX + "10"));
+        Assert.assertEquals(r.zeroQuantity, Arrays.asList(KEY_PREFIX + "9"));
+        Assert.assertEquals(r.ordersCancelled(), 3);
+        Assert.assertTrue(r.created.isEmpty());
+
+        IntegrationDetails expected = r.toExpectedIntegrationDetails();
+        Assert.assertEquals(expected.documentIdentifier, "FC20250812_SP003");
+        Assert.assertEquals(expected.totalLines, Integer.valueOf(8));
+        Assert.assertEquals(expected.ordersCancelled, Integer.valueOf(3));
+    }
+
+    @Test
+    public void orderChangeDetectsQuantityChangesNumerically() {
+        ForecastDiff.Result r = ForecastDiff.diff(new File("resources/xml/orderCreate01.xml"),
+                new File("resources/xml/orderChange01.xml"));
+
+        Assert.assertEquals(r.changed, Arrays.asList(KEY_PREFIX + "1", KEY_PREFIX + "2"));
+        Assert.assertEquals(r.unchanged, 8);
+        Assert.assertEquals(r.ordersCancelled(), 0);
+    }
+
+    @Test
+    public void firstUploadCreatesEveryLine() {
+        ForecastDiff.Result r = ForecastDiff.diff(null, new File("resources/xml/orderCreate01.xml"));
+        Assert.assertEquals(r.created.size(), 10);
+        Assert.assertEquals(r.previousLines, 0);
+    }
+
+    @Test
+    public void largeGeneratedDocumentsDiffConsistently() throws Exception {
+        ForecastGenerator.Options baseline = new ForecastGenerator.Options();
+        baseline.lineItems = 10_000;
+        baseline.forecastsPerLine = 10;
+        baseline.indent = false;
+
+        ForecastGenerator.Options followUp = new ForecastGenerator.Options();
+        followUp.lineItems = 10_000;
+        followUp.forecastsPerLine = 10;
+        followUp.indent = false;
+        followUp.createWeight = 0.7;
+        followUp.changeWeight = 0.2;
+        followUp.cancelWeight = 0.1;
+        followUp.dropCancelled = true;
+
+        File template = new File("resources/xml/orderCreate01.xml");
+        ByteArrayOutputStream before = new ByteArrayOutputStream();
+        ForecastGenerator.generate(template, before, baseline);
+        ByteArrayOutputStream after = new ByteArrayOutputStream();
+        ForecastGenerator.generate(template, after, followUp);
+
+        ForecastDiff.Result r = ForecastDiff.diff(new ByteArrayInputStream(before.toByteArray()),
+                new ByteArrayInputStream(after.toByteArray()));
+
+        Assert.assertEquals(r.previousLines, 100_000);
+        Assert.assertEquals(r.currentLines + r.cancelled.size(), 100_000);
+        Assert.assertEquals(r.unchanged + r.changed.size(), r.currentLines);
+        Assert.assertTrue(r.cancelled.size() > 8_000 && r.cancelled.size() < 12_000, r.toString());
+        Assert.assertTrue(r.created.isEmpty());
+        Assert.assertFalse(r.hasDuplicates(), r.toString());
+    }
+
+    @Test
+    public void linesCreatedWithZeroQuantityCountAsCancelled() throws Exception {
+        ForecastDiff.Result r = ForecastDiff.diff(stream(forecast("1", "5")),
+                stream(forecast("1", "5") + forecast("2", "0") + forecast("3", "7")));
+
+        Assert.assertEquals(r.created, Arrays.asList("1|P1|2", "1|P1|3"));
+        Assert.assertEquals(r.zeroQuantity, Arrays.asList("1|P1|2"));
+        Assert.assertEquals(r.ordersCancelled(), 1);
+    }
+
+    @Test
+    public void duplicateKeysAreReportedNotOverwritten() throws Exception {
+        ForecastDiff.Result r = ForecastDiff.diff(stream(forecast("1", "5") + forecast("1", "0")),
+                stream(forecast("1", "5") + forecast("1", "9")));
+
+        Assert.assertEquals(r.previousLines, 2);
+        Assert.assertEquals(r.currentLines, 2);
+        Assert.assertEquals(r.duplicatesBefore, Arrays.asList("1|P1|1"));
+        Assert.assertEquals(r.duplicatesNow, Arrays.asList("1|P1|1"));
+        Assert.assertEquals(r.unchanged, 1, "first occurrences are compared: 5 -> 5");
+        Assert.assertTrue(r.changed.isEmpty() && r.zeroQuantity.isEmpty() && r.cancelled.isEmpty(), r.toString());
+        Assert.assertTrue(r.toString().contains("duplicates=1/1"), r.toString());
+    }
+
+    private static String forecast(String lineNumber, String quantity) {
+        return "<Forecast><LineNumber>" + lineNumber + "</LineNumber>"
+                + "<MeasurementValue>" + quantity + "</MeasurementValue></Forecast>";
+    }
+
+    /** One line item (LineNumber 1, product P1) holding the given forecasts. */
+    private static ByteArrayInputStream stream(String forecasts) {
+        String xml = "<RNetDemandForecast><RNetHeader><ThisDocumentIdentifier><DocumentIdentifier>FC_TEST"
+                + "</DocumentIdentifier></ThisDocumentIdentifier></RNetHeader><RNetDemandForecastBody>"
+                + "<RNetDemandForecastLineItem><LineNumber>1</LineNumber><ForecastProduct>"
+                + "<ProductIdentifier>P1</ProductIdentifier></ForecastProduct>" + forecasts
+                + "</RNetDemandForecastLineItem></RNetDemandForecastBody></RNetDemandForecast>";
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,120 @@
+package utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+
+public class ForecastDocumentCacheTest {
+
+    private static File copyTemplate() throws Exception {
+        Path tmp = Files.createTempFile("forecastCache", ".xml");
+        Files.copy(new File("resources/xml/orderCreate01.xml").toPath(), tmp, StandardCopyOption.REPLACE_EXISTING);
+        File copy = tmp.toFile();
+        copy.deleteOnExit();
+        return copy;
+    }
+
+    @Test
+    public void repeatedLookupsHitTheCache() throws Exception {
+        File copy = copyTemplate();
+        ForecastDocumentCache cache = new ForecastDocumentCache(8, 1 << 20);
+        cache.summary(copy);
+        cache.summary(copy);
+        cache.document(copy);
+
+        ForecastDocumentCache.Stats stats = cache.stats();
+        Assert.assertEquals(stats.misses, 1);
+        Assert.assertEquals(stats.hits, 2);
+        Assert.assertEquals(stats.entries, 1);
+        Assert.assertEquals(stats.sourceBytes, copy.length());
+    }
+
+    @Test
+    public void sameSizeRewriteWithinMtimeGranularityIsDetected() throws Exception {
+        File copy = copyTemplate();
+        ForecastDocumentCache cache = new ForecastDocumentCache(8, 1 << 20);
+        long mtime = copy.lastModified();
+        Assert.assertEquals(cache.summary(copy).documentIdentifier, "FC20250812_SP001");
+
+        String xml = new String(Files.readAllBytes(copy.toPath()), StandardCharsets.UTF_8)
+                .replace("FC20250812_SP001", "FC20250812_SP002"); // same length
+        Files.write(copy.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(copy.setLastModified(mtime)); // coarse mtime did not move
+        Assert.assertEquals(copy.length(), cache.stats().sourceBytes);
+
+        Assert.assertEquals(cache.summary(copy).documentIdentifier, "FC20250812_SP002");
+        Assert.assertEquals(cache.stats().invalidations, 1);
+    }
+
+    @Test
+    public void settledFilesSkipTheContentCheck() throws Exception {
+        File copy = copyTemplate();
+        Assert.assertTrue(copy.setLastModified(System.currentTimeMillis() - 10 * ForecastDocumentCache.MTIME_GRANULARITY_MILLIS));
+        ForecastDocumentCache cache = new ForecastDocumentCache(8, 1 << 20);
+        cache.summary(copy);
+        cache.summary(copy);
+        cache.summary(copy);
+
+        Assert.assertEquals(cache.stats().hits, 2);
+        Assert.assertEquals(cache.stats().contentChecks, 0, "mtime+size is trusted once the file is older than the granularity");
+    }
+
+    @Test
+    public void touchedButUnchangedFileIsStillAHit() throws Exception {
+        File copy = copyTemplate();
+        ForecastDocumentCache cache = new ForecastDocumentCache(8, 1 << 20);
+        cache.summary(copy);
+        Assert.assertTrue(copy.setLastModified(copy.lastModified() + 5000));
+        cache.summary(copy);
+
+        Assert.assertEquals(cache.stats().misses, 1);
+        Assert.assertEquals(cache.stats().invalidations, 0);
+    }
+
+    @Test
+    public void changedContentInvalidatesEntry() throws Exception {
+        File copy = copyTemplate();
+        ForecastDocumentCache cache = new ForecastDocumentCache(8, 1 << 20);
+        Assert.assertEquals(cache.summary(copy).documentIdentifier, "FC20250812_SP001");
+
+        String xml = new String(Files.readAllBytes(copy.toPath()), StandardCharsets.UTF_8)
+                .replace("FC20250812_SP001", "FC20250812_SP999");
+        Files.write(copy.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(copy.setLastModified(copy.lastModified() + 5000));
+
+        Assert.assertEquals(cache.summary(copy).documentIdentifier, "FC20250812_SP999");
+        Assert.assertEquals(cache.stats().invalidations, 1);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWhenOverBudget() throws Exception {
+        File copy = copyTemplate();
+        ForecastDocumentCache cache = new ForecastDocumentCache(2, 1 << 20);
+        cache.summary(copy);
+        cache.summary(new File("resources/xml/orderChange01.xml"));
+        cache.summary(copy); // copy is now most recent
+        cache.summary(new File("resources/xml/orderMix01.xml"));
+
+        Assert.assertEquals(cache.stats().evictions, 1);
+        cache.summary(copy);
+        Assert.assertEquals(cache.stats().misses, 3, "copy should have survived eviction");
+    }
+
+    @Test
+    public void handedOutDocumentsAreIndependentCopies() throws Exception {
+        File copy = copyTemplate();
+        ForecastDocumentCache cache = new ForecastDocumentCache(8, 1 << 20);
+        Document first = cache.document(copy);
+        first.getElementsByTagName("DocumentIdentifier").item(0).setTextContent("mutated");
+
+        Document second = cache.document(copy);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(second.getElementsByTagName("DocumentIdentifier").item(0).getTextContent(), "FC20250812_SP001");
+    }
+}
@@ -0,0 +1,106 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.time.LocalDate;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import model.ForecastDocumentSummary;
+
+public class ForecastGeneratorTest {
+
+    private static final File TEMPLATE = new File("resources/xml/orderCreate01.xml");
+
+    private static Document generate(ForecastGenerator.Options options) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ForecastGenerator.generate(TEMPLATE, out, options);
+        return XmlEngine.parse(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    public void generatesRequestedShapeFromTemplate() throws Exception {
+        ForecastGenerator.Options o = new ForecastGenerator.Options();
+        o.lineItems = 1000;
+        o.forecastsPerLine = 12;
+        o.startDate = LocalDate.of(2025, 1, 1);
+        o.documentIdentifier = "FC_LOAD_001";
+
+        Document doc = generate(o);
+        ForecastDocumentSummary s = XMLDataExtraction.summarize(doc);
+
+        Assert.assertEquals(s.documentIdentifier, "FC_LOAD_001");
+        Assert.assertEquals(s.buyerName, "GOODYEAR");
+        Assert.assertEquals(s.purchaseOrderNumber, "20240812FC001");
+        Assert.assertEquals(s.lineItemCount, 1000);
+        Assert.assertEquals(s.forecastCount, 12000);
+
+        Element lastForecast = (Element) doc.getElementsByTagName("Forecast").item(11999);
+        Assert.assertEquals(lastForecast.getElementsByTagName("LineNumber").item(0).getTextContent(), "12");
+        Assert.assertEquals(lastForecast.getElementsByTagName("FromDateTime").item(0).getTextContent(), "20250319");
+    }
+
+    @Test
+    public void referenceItemsAndShipmentLinesAreGeneratedLikeTheTemplate() throws Exception {
+        ForecastGenerator.Options o = new ForecastGenerator.Options();
+        o.lineItems = 3;
+        o.forecastsPerLine = 12;
+
+        NodeList lines = generate(o).getElementsByTagName("RNetDemandForecastLineItem");
+        for (int l = 0; l < lines.getLength(); l++) {
+            NodeList forecasts = ((Element) lines.item(l)).getElementsByTagName("Forecast");
+            for (int f = 0; f < forecasts.getLength(); f++) {
+                Element forecast = (Element) forecasts.item(f);
+                Assert.assertEquals(forecast.getElementsByTagName("ReferenceItem").item(0).getTextContent(),
+                        String.format("%05d", 15 + l), "one PO line item per generated line");
+                Assert.assertEquals(forecast.getElementsByTagName("ShipmentLineNumber").item(0).getTextContent(),
+                        String.format("%04d", 31 + f), "template numbering: 0031..0040 for forecasts 1..10");
+            }
+        }
+        Assert.assertEquals(ForecastGenerator.offset("0099", 1), "0100");
+        Assert.assertEquals(ForecastGenerator.offset("9", 12), "21");
+        Assert.assertEquals(ForecastGenerator.offset("A7", 2), "A7_2");
+    }
+
+    @Test
+    public void sameSeedKeepsBaselineQuantitiesAcrossMixes() throws Exception {
+        ForecastGenerator.Options baseline = new ForecastGenerator.Options();
+        baseline.lineItems = 50;
+
+        ForecastGenerator.Options followUp = new ForecastGenerator.Options();
+        followUp.lineItems = 50;
+        followUp.changeWeight = 0.0;
+        followUp.cancelWeight = 1.0;
+
+        NodeList before = generate(baseline).getElementsByTagName("MeasurementValue");
+        NodeList after = generate(followUp).getElementsByTagName("MeasurementValue");
+        Assert.assertEquals(after.getLength(), before.getLength());
+
+        int cancelled = 0;
+        for (int i = 0; i < before.getLength(); i++) {
+            String a = after.item(i).getTextContent();
+            if ("0".equals(a)) {
+                cancelled++;
+            } else {
+                Assert.assertEquals(a, before.item(i).getTextContent());
+            }
+        }
+        Assert.assertTrue(cancelled > 0 && cancelled < before.getLength(), "cancelled=" + cancelled);
+    }
+
+    @Test
+    public void droppedCancellationsAreOmitted() throws Exception {
+        ForecastGenerator.Options o = new ForecastGenerator.Options();
+        o.lineItems = 20;
+        o.createWeight = 0.0;
+        o.cancelWeight = 1.0;
+        o.dropCancelled = true;
+
+        Assert.assertEquals(generate(o).getElementsByTagName("Forecast").getLength(), 0);
+    }
+}
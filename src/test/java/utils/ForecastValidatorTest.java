@@ -0,0 +1,61 @@
+package utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ForecastValidatorTest {
+
+    private static Path write(Path dir, String name, String xml) throws Exception {
+        Path p = dir.resolve(name);
+        Files.write(p, xml.getBytes(StandardCharsets.UTF_8));
+        return p;
+    }
+
+    private static String template() throws Exception {
+        return new String(Files.readAllBytes(Paths.get("resources", "xml", "orderCreate01.xml")), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void committedTestDataIsValid() {
+        Map<String, List<String>> invalid = ForecastValidator.validateTestData();
+        Assert.assertTrue(invalid.isEmpty(), invalid.toString());
+    }
+
+    @Test
+    public void reportsEveryStructuralProblem() throws Exception {
+        Path dir = Files.createTempDirectory("forecastValidator");
+        String broken = template()
+                .replace("<RNetPartnerName>ORION</RNetPartnerName>", "<RNetPartnerName></RNetPartnerName>")
+                .replace("<FromDateTime>20250526</FromDateTime>", "<FromDateTime></FromDateTime>")
+                .replace("<MeasurementValue>1003</MeasurementValue>", "<MeasurementValue>10O3</MeasurementValue>");
+        File file = write(dir, "broken_updated.xml", broken).toFile();
+
+        List<String> problems = ForecastValidator.validate(file);
+        Assert.assertEquals(problems.size(), 3, problems.toString());
+        Assert.assertTrue(problems.get(0).contains("To partner name"), problems.toString());
+        Assert.assertTrue(problems.get(1).contains("empty FromDateTime in DateTimeRange #2"), problems.toString());
+        Assert.assertTrue(problems.get(2).contains("'10O3'"), problems.toString());
+    }
+
+    @Test
+    public void parallelGateFlagsOnlyInvalidFiles() throws Exception {
+        Path dir = Files.createTempDirectory("forecastValidator");
+        for (int i = 0; i < 32; i++) {
+            write(dir, "good" + i + "_updated.xml", template());
+        }
+        write(dir, "truncated_updated.xml", template().substring(0, 500));
+        write(dir, "noHeader_updated.xml", "<RNetDemandForecast/>");
+
+        Map<String, List<String>> invalid = ForecastValidator.validateAll(dir, "*_updated.xml", 4);
+        Assert.assertEquals(invalid.keySet().toString(), "[noHeader_updated.xml, truncated_updated.xml]");
+        Assert.assertTrue(invalid.get("truncated_updated.xml").get(0).startsWith("not well-formed XML"));
+    }
+}
@@ -0,0 +1,167 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.PlanningItemRecord;
+
+public class JsonLinesStoreTest {
+
+    private static PlanningItemRecord record(String id, String status) {
+        PlanningItemRecord r = new PlanningItemRecord();
+        r.documentIdentifier = id;
+        r.planningItemName = "PI-" + id;
+        r.totalLines = 8;
+        r.cancelledOrdersList = Arrays.asList("PO1", "PO2");
+        r.status = status;
+        return r;
+    }
+
+    private static Path tempFile() throws Exception {
+        Path dir = Files.createTempDirectory("jsonl-store");
+        dir.toFile().deleteOnExit();
+        return dir.resolve("records.jsonl");
+    }
+
+    @Test
+    public void parallelAppendersLoseNothing() throws Exception {
+        int threads = 16;
+        int perThread = 500;
+        JsonLinesStore.Options options = new JsonLinesStore.Options();
+        options.queueCapacity = 64; // small queue: appenders also block on backpressure
+        options.syncEveryRecords = 1000;
+        Path file = tempFile();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (JsonLinesStore store = new JsonLinesStore(file, options)) {
+            CyclicBarrier barrier = new CyclicBarrier(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    for (int i = 0; i < perThread; i++) {
+                        store.append(record("T" + thread + "-" + i, "Success"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+
+            List<String> lines = store.records();
+            Assert.assertEquals(lines.size(), threads * perThread);
+            Set<String> unique = new HashSet<>(lines);
+            Assert.assertEquals(unique.size(), threads * perThread, "no duplicated or torn lines");
+            for (int t = 0; t < threads; t++) {
+                Assert.assertTrue(unique.contains(Methods.toJson(record("T" + t + "-" + (perThread - 1), "Success"))));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void exportsTheJsonArrayFormat() throws Exception {
+        Path file = tempFile();
+        Path array = file.resolveSibling("records.json");
+        try (JsonLinesStore store = new JsonLinesStore(file, new JsonLinesStore.Options())) {
+            store.append(record("A", "Success"));
+            store.append(record("B", "Failed"));
+
+            Assert.assertEquals(store.exportJsonArray(array), 2);
+        }
+        String expected = "[\n  " + Methods.toJson(record("A", "Success")) + ",\n  "
+                + Methods.toJson(record("B", "Failed")) + "\n]\n";
+        Assert.assertEquals(new String(Files.readAllBytes(array), StandardCharsets.UTF_8), expected);
+    }
+
+    @Test
+    public void compactionKeepsTheLatestRecordPerPlanningItem() throws Exception {
+        Path file = tempFile();
+        try (JsonLinesStore store = new JsonLinesStore(file, new JsonLinesStore.Options())) {
+            store.append(record("A", "Pending"));
+            store.append(record("B", "Success"));
+            store.append(record("A", "Success"));
+            PlanningItemRecord otherItem = record("A", "Failed");
+            otherItem.planningItemName = "PI-A2"; // same document, second planning item
+            store.append(otherItem);
+
+            Assert.assertEquals(store.compact(JsonLinesStore.PLANNING_ITEM), 3);
+            store.append(record("C", "Success")); // appends keep working after the file was swapped
+
+            Assert.assertEquals(store.records(), Arrays.asList(
+                    Methods.toJson(record("A", "Success")),
+                    Methods.toJson(record("B", "Success")),
+                    Methods.toJson(otherItem),
+                    Methods.toJson(record("C", "Success"))));
+        }
+    }
+
+    @Test
+    public void reopenedStoreAppendsAfterExistingRecords() throws Exception {
+        Path file = tempFile();
+        try (JsonLinesStore store = new JsonLinesStore(file, new JsonLinesStore.Options())) {
+            store.append(record("A", "Success"));
+        }
+        try (JsonLinesStore store = new JsonLinesStore(file, new JsonLinesStore.Options())) {
+            store.append(record("B", "Success"));
+            Assert.assertEquals(store.records().size(), 2);
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void appendFailsInsteadOfBlockingOnceTheWriterStopped() throws Exception {
+        JsonLinesStore.Options options = new JsonLinesStore.Options();
+        options.queueCapacity = 1;
+        JsonLinesStore store = new JsonLinesStore(tempFile(), options);
+        store.append(record("A", "Success"));
+        store.flush();
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().equals("jsonl-writer-" + store.file().getFileName()) && t.isAlive()) {
+                t.interrupt(); // the writer stops the way it would after a fatal error
+                t.join();
+            }
+        }
+
+        int rejected = 0;
+        for (int i = 0; i < 3; i++) { // queue has room for one: the later ones would block forever on put()
+            try {
+                store.append(record("B" + i, "Success"));
+            } catch (IllegalStateException expected) {
+                rejected++;
+            }
+        }
+        Assert.assertEquals(rejected, 3, "no record is accepted without a writer to take it");
+        store.flush(); // returns: rejected appends are not waited for
+        store.close();
+        try {
+            store.append(record("C", "Success"));
+            Assert.fail("closed store accepted a record");
+        } catch (IllegalStateException expected) {
+            // closed
+        }
+        Assert.assertEquals(Files.readAllLines(store.file(), StandardCharsets.UTF_8).size(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void multiLineRecordsAreRejected() throws Exception {
+        try (JsonLinesStore store = new JsonLinesStore(tempFile(), new JsonLinesStore.Options())) {
+            store.append("{\n}");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import webdriverfactory.FakeDriver;
+
+public class MethodsDriverContextTest {
+
+    private static FakeDriver fakeWithReadyPage() {
+        FakeDriver fake = new FakeDriver();
+        fake.scriptHandler = (f, script, args) -> script.contains("document.readyState") ? "complete" : null;
+        return fake;
+    }
+
+    @Test
+    public void parallelThreadsNeverSeeEachOthersDriver() throws Exception {
+        int threads = 8;
+        int rounds = 200;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<FakeDriver> fakes = new ArrayList<>();
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                FakeDriver fake = fakeWithReadyPage();
+                fakes.add(fake);
+                String marker = "thread-" + t;
+                results.add(executor.submit((Callable<Integer>) () -> {
+                    Methods.setDriver(fake.driver);
+                    barrier.await(10, TimeUnit.SECONDS); // every thread has bound before anyone proceeds
+                    int crossTalk = 0;
+                    for (int i = 0; i < rounds; i++) {
+                        if (Methods.getDriver() != fake.driver) {
+                            crossTalk++;
+                        }
+                        Methods.setValue("id", "field", marker);
+                        Methods.waitForPageLoad(1);
+                    }
+                    Methods.clearDriver();
+                    return crossTalk;
+                }));
+            }
+            for (Future<Integer> f : results) {
+                Assert.assertEquals(f.get(30, TimeUnit.SECONDS).intValue(), 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // each browser only received its own thread's calls
+        for (int t = 0; t < threads; t++) {
+            FakeDriver fake = fakes.get(t);
+            Assert.assertEquals(fake.scripts.size(), rounds * 2, "driver " + t);
+        }
+    }
+
+    @Test(threadPoolSize = 4, invocationCount = 8)
+    public void testNgWorkersBindTheirOwnDriver() {
+        FakeDriver fake = fakeWithReadyPage();
+        Methods.setDriver(fake.driver);
+        try {
+            for (int i = 0; i < 50; i++) {
+                Methods.waitForPageLoad(1);
+                Assert.assertSame(Methods.getDriver(), fake.driver);
+            }
+            Assert.assertEquals(fake.scripts.size(), 50);
+        } finally {
+            Methods.clearDriver();
+        }
+    }
+
+    @Test
+    public void withDriverRestoresPreviousBinding() {
+        WebDriver outer = new FakeDriver().driver;
+        WebDriver inner = new FakeDriver().driver;
+        Methods.setDriver(outer);
+        try {
+            Methods.withDriver(inner, () -> Assert.assertSame(Methods.getDriver(), inner));
+            Assert.assertSame(Methods.getDriver(), outer);
+        } finally {
+            Methods.clearDriver();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void unboundThreadFailsFast() {
+        Methods.clearDriver();
+        Methods.getWait(1);
+    }
+}
@@ -0,0 +1,83 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import webdriverfactory.FakeDriver;
+
+public class MethodsTableExtractionTest {
+
+    /** What TABLE_SCRIPT returns for a table with the given headers and rows (attributes per cell). */
+    private static Map<String, Object> scriptResult(List<String> headers, List<List<String>> rows, List<List<Map<String, Object>>> attributes) {
+        List<Object> rowList = new ArrayList<>();
+        for (int r = 0; r < rows.size(); r++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("cells", new ArrayList<Object>(rows.get(r)));
+            row.put("attributes", attributes == null ? new ArrayList<>() : new ArrayList<Object>(attributes.get(r)));
+            rowList.add(row);
+        }
+        Map<String, Object> table = new LinkedHashMap<>();
+        table.put("headers", new ArrayList<Object>(headers));
+        table.put("rows", rowList);
+        return table;
+    }
+
+    @Test
+    public void wholeTableIsReadWithOneScript() {
+        FakeDriver fake = new FakeDriver();
+        By locator = By.id("log");
+        fake.addElement(locator, "");
+        Map<String, Object> result = scriptResult(Arrays.asList("Document", "Status"),
+                Arrays.asList(Arrays.asList("DOC-1", "Processed"), Arrays.asList("DOC-2", "Failed")), null);
+        fake.scriptHandler = (f, script, args) -> script.equals(Methods.TABLE_SCRIPT) ? result : null;
+
+        List<Map<String, String>> rows = new ArrayList<>();
+        Methods.withDriver(fake.driver, () -> rows.addAll(Methods.parseTableRows(locator)));
+
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(rows.get(0).get("Document"), "DOC-1");
+        Assert.assertEquals(rows.get(1).get("Status"), "Failed");
+        Assert.assertEquals(fake.scripts.size(), 1);
+    }
+
+    @Test
+    public void cellsPastTheHeadersAndAttributesGetTheirOwnKeys() {
+        Map<String, Object> href = new HashMap<>();
+        href.put("href", "/doc?id=1");
+        Map<String, Object> result = scriptResult(Arrays.asList("Document"),
+                Arrays.asList(Arrays.asList(" DOC-1 ", "extra")),
+                Arrays.asList(Arrays.asList(href, new HashMap<>())));
+
+        List<Map<String, String>> rows = Methods.toRowMaps(result);
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("Document", "DOC-1");
+        expected.put("Document@href", "/doc?id=1");
+        expected.put("Column1", "extra");
+        Assert.assertEquals(rows.get(0), expected);
+    }
+
+    @Test
+    public void requestedAttributesArePassedToTheScript() {
+        FakeDriver fake = new FakeDriver();
+        By locator = By.id("log");
+        fake.addElement(locator, "");
+        List<Object> passed = new ArrayList<>();
+        fake.scriptHandler = (f, script, args) -> {
+            passed.add(args[1]);
+            return scriptResult(new ArrayList<>(), new ArrayList<>(), null);
+        };
+
+        Methods.withDriver(fake.driver, () -> Methods.parseTableRows(locator, "href", "title"));
+
+        Assert.assertEquals(passed, Arrays.asList(Arrays.asList("href", "title")));
+    }
+}
@@ -0,0 +1,122 @@
+package utils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.PlanningItemRecord;
+
+public class PlanningItemHistoryTest {
+
+    private static PlanningItemRecord record(String id, String planningItem, String status) {
+        PlanningItemRecord r = new PlanningItemRecord();
+        r.documentIdentifier = id;
+        r.planningItemName = planningItem;
+        r.totalLines = 8;
+        r.ordersCancelled = 2;
+        r.cancelledOrdersList = Arrays.asList("PO1", "PO2");
+        r.sourceFileName = id + ".xml";
+        r.processDate = "8/21/25 4:50:02 AM IST";
+        r.status = status;
+        r.shipToCompany = "Goodyear / 30";
+        r.shipFromCompany = "Orion Engineered Carbons / 20";
+        return r;
+    }
+
+    private static Path tempFile() throws Exception {
+        Path dir = Files.createTempDirectory("planning-history");
+        dir.toFile().deleteOnExit();
+        return dir.resolve("history.dat");
+    }
+
+    @Test
+    public void looksUpByDocumentAndPlanningItem() throws Exception {
+        try (PlanningItemHistory history = new PlanningItemHistory(tempFile())) {
+            history.append(record("DOC-1", "PI-A", "Pending"));
+            history.append(record("DOC-2", "PI-A", "Success"));
+            history.append(record("DOC-1", "PI-A", "Success"));
+            history.append(record("DOC-3", "PI-B", "Failed"));
+
+            Assert.assertEquals(history.size(), 4);
+            Assert.assertEquals(history.byPlanningItem("PI-A").size(), 3);
+            Assert.assertEquals(history.byDocument("DOC-1").get(0).status, "Pending");
+            Assert.assertEquals(history.latestStatus("DOC-1"), "Success");
+            Assert.assertEquals(history.latestStatus("DOC-3"), "Failed");
+            Assert.assertNull(history.latestStatus("DOC-9"));
+            Assert.assertTrue(history.byPlanningItem("PI-Z").isEmpty());
+
+            PlanningItemRecord latest = history.latestForDocument("DOC-1");
+            Assert.assertEquals(Methods.toJson(latest), Methods.toJson(record("DOC-1", "PI-A", "Success")));
+        }
+    }
+
+    @Test
+    public void nullFieldsRoundTrip() throws Exception {
+        try (PlanningItemHistory history = new PlanningItemHistory(tempFile())) {
+            PlanningItemRecord r = new PlanningItemRecord();
+            r.documentIdentifier = "DOC-ü";
+            int offset = history.append(r);
+
+            Assert.assertEquals(Methods.toJson(history.read(offset)), Methods.toJson(r));
+            Assert.assertNull(history.latestStatus("DOC-ü"));
+        }
+    }
+
+    @Test
+    public void growsPastTheInitialMappingAndReindexesOnReopen() throws Exception {
+        Path file = tempFile();
+        try (PlanningItemHistory history = new PlanningItemHistory(file, 256)) {
+            for (int i = 0; i < 2_000; i++) {
+                history.append(record("DOC-" + i, "PI-" + (i % 10), i % 7 == 0 ? "Failed" : "Success"));
+            }
+        }
+        try (PlanningItemHistory history = new PlanningItemHistory(file)) {
+            Assert.assertEquals(history.size(), 2_000);
+            List<PlanningItemRecord> pi3 = history.byPlanningItem("PI-3");
+            Assert.assertEquals(pi3.size(), 200);
+            Assert.assertEquals(pi3.get(pi3.size() - 1).documentIdentifier, "DOC-1993");
+            Assert.assertEquals(history.latestStatus("DOC-700"), "Failed");
+
+            history.append(record("DOC-700", "PI-0", "Success")); // appends after reopen update the indexes
+            Assert.assertEquals(history.latestStatus("DOC-700"), "Success");
+            Assert.assertEquals(history.byDocument("DOC-700").size(), 2);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void rejectsForeignFiles() throws Exception {
+        Path file = tempFile();
+        Files.write(file, "[{\"documentIdentifier\":\"x\"}]".getBytes("UTF-8"));
+        new PlanningItemHistory(file).close();
+    }
+
+    @Test
+    public void tornRecordLengthFailsInsteadOfLooping() throws Exception {
+        Path file = tempFile();
+        try (PlanningItemHistory history = new PlanningItemHistory(file, 256)) {
+            history.append(record("DOC-1", "PI-1", "Success"));
+            history.append(record("DOC-2", "PI-2", "Success"));
+        }
+        int second;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 8);
+            second = 8 + 4 + length.getInt(0);
+            channel.write(ByteBuffer.allocate(4), second); // length 0, as a write torn before the record landed
+        }
+        try {
+            new PlanningItemHistory(file).close();
+            Assert.fail("opened a history with a zero-length record");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().contains(file.toString()) && e.getMessage().contains("offset " + second),
+                    e.getMessage());
+        }
+    }
+}
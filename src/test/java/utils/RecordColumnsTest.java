@@ -0,0 +1,100 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.IntegrationDetails;
+import model.PlanningItemRecord;
+
+public class RecordColumnsTest {
+
+    private static IntegrationDetails details(int i) {
+        IntegrationDetails d = new IntegrationDetails();
+        d.documentIdentifier = "FC" + i;
+        d.processDate = "8/21/25 4:50:0" + i + " AM IST";
+        d.direction = "Inbound / IF";
+        d.docType = "Demand Forecast / RNetDemandForecast";
+        d.status = i % 2 == 0 ? "Success / SUCCESS (10)" : "Failed / FAILED (20)";
+        d.shipToCompany = "Goodyear / 30";
+        d.shipFromCompany = "Orion Engineered Carbons / 20";
+        d.fileName = "case" + i + ".xml";
+        d.planningItemName = "FC01004467924-" + i;
+        d.totalLines = 8;
+        d.ordersCancelled = i;
+        for (int j = 0; j < i; j++) {
+            d.cancelledOrdersList.add("PO" + i + "-" + j);
+        }
+        return d;
+    }
+
+    @Test
+    public void integrationDetailsRoundTrip() {
+        RecordColumns columns = new RecordColumns(1); // forces several grow() calls
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(columns.add(details(i)), i);
+        }
+        columns.trimToSize();
+
+        Assert.assertEquals(columns.size(), 100);
+        for (int i = 0; i < 100; i++) {
+            IntegrationDetails d = columns.toIntegrationDetails(i);
+            Assert.assertEquals(Methods.toJson(Methods.toPlanningItemRecord(d)),
+                    Methods.toJson(Methods.toPlanningItemRecord(details(i))));
+            Assert.assertEquals(d.direction, "Inbound / IF");
+            Assert.assertEquals(d.docType, "Demand Forecast / RNetDemandForecast");
+            Assert.assertEquals(d.cancelledOrdersList, details(i).cancelledOrdersList);
+        }
+        Assert.assertEquals(columns.countStatus("Failed / FAILED (20)"), 50);
+        Assert.assertEquals(columns.countStatus("Unknown"), 0);
+        Assert.assertEquals(columns.dictionarySizes().get("status"), Integer.valueOf(2));
+        Assert.assertEquals(columns.dictionarySizes().get("companies"), Integer.valueOf(2));
+    }
+
+    @Test
+    public void nullsSurviveTheRoundTrip() {
+        PlanningItemRecord empty = new PlanningItemRecord();
+        PlanningItemRecord partial = new PlanningItemRecord();
+        partial.documentIdentifier = "FC2";
+        partial.totalLines = 0;
+        partial.cancelledOrdersList = new ArrayList<>();
+        partial.status = "Success";
+
+        RecordColumns columns = new RecordColumns();
+        columns.add(empty);
+        columns.add(partial);
+
+        PlanningItemRecord first = columns.toPlanningItemRecord(0);
+        Assert.assertEquals(Methods.toJson(first), Methods.toJson(empty));
+        Assert.assertNull(first.totalLines);
+        Assert.assertNull(first.ordersCancelled);
+        Assert.assertNull(first.cancelledOrdersList);
+        Assert.assertNull(first.status);
+        Assert.assertEquals(columns.countStatus(null), 1);
+
+        PlanningItemRecord second = columns.toPlanningItemRecord(1);
+        Assert.assertEquals(Methods.toJson(second), Methods.toJson(partial));
+        Assert.assertEquals(second.totalLines, Integer.valueOf(0));
+        Assert.assertEquals(second.cancelledOrdersList, new ArrayList<String>());
+        Assert.assertNull(columns.toIntegrationDetails(1).direction);
+    }
+
+    @Test
+    public void cancelledOrderListsAreIndependentCopies() {
+        PlanningItemRecord r = new PlanningItemRecord();
+        r.cancelledOrdersList = new ArrayList<>(Arrays.asList("PO1", "PO2"));
+        RecordColumns columns = new RecordColumns();
+        columns.add(r);
+        r.cancelledOrdersList.add("PO3");
+
+        columns.cancelledOrders(0).add("PO4");
+        Assert.assertEquals(columns.cancelledOrders(0), Arrays.asList("PO1", "PO2"));
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void rowsPastTheEndAreRejected() {
+        new RecordColumns().status(0);
+    }
+}
@@ -0,0 +1,104 @@
+package utils;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.IntegrationDetails;
+import model.PlanningItemRecord;
+
+public class RecordJsonWriterTest {
+
+    private static final String[] PARTS = {"", "PO1", "a\"b", "back\\slash", "line\nbreak", "cr\r", "tab\t", "ü€", "\u0001", ";:,"};
+
+    private static String randomString(Random random) {
+        if (random.nextInt(8) == 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            sb.append(PARTS[random.nextInt(PARTS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static Integer randomInt(Random random) {
+        switch (random.nextInt(6)) {
+            case 0: return null;
+            case 1: return Integer.MIN_VALUE;
+            case 2: return Integer.MAX_VALUE;
+            case 3: return 0;
+            default: return random.nextInt() % 100_000;
+        }
+    }
+
+    private static PlanningItemRecord randomRecord(Random random) {
+        PlanningItemRecord r = new PlanningItemRecord();
+        r.documentIdentifier = randomString(random);
+        r.planningItemName = randomString(random);
+        r.totalLines = randomInt(random);
+        r.ordersCancelled = randomInt(random);
+        int items = random.nextInt(5) - 1;
+        if (items >= 0) {
+            r.cancelledOrdersList = new ArrayList<>();
+            for (int i = 0; i < items; i++) {
+                r.cancelledOrdersList.add(randomString(random));
+            }
+        }
+        r.sourceFileName = randomString(random);
+        r.processDate = randomString(random);
+        r.status = randomString(random);
+        r.shipToCompany = randomString(random);
+        r.shipFromCompany = randomString(random);
+        return r;
+    }
+
+    @Test
+    public void matchesToJsonForRandomRecords() {
+        Random random = new Random(7);
+        RecordJsonWriter json = new RecordJsonWriter();
+        for (int i = 0; i < 5_000; i++) {
+            PlanningItemRecord r = randomRecord(random);
+            json.reset();
+            Assert.assertEquals(json.write(r).toString(), Methods.toJson(r));
+        }
+    }
+
+    @Test
+    public void integrationDetailsAreWrittenAsTheirPlanningItemRecord() {
+        IntegrationDetails d = new IntegrationDetails();
+        d.documentIdentifier = "DOC-1";
+        d.planningItemName = "FC01004467924-83062D";
+        d.totalLines = 8;
+        d.ordersCancelled = 2;
+        d.cancelledOrdersList = Arrays.asList("PO1", "PO2");
+        d.fileName = "case07.xml";
+        d.status = "Success / SUCCESS (10)";
+        d.direction = "Inbound / IF";
+
+        Assert.assertEquals(new RecordJsonWriter().write(d).toString(), Methods.toJson(Methods.toPlanningItemRecord(d)));
+    }
+
+    @Test
+    public void writerModeFlushesInChunksWithIdenticalOutput() {
+        Random random = new Random(11);
+        StringWriter target = new StringWriter();
+        StringBuilder expected = new StringBuilder();
+        List<PlanningItemRecord> records = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            records.add(randomRecord(random));
+        }
+        try (RecordJsonWriter json = new RecordJsonWriter(target, 64)) { // smaller than most records
+            for (PlanningItemRecord r : records) {
+                json.write(r).newLine();
+                expected.append(Methods.toJson(r)).append('\n');
+            }
+        }
+        Assert.assertEquals(target.toString(), expected.toString());
+    }
+}
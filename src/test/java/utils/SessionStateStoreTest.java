@@ -0,0 +1,142 @@
+package utils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openqa.selenium.Cookie;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import webdriverfactory.FakeDriver;
+
+public class SessionStateStoreTest {
+
+    private static final String URL = "https://portal.example.com/nav?cmd=Home";
+
+    /** Fake browser whose storage scripts read/write the fake's maps. */
+    @SuppressWarnings("unchecked")
+    private static FakeDriver browser() {
+        FakeDriver fake = new FakeDriver();
+        fake.scriptHandler = (f, script, args) -> {
+            Map<String, String> storage = args.length > 0 && "sessionStorage".equals(args[0]) ? f.sessionStorage : f.localStorage;
+            if (script.equals(SessionStateStore.READ_STORAGE_SCRIPT)) {
+                return new LinkedHashMap<String, Object>(storage);
+            }
+            if (script.equals(SessionStateStore.WRITE_STORAGE_SCRIPT)) {
+                storage.putAll((Map<String, String>) args[1]);
+            }
+            if (script.contains("localStorage.clear()")) {
+                f.localStorage.clear();
+                f.sessionStorage.clear();
+            }
+            return null;
+        };
+        return fake;
+    }
+
+    private static FakeDriver loggedIn() {
+        FakeDriver fake = browser();
+        fake.driver.manage().addCookie(new Cookie("JSESSIONID", "s3cr=t", "/"));
+        fake.localStorage.put("authToken", "tok\nen");
+        fake.sessionStorage.put("tab", "7");
+        fake.currentUrl = URL;
+        return fake;
+    }
+
+    @Test
+    public void sessionOnAnotherOriginIsNotCaptured() throws Exception {
+        Path dir = Files.createTempDirectory("sessions");
+        FakeDriver onIdp = loggedIn();
+        onIdp.currentUrl = "https://sso.example.com/login/callback";
+
+        Assert.assertNull(new SessionStateStore(dir, 30).capture(onIdp.driver, "user", URL));
+        Assert.assertFalse(Files.exists(dir.resolve("portal.example.com__user.properties")));
+    }
+
+    @Test
+    public void parallelCapturesOfOneKeyLeaveOneCompleteFile() throws Exception {
+        Path dir = Files.createTempDirectory("sessions");
+        SessionStateStore store = new SessionStateStore(dir, 30);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread t = new Thread(() -> {
+                for (int j = 0; j < 20; j++) {
+                    store.capture(loggedIn().driver, "user", URL);
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            Assert.assertEquals(files.map(f -> f.getFileName().toString()).collect(Collectors.toList()),
+                    Collections.singletonList("portal.example.com__user.properties"), "no temp files left behind");
+        }
+        FakeDriver fresh = browser();
+        Assert.assertTrue(new SessionStateStore(dir, 30).restore(fresh.driver, "user", URL, d -> true));
+        Assert.assertEquals(fresh.cookies.get("JSESSIONID").getValue(), "s3cr=t");
+    }
+
+    @Test
+    public void restoresCapturedSessionFromDisk() throws Exception {
+        Path dir = Files.createTempDirectory("sessions");
+        new SessionStateStore(dir, 30).capture(loggedIn().driver, "SystemDemo3", URL);
+        Assert.assertTrue(Files.exists(dir.resolve("portal.example.com__systemdemo3.properties")));
+
+        FakeDriver fresh = browser();
+        SessionStateStore store = new SessionStateStore(dir, 30); // new run: nothing in memory
+        Assert.assertTrue(store.restore(fresh.driver, "SystemDemo3", URL, d -> fresh.cookies.containsKey("JSESSIONID")));
+        Assert.assertEquals(fresh.cookies.get("JSESSIONID").getValue(), "s3cr=t");
+        Assert.assertEquals(fresh.localStorage.get("authToken"), "tok\nen");
+        Assert.assertEquals(fresh.sessionStorage.get("tab"), "7");
+        Assert.assertEquals(fresh.currentUrl, URL);
+    }
+
+    @Test
+    public void rejectedSessionIsDroppedAndBrowserCleared() throws Exception {
+        Path dir = Files.createTempDirectory("sessions");
+        SessionStateStore store = new SessionStateStore(dir, 30);
+        store.capture(loggedIn().driver, "user", URL);
+
+        FakeDriver fresh = browser();
+        Assert.assertFalse(store.restore(fresh.driver, "user", URL, d -> false));
+        Assert.assertTrue(fresh.cookies.isEmpty());
+        Assert.assertTrue(fresh.localStorage.isEmpty());
+        Assert.assertNull(store.snapshot(SessionStateStore.key("user", URL)));
+        Assert.assertFalse(Files.exists(dir.resolve("portal.example.com__user.properties")));
+    }
+
+    @Test
+    public void expiredOrMissingSnapshotFallsBackWithoutNavigating() throws Exception {
+        Path dir = Files.createTempDirectory("sessions");
+        SessionStateStore store = new SessionStateStore(dir, 30);
+        FakeDriver fresh = browser();
+        Assert.assertFalse(store.restore(fresh.driver, "nobody", URL, d -> true));
+
+        FakeDriver expiring = loggedIn();
+        expiring.driver.manage().addCookie(new Cookie("short", "x", "/", new Date(System.currentTimeMillis() - 1000)));
+        SessionStateStore.Snapshot s = store.capture(expiring.driver, "user", URL);
+        Assert.assertTrue(s.isExpired(System.currentTimeMillis()), "earliest cookie expiry bounds the snapshot");
+        Assert.assertFalse(store.restore(fresh.driver, "user", URL, d -> true));
+        Assert.assertEquals(fresh.currentUrl, "about:blank");
+    }
+
+    @Test
+    public void keysSeparateUsersAndEnvironments() {
+        Assert.assertEquals(SessionStateStore.origin("https://host.example:8443/a/b?c"), "https://host.example:8443");
+        Assert.assertNotEquals(SessionStateStore.key("a", "https://dev.example/x"), SessionStateStore.key("a", "https://qa.example/x"));
+        Assert.assertNotEquals(SessionStateStore.key("a", URL), SessionStateStore.key("b", URL));
+        Assert.assertEquals(SessionStateStore.key("me@corp.com", URL), "portal.example.com__me_corp.com");
+    }
+}
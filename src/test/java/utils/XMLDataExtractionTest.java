@@ -0,0 +1,28 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import model.ForecastDocumentSummary;
+
+public class XMLDataExtractionTest {
+
+    @Test
+    public void summarizeCollectsAllFieldsInOneParse() throws Exception {
+        ForecastDocumentSummary s = XMLDataExtraction.summarize("xml", "orderCreate01.xml");
+
+        Assert.assertEquals(s.documentIdentifier, "FC20250812_SP001");
+        Assert.assertEquals(s.buyerName, "GOODYEAR");
+        Assert.assertEquals(s.buyerIdentifier, "FC01004467924");
+        Assert.assertEquals(s.sellerName, "ORION");
+        Assert.assertEquals(s.sellerIdentifier, "130382208");
+        Assert.assertEquals(s.purchaseOrderNumber, "20240812FC001");
+        Assert.assertEquals(s.lineItemCount, 1);
+        Assert.assertEquals(s.forecastCount, 10);
+    }
+
+    @Test(expectedExceptions = Exception.class)
+    public void summarizeRejectsMissingFile() throws Exception {
+        XMLDataExtraction.summarize("xml", "doesNotExist.xml");
+    }
+}
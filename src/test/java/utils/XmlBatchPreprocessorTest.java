@@ -0,0 +1,70 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class XmlBatchPreprocessorTest {
+
+    private static final LocalDate BASE_DATE = LocalDate.of(2025, 8, 21);
+
+    private static Path copyTemplates() throws Exception {
+        Path source = Files.createTempDirectory("xmlSource");
+        try (Stream<Path> templates = Files.list(Paths.get("resources", "xml"))) {
+            for (Path p : (Iterable<Path>) templates::iterator) {
+                Files.copy(p, source.resolve(p.getFileName()));
+            }
+        }
+        return source;
+    }
+
+    @Test
+    public void rewritesAllThenSkipsUnchanged() throws Exception {
+        Path source = copyTemplates();
+        Path target = Files.createTempDirectory("xmlTarget");
+        int templates = source.toFile().list().length;
+
+        XmlBatchPreprocessor.Result first = XmlBatchPreprocessor.preprocess(source, target, BASE_DATE, 4);
+        Assert.assertEquals(first.rewritten.get(), templates);
+        Assert.assertEquals(first.failed.get(), 0);
+
+        XmlBatchPreprocessor.Result second = XmlBatchPreprocessor.preprocess(source, target, BASE_DATE, 4);
+        Assert.assertEquals(second.skipped.get(), templates);
+        Assert.assertEquals(second.rewritten.get(), 0);
+
+        for (File template : source.toFile().listFiles()) {
+            ByteArrayOutputStream dom = new ByteArrayOutputStream();
+            XmlDateUpdater.rewriteDom(template, dom, BASE_DATE);
+            byte[] written = Files.readAllBytes(target.resolve(XmlBatchPreprocessor.outputName(template.getName())));
+            Assert.assertEquals(written, dom.toByteArray(), template.getName());
+        }
+    }
+
+    @Test
+    public void redoesChangedContentNewDateAndMissingOutput() throws Exception {
+        Path source = copyTemplates();
+        Path target = Files.createTempDirectory("xmlTarget");
+        int templates = source.toFile().list().length;
+        XmlBatchPreprocessor.preprocess(source, target, BASE_DATE, 2);
+
+        Path changed = source.resolve("orderMix01.xml");
+        String xml = new String(Files.readAllBytes(changed), StandardCharsets.UTF_8);
+        Files.write(changed, xml.replace("FC20250812", "FC20250813").getBytes(StandardCharsets.UTF_8));
+        Files.delete(target.resolve("orderCreate01_updated.xml"));
+
+        XmlBatchPreprocessor.Result partial = XmlBatchPreprocessor.preprocess(source, target, BASE_DATE, 2);
+        Assert.assertEquals(partial.rewritten.get(), 2);
+        Assert.assertEquals(partial.skipped.get(), templates - 2);
+
+        XmlBatchPreprocessor.Result nextDay = XmlBatchPreprocessor.preprocess(source, target, BASE_DATE.plusDays(1), 2);
+        Assert.assertEquals(nextDay.rewritten.get(), templates);
+    }
+}
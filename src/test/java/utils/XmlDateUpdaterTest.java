@@ -0,0 +1,75 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class XmlDateUpdaterTest {
+
+    private static final LocalDate BASE_DATE = LocalDate.of(2025, 8, 21);
+
+    @DataProvider(name = "templates")
+    public Object[][] templates() {
+        File[] files = new File("resources/xml").listFiles((dir, name) -> name.endsWith(".xml"));
+        Assert.assertNotNull(files, "resources/xml not found");
+        Object[][] data = new Object[files.length][];
+        for (int i = 0; i < files.length; i++) {
+            data[i] = new Object[] { files[i] };
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "templates")
+    public void streamingOutputMatchesDomOutput(File template) throws Exception {
+        ByteArrayOutputStream dom = new ByteArrayOutputStream();
+        XmlDateUpdater.rewriteDom(template, dom, BASE_DATE);
+
+        ByteArrayOutputStream streaming = new ByteArrayOutputStream();
+        try (InputStream in = new FileInputStream(template)) {
+            XmlDateUpdater.rewriteStreaming(in, streaming, BASE_DATE);
+        }
+
+        Assert.assertEquals(streaming.toString("UTF-8"), dom.toString("UTF-8"), template.getName());
+        Assert.assertEquals(streaming.toByteArray(), dom.toByteArray(), template.getName());
+    }
+
+    @Test
+    public void streamingHandlesAttributesEmptyElementsAndEscaping() throws Exception {
+        String xml = "<Root b=\"2\" a=\"x &amp; &quot;y&quot;\">\n"
+                + "  <Empty/>\n"
+                + "  <Also></Also>\n"
+                + "  <Text>a &lt; b &amp; c &gt; d</Text>\n"
+                + "  <DateTimeRange><FromDateTime/><ToDateTime>1</ToDateTime></DateTimeRange>\n"
+                + "  <DateTimeRange>\n    <FromDateTime>2</FromDateTime>\n    <ToDateTime>2</ToDateTime>\n  </DateTimeRange>\n"
+                + "</Root>\n";
+        File tmp = File.createTempFile("xmlDateUpdater", ".xml");
+        tmp.deleteOnExit();
+        Files.write(tmp.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream dom = new ByteArrayOutputStream();
+        XmlDateUpdater.rewriteDom(tmp, dom, BASE_DATE);
+
+        ByteArrayOutputStream streaming = new ByteArrayOutputStream();
+        XmlDateUpdater.rewriteStreaming(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), streaming, BASE_DATE);
+
+        Assert.assertEquals(streaming.toString("UTF-8"), dom.toString("UTF-8"));
+    }
+
+    @Test
+    public void inMemoryRewriteMatchesDomOutput() throws Exception {
+        ByteArrayOutputStream dom = new ByteArrayOutputStream();
+        XmlDateUpdater.rewriteDom(new File("resources/xml/orderCancel01.xml"), dom, BASE_DATE);
+
+        byte[] inMemory = XmlDateUpdater.updateForecastDatesToBytes("orderCancel01.xml", BASE_DATE); // one date for both: no midnight flake
+        Assert.assertEquals(new String(inMemory, StandardCharsets.UTF_8), dom.toString("UTF-8"));
+    }
+}
@@ -0,0 +1,46 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import model.ForecastDocumentSummary;
+
+public class XmlEngineTest {
+
+    private static final LocalDate BASE_DATE = LocalDate.of(2025, 8, 21);
+    private static final File TEMPLATE = new File("resources/xml/orderMix01.xml");
+
+    private byte[] expectedRewrite;
+    private ForecastDocumentSummary expectedSummary;
+
+    @BeforeClass
+    public void captureSingleThreadedResult() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlDateUpdater.rewriteDom(TEMPLATE, out, BASE_DATE);
+        expectedRewrite = out.toByteArray();
+        expectedSummary = XMLDataExtraction.summarize("xml", TEMPLATE.getName());
+    }
+
+    @Test(threadPoolSize = 8, invocationCount = 64)
+    public void parallelThreadsShareNoParserState() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XmlDateUpdater.rewriteDom(TEMPLATE, out, BASE_DATE);
+        Assert.assertTrue(Arrays.equals(out.toByteArray(), expectedRewrite), "rewrite differs on " + Thread.currentThread().getName());
+
+        ForecastDocumentSummary s = XMLDataExtraction.summarize("xml", TEMPLATE.getName());
+        Assert.assertEquals(s.documentIdentifier, expectedSummary.documentIdentifier);
+        Assert.assertEquals(s.forecastCount, expectedSummary.forecastCount);
+    }
+
+    @Test
+    public void transformerIsResetBetweenLeases() {
+        XmlEngine.indentingTransformer().setOutputProperty("indent", "no");
+        Assert.assertEquals(XmlEngine.indentingTransformer().getOutputProperty("indent"), "yes");
+    }
+}
@@ -0,0 +1,83 @@
+package utils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import model.ForecastDocumentSummary;
+import utils.XmlFieldExtractor.Field;
+
+public class XmlFieldExtractorTest {
+
+    @DataProvider(name = "templates")
+    public Object[][] templates() {
+        File[] files = new File("resources/xml").listFiles((dir, name) -> name.endsWith(".xml"));
+        Object[][] data = new Object[files.length][];
+        for (int i = 0; i < files.length; i++) {
+            data[i] = new Object[] { files[i] };
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "templates")
+    public void forecastFieldsAgreeWithDomSummary(File template) throws Exception {
+        XmlFieldExtractor.Values v = XmlFieldExtractor.FORECAST_FIELDS.extract(template);
+        ForecastDocumentSummary s = XMLDataExtraction.summarize("xml", template.getName());
+
+        Assert.assertEquals(v.get("documentIdentifier"), s.documentIdentifier);
+        Assert.assertEquals(v.get("buyerName"), s.buyerName);
+        Assert.assertEquals(v.get("buyerIdentifier"), s.buyerIdentifier);
+        Assert.assertEquals(v.get("sellerName"), s.sellerName);
+        Assert.assertEquals(v.get("sellerIdentifier"), s.sellerIdentifier);
+        Assert.assertEquals(v.get("purchaseOrderNumber"), s.purchaseOrderNumber);
+        Assert.assertEquals(v.count("lineItemCount"), s.lineItemCount);
+        Assert.assertEquals(v.count("forecastCount"), s.forecastCount);
+        Assert.assertEquals(v.getAll("lineNumbers").size(), s.forecastCount);
+        Assert.assertEquals(v.getAll("quantities").size(), s.forecastCount);
+    }
+
+    @Test
+    public void repeatedAttributeAndWildcardFields() throws Exception {
+        String xml = "<Root><A Type=\"x\"><V>1</V></A><A Type=\"y\"><V> 2 </V></A>"
+                + "<B><deep><V>3</V></deep></B></Root>";
+        XmlFieldExtractor extractor = XmlFieldExtractor.compile(
+                Field.repeated("allV", "//V"),
+                Field.repeated("aV", "/Root/A/V"),
+                Field.scalar("yV", "/Root/A[@Type='y']/V"),
+                Field.repeated("types", "/Root/*/@Type"),
+                Field.count("anyUnderB", "/Root/B//*"));
+
+        XmlFieldExtractor.Values v = extractor.extract(xml.getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(v.getAll("allV"), Arrays.asList("1", "2", "3"));
+        Assert.assertEquals(v.getAll("aV"), Arrays.asList("1", "2"));
+        Assert.assertEquals(v.get("yV"), "2");
+        Assert.assertEquals(v.getAll("types"), Arrays.asList("x", "y"));
+        Assert.assertEquals(v.count("anyUnderB"), 2);
+    }
+
+    @Test
+    public void scalarOnlyExtractionStopsAtFirstMatches() throws Exception {
+        // the trailing garbage is never read because every scalar is found before it
+        String xml = "<Root><Id>42</Id><Name>n</Name><Broken></Root>";
+        XmlFieldExtractor extractor = XmlFieldExtractor.compile(
+                Field.scalar("id", "/Root/Id"),
+                Field.scalar("name", "/Root/Name"));
+        XmlFieldExtractor.Values v = extractor.extract(xml.getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(v.get("id"), "42");
+        Assert.assertEquals(v.get("name"), "n");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsRelativePaths() {
+        XmlFieldExtractor.compile(Field.scalar("bad", "Root/A"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsUnquotedPredicates() {
+        XmlFieldExtractor.compile(Field.scalar("bad", "/Root/A[@Type=x]"));
+    }
+}
@@ -0,0 +1,60 @@
+package webdriverfactory;
+
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BrowserProfileTest {
+
+    @Test
+    public void defaultProfileKeepsPreviousLaunchBehaviour() {
+        BrowserProfile p = BrowserProfile.forBrowser("chrome");
+        Assert.assertEquals(p.name, "default");
+        Map<String, Object> caps = p.chromeOptions().asMap();
+        Assert.assertEquals(caps.get("pageLoadStrategy"), PageLoadStrategy.NORMAL);
+        Assert.assertEquals(chromeArgs(p.chromeOptions()).size(), 0);
+        Assert.assertEquals(p.windowWidth, 0);
+    }
+
+    @Test
+    public void throughputProfileFromBrowserParameter() {
+        Assert.assertEquals(BrowserProfile.browserName("Chrome:throughput"), "chrome");
+        BrowserProfile p = BrowserProfile.forBrowser("chrome:throughput");
+        ChromeOptions options = p.chromeOptions();
+        List<String> args = chromeArgs(options);
+        Assert.assertTrue(args.contains("--headless=new"), args.toString());
+        Assert.assertTrue(args.contains("--disable-extensions"), args.toString());
+        Assert.assertTrue(args.contains("--window-size=1366,768"), args.toString());
+        Assert.assertTrue(args.stream().anyMatch(a -> a.startsWith("--disk-cache-dir=")), args.toString());
+        Assert.assertEquals(options.asMap().get("pageLoadStrategy"), PageLoadStrategy.EAGER);
+        Assert.assertTrue(options.asMap().toString().contains("profile.managed_default_content_settings.images=2"));
+    }
+
+    @Test
+    public void customSpecMapsToFirefoxPreferences() {
+        BrowserProfile p = BrowserProfile.parse("ci", "headless, pageLoad=none, images=false, window=800x600, diskCache=true");
+        FirefoxOptions options = p.firefoxOptions();
+        String caps = options.asMap().toString();
+        Assert.assertEquals(options.asMap().get("pageLoadStrategy"), PageLoadStrategy.NONE);
+        Assert.assertTrue(caps.contains("-headless"), caps);
+        Assert.assertTrue(caps.contains("--width=800"), caps);
+        Assert.assertTrue(caps.contains("permissions.default.image=2"), caps);
+        Assert.assertTrue(caps.contains("browser.cache.disk.parent_directory=" + BrowserProfile.runCacheDir().getAbsolutePath()), caps);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unknownSettingIsRejected() {
+        BrowserProfile.parse("typo", "headles");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> chromeArgs(ChromeOptions options) {
+        Map<String, Object> chrome = (Map<String, Object>) options.asMap().get(ChromeOptions.CAPABILITY);
+        return (List<String>) chrome.get("args");
+    }
+}
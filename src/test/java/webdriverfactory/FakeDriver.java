@@ -0,0 +1,204 @@
+package webdriverfactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+
+/**
+ * In-memory stand-in for a browser session (no browser in unit runs).
+ * Tracks windows, cookies, web storage, the current URL and the scripts and CDP commands executed.
+ * Like Chrome it implements HasCdp unless constructed with cdp = false (Firefox-like).
+ */
+public class FakeDriver {
+
+    private static final AtomicInteger ids = new AtomicInteger();
+
+    public final int id = ids.incrementAndGet();
+    public final Set<String> windows = new LinkedHashSet<>();
+    public final Map<String, Cookie> cookies = new LinkedHashMap<>();
+    public final Map<String, String> localStorage = new LinkedHashMap<>();
+    public final Map<String, String> sessionStorage = new LinkedHashMap<>();
+    public final List<String> scripts = new ArrayList<>();
+    /** CDP commands as "name params", e.g. "Storage.clearDataForOrigin {origin=https://a, ...}". */
+    public final List<String> cdpCommands = new ArrayList<>();
+    /** Elements returned by findElement(s), keyed by By.toString(), e.g. "By.id: log". */
+    public final Map<String, List<WebElement>> elements = new LinkedHashMap<>();
+    public String currentUrl = "about:blank";
+    public String currentWindow;
+    public boolean quit;
+    public boolean crashed;
+    private int windowsOpened = 1;
+
+    /** Optional hook for executeScript; returns the script result. */
+    public ScriptHandler scriptHandler;
+
+    public interface ScriptHandler {
+        Object run(FakeDriver fake, String script, Object[] args);
+    }
+
+    public final WebDriver driver;
+
+    public FakeDriver() {
+        this(true);
+    }
+
+    public FakeDriver(boolean cdp) {
+        currentWindow = "w" + id + "-0";
+        windows.add(currentWindow);
+        Class<?>[] types = cdp
+                ? new Class<?>[]{WebDriver.class, JavascriptExecutor.class, HasCdp.class}
+                : new Class<?>[]{WebDriver.class, JavascriptExecutor.class};
+        driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), types, (p, m, a) -> {
+            switch (m.getName()) {
+                case "hashCode": return System.identityHashCode(p);
+                case "equals": return p == a[0];
+                case "toString": return "FakeDriver#" + id;
+                case "quit": quit = true; return null;
+                default:
+            }
+            if (quit || crashed) {
+                throw new NoSuchSessionException("session " + id + " is gone");
+            }
+            switch (m.getName()) {
+                case "getWindowHandles": return new LinkedHashSet<>(windows);
+                case "getWindowHandle": return currentWindow;
+                case "close": windows.remove(currentWindow); return null;
+                case "get": currentUrl = (String) a[0]; return null;
+                case "getCurrentUrl": return currentUrl;
+                case "switchTo": return proxy(WebDriver.TargetLocator.class, this::targetLocator);
+                case "manage": return proxy(WebDriver.Options.class, this::options);
+                case "executeScript": return executeScript((String) a[0], (Object[]) a[1]);
+                case "executeCdpCommand": return executeCdpCommand((String) a[0], (Map<?, ?>) a[1]);
+                case "findElements": return new ArrayList<>(elements.getOrDefault(a[0].toString(), new ArrayList<>()));
+                case "findElement":
+                    List<WebElement> found = elements.get(a[0].toString());
+                    if (found == null || found.isEmpty()) {
+                        throw new NoSuchElementException(a[0].toString());
+                    }
+                    return found.get(0);
+                default: throw new UnsupportedOperationException(m.getName());
+            }
+        });
+    }
+
+    /** Registers a displayed element for a locator; returns it. */
+    public WebElement addElement(By locator, String text) {
+        WebElement element = proxy(WebElement.class, (m, x) -> {
+            switch (m) {
+                case "isDisplayed":
+                case "isEnabled":
+                    return true;
+                case "getText":
+                    return text;
+                default:
+                    throw new UnsupportedOperationException(m);
+            }
+        });
+        elements.computeIfAbsent(locator.toString(), k -> new ArrayList<>()).add(element);
+        return element;
+    }
+
+    /** Opens another window, as a test clicking a target=_blank link would. */
+    public String openWindow() {
+        String handle = "w" + id + "-" + windowsOpened++;
+        windows.add(handle);
+        return handle;
+    }
+
+    private Object executeScript(String script, Object[] args) {
+        scripts.add(script);
+        if (scriptHandler != null) {
+            return scriptHandler.run(this, script, args);
+        }
+        if (script.contains("localStorage.clear()")) {
+            localStorage.clear();
+        }
+        if (script.contains("sessionStorage.clear()")) {
+            sessionStorage.clear();
+        }
+        return null;
+    }
+
+    private Object executeCdpCommand(String command, Map<?, ?> params) {
+        cdpCommands.add(command + " " + params);
+        if (command.equals("Network.clearBrowserCookies")) {
+            cookies.clear();
+        } else if (command.equals("Storage.clearDataForOrigin")) {
+            localStorage.clear();
+        }
+        return new LinkedHashMap<String, Object>();
+    }
+
+    private Object targetLocator(String method, Object[] a) {
+        switch (method) {
+            case "window":
+                if (!windows.contains(a[0])) {
+                    throw new org.openqa.selenium.NoSuchWindowException((String) a[0]);
+                }
+                currentWindow = (String) a[0];
+                return driver;
+            case "defaultContent":
+                return driver;
+            case "newWindow":
+                currentWindow = openWindow();
+                currentUrl = "about:blank";
+                sessionStorage.clear(); // a new tab has its own session storage
+                return driver;
+            default:
+                throw new UnsupportedOperationException(method);
+        }
+    }
+
+    private Object options(String method, Object[] a) {
+        switch (method) {
+            case "addCookie":
+                Cookie c = (Cookie) a[0];
+                cookies.put(c.getName(), c);
+                return null;
+            case "getCookies":
+                return new LinkedHashSet<>(cookies.values());
+            case "deleteAllCookies":
+                cookies.clear();
+                return null;
+            case "window":
+                return proxy(WebDriver.Window.class, (m, x) -> null);
+            case "timeouts":
+                return proxy(WebDriver.Timeouts.class, (m, x) -> null);
+            default:
+                throw new UnsupportedOperationException(method);
+        }
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(FakeDriver.class.getClassLoader(), new Class<?>[]{type}, (p, m, a) -> {
+            if (m.getDeclaringClass() == Object.class) {
+                return m.getName().equals("equals") ? p == a[0] : m.getName().equals("hashCode") ? System.identityHashCode(p) : type.getSimpleName();
+            }
+            try {
+                return handler.handle(m.getName(), a);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+}
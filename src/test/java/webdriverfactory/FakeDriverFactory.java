@@ -0,0 +1,62 @@
+package webdriverfactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Routes WebDriverFactory.initDriver to a pool of FakeDrivers with pooling enabled, for tests of code that
+ * goes through the factory (DriverManagerBase, the factory itself). The factory is global, so installs
+ * are serialized across parallel test classes: install() waits until the previous one is closed.
+ */
+public final class FakeDriverFactory implements AutoCloseable {
+
+    private static final Semaphore installed = new Semaphore(1);
+
+    public final List<FakeDriver> launched = new CopyOnWriteArrayList<>();
+    public final WebDriverPool pool;
+
+    private FakeDriverFactory(int poolSize, int maxUses) {
+        pool = new WebDriverPool(poolSize, maxUses, browser -> {
+            FakeDriver fake = new FakeDriver();
+            launched.add(fake);
+            return fake.driver;
+        });
+    }
+
+    public static FakeDriverFactory install(int poolSize, int maxUses) {
+        try {
+            if (!installed.tryAcquire(60, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Another test kept the fake driver factory for 60s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        FakeDriverFactory factory = new FakeDriverFactory(poolSize, maxUses);
+        WebDriverFactory.setPool(factory.pool);
+        WebDriverFactory.setPoolEnabled(true);
+        return factory;
+    }
+
+    /** The fake behind a launched driver, or null. */
+    public FakeDriver fake(WebDriver driver) {
+        for (FakeDriver f : launched) {
+            if (f.driver == driver) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    /** Restores the config-driven factory and shuts the fake pool down. */
+    @Override
+    public void close() {
+        WebDriverFactory.setPoolEnabled(null);
+        WebDriverFactory.setPool(null);
+        installed.release();
+    }
+}
@@ -0,0 +1,217 @@
+package webdriverfactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class WebDriverPoolTest {
+
+    /** Launcher that records every fake it creates. */
+    private static final class Launcher {
+        final List<FakeDriver> launched = new CopyOnWriteArrayList<>();
+        final Map<WebDriver, FakeDriver> byDriver = new ConcurrentHashMap<>();
+
+        WebDriver launch(String browser) {
+            FakeDriver fake = new FakeDriver();
+            launched.add(fake);
+            byDriver.put(fake.driver, fake);
+            return fake.driver;
+        }
+    }
+
+    @Test
+    public void reusesSessionsAndResetsStateBetweenLeases() {
+        Launcher launcher = new Launcher();
+        WebDriverPool pool = new WebDriverPool(2, 10, launcher::launch);
+        pool.warmUp("chrome", 2);
+        Assert.assertEquals(pool.idleCount("chrome"), 2);
+
+        WebDriver driver = pool.lease("chrome", 1);
+        FakeDriver fake = launcher.byDriver.get(driver);
+        String firstWindow = fake.currentWindow;
+        driver.get("https://portal.example/home");
+        driver.manage().addCookie(new Cookie("JSESSIONID", "abc"));
+        fake.localStorage.put("token", "t");
+        fake.sessionStorage.put("tab", "1");
+        fake.openWindow();
+        pool.release(driver);
+
+        Assert.assertEquals(launcher.launched.size(), 2, "no new browser after warm up");
+        Assert.assertTrue(fake.cookies.isEmpty());
+        Assert.assertTrue(fake.localStorage.isEmpty());
+        Assert.assertTrue(fake.sessionStorage.isEmpty());
+        Assert.assertEquals(fake.windows.size(), 1);
+        Assert.assertFalse(fake.windows.contains(firstWindow), "old tabs are replaced by a fresh one");
+        Assert.assertEquals(fake.currentUrl, "about:blank");
+        Assert.assertFalse(fake.quit);
+        pool.shutdown();
+        Assert.assertTrue(launcher.launched.stream().allMatch(f -> f.quit));
+    }
+
+    @Test
+    public void resetClearsCookiesAndStorageOfEveryOrigin() {
+        Launcher launcher = new Launcher();
+        WebDriverPool pool = new WebDriverPool(1, 10, launcher::launch, Arrays.asList("https://idp.example"));
+        WebDriver driver = pool.lease("chrome", 1);
+        FakeDriver fake = launcher.byDriver.get(driver);
+        driver.get("https://portal.example:8443/home");
+        fake.cookies.put("SSO", new Cookie("SSO", "s", "idp.example", "/", null)); // another domain
+        pool.release(driver);
+
+        Assert.assertTrue(fake.cookies.isEmpty());
+        Assert.assertTrue(fake.cdpCommands.contains("Network.clearBrowserCookies {}"), fake.cdpCommands.toString());
+        Assert.assertTrue(fake.cdpCommands.stream().anyMatch(c -> c.contains("origin=https://idp.example")));
+        Assert.assertTrue(fake.cdpCommands.stream().anyMatch(c -> c.contains("origin=https://portal.example:8443")));
+        Assert.assertSame(pool.lease("chrome", 1), driver);
+        pool.shutdown();
+    }
+
+    @Test
+    public void sessionsWithoutCdpAreNotReused() {
+        List<FakeDriver> launched = new CopyOnWriteArrayList<>();
+        WebDriverPool pool = new WebDriverPool(1, 10, browser -> {
+            FakeDriver fake = new FakeDriver(false);
+            launched.add(fake);
+            return fake.driver;
+        });
+        WebDriver first = pool.lease("firefox", 1);
+        pool.release(first);
+
+        Assert.assertTrue(launched.get(0).quit, "cross-domain state cannot be cleared, so the session is quit");
+        Assert.assertNotSame(pool.lease("firefox", 1), first);
+        pool.shutdown();
+    }
+
+    @Test
+    public void waitingLeaseGetsTheSlotOfADiscardedSession() throws Exception {
+        WebDriverPool pool = new WebDriverPool(1, 10, browser -> new FakeDriver(false).driver);
+        WebDriver first = pool.lease("firefox", 1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<WebDriver> waiting = executor.submit(() -> pool.lease("firefox", 5));
+            Thread.sleep(50);
+            pool.release(first); // quit, not offered back
+            Assert.assertNotSame(waiting.get(2, TimeUnit.SECONDS), first);
+        } finally {
+            executor.shutdownNow();
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void recyclesAfterMaxUsesAndReplacesDeadSessions() {
+        Launcher launcher = new Launcher();
+        WebDriverPool pool = new WebDriverPool(1, 2, launcher::launch);
+
+        WebDriver first = pool.lease("chrome", 1);
+        pool.release(first);
+        Assert.assertSame(pool.lease("chrome", 1), first);
+        pool.release(first); // second use: worn out
+        Assert.assertTrue(launcher.byDriver.get(first).quit);
+
+        WebDriver second = pool.lease("chrome", 1);
+        Assert.assertNotSame(second, first);
+        pool.release(second);
+        launcher.byDriver.get(second).crashed = true; // browser died while idle
+
+        WebDriver third = pool.lease("chrome", 1);
+        Assert.assertNotSame(third, second);
+        Assert.assertEquals(pool.liveCount("chrome"), 1);
+        Assert.assertEquals(launcher.launched.size(), 3);
+        pool.shutdown();
+    }
+
+    @Test
+    public void boundsConcurrentLeasesAndNeverSharesASession() throws Exception {
+        Launcher launcher = new Launcher();
+        WebDriverPool pool = new WebDriverPool(3, 100, launcher::launch);
+        Map<WebDriver, AtomicInteger> owners = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<?>[] futures = new Future<?>[40];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> {
+                    WebDriver d = pool.lease("chrome", 10);
+                    if (owners.computeIfAbsent(d, k -> new AtomicInteger()).incrementAndGet() != 1) {
+                        overlaps.incrementAndGet();
+                    }
+                    Thread.sleep(2);
+                    owners.get(d).decrementAndGet();
+                    pool.release(d);
+                    return null;
+                });
+            }
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(overlaps.get(), 0);
+        Assert.assertTrue(launcher.launched.size() <= 3, "launched " + launcher.launched.size());
+        pool.shutdown();
+    }
+
+    @Test
+    public void exhaustedPoolTimesOut() {
+        WebDriverPool pool = new WebDriverPool(1, 10, new Launcher()::launch);
+        pool.lease("edge", 1);
+        try {
+            pool.lease("edge", 1);
+            Assert.fail("expected timeout");
+        } catch (IllegalStateException expected) {
+            Assert.assertTrue(expected.getMessage().contains("edge"));
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void factoryReturnsPooledDriverOnQuit() {
+        FakeDriverFactory factory = FakeDriverFactory.install(1, 10);
+        try {
+            WebDriverFactory.warmUpPool("chrome");
+            Assert.assertEquals(factory.pool.idleCount("chrome"), 1, "warmed up before the first lease");
+
+            WebDriverFactory.initDriver("chrome");
+            WebDriver first = WebDriverFactory.getDriver();
+            WebDriverFactory.quitDriver();
+            Assert.assertNull(WebDriverFactory.getDriver());
+            Assert.assertFalse(factory.fake(first).quit);
+
+            WebDriverFactory.initDriver("chrome");
+            Assert.assertSame(WebDriverFactory.getDriver(), first);
+            WebDriverFactory.quitDriver();
+        } finally {
+            factory.close();
+        }
+        Assert.assertEquals(factory.launched.size(), 1);
+        Assert.assertTrue(factory.launched.get(0).quit);
+    }
+
+    @Test
+    public void creatingThePoolDoesNotEnablePooling() {
+        FakeDriverFactory factory = FakeDriverFactory.install(1, 10);
+        try {
+            WebDriverFactory.setPoolEnabled(false); // as driver_pool_enabled=false
+            Assert.assertSame(WebDriverFactory.pool(), factory.pool);
+            WebDriverFactory.warmUpPool("chrome");
+            Assert.assertEquals(factory.launched.size(), 0);
+        } finally {
+            factory.close();
+        }
+    }
+}